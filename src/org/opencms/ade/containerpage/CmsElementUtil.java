@@ -518,8 +518,10 @@ public class CmsElementUtil {
                     }
                 }
             }
+            long start = System.currentTimeMillis();
             // get the formatter configuration
             Map<String, String> contentsByName = getContentsByContainerName(element, containers, allowNested);
+            elementData.setRenderTime(System.currentTimeMillis() - start);
             contents = contentsByName;
         }
         elementData.setContents(contents);
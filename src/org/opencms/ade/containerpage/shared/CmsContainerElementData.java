@@ -76,6 +76,9 @@ public class CmsContainerElementData extends CmsContainerElement {
     /** The element navText property. */
     private String m_navText;
 
+    /** The time in milliseconds it took to render the element contents. */
+    private long m_renderTime;
+
     /** The settings for this container entry. */
     private Map<String, String> m_settings;
 
@@ -247,6 +250,16 @@ public class CmsContainerElementData extends CmsContainerElement {
         return m_navText;
     }
 
+    /**
+     * Returns the time in milliseconds it took to render the element contents.<p>
+     *
+     * @return the render time in milliseconds
+     */
+    public long getRenderTime() {
+
+        return m_renderTime;
+    }
+
     /**
      * Gets the setting configuration for this container element.<p>
      *
@@ -469,6 +482,16 @@ public class CmsContainerElementData extends CmsContainerElement {
         m_navText = navText;
     }
 
+    /**
+     * Sets the time in milliseconds it took to render the element contents.<p>
+     *
+     * @param renderTime the render time in milliseconds
+     */
+    public void setRenderTime(long renderTime) {
+
+        m_renderTime = renderTime;
+    }
+
     /**
      * Sets the settings for this container element.<p>
      *
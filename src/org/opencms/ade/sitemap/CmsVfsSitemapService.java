@@ -100,6 +100,7 @@ import org.opencms.jsp.CmsJspNavBuilder.Visibility;
 import org.opencms.jsp.CmsJspNavElement;
 import org.opencms.loader.CmsLoaderException;
 import org.opencms.lock.CmsLock;
+import org.opencms.lock.CmsLockFilter;
 import org.opencms.lock.CmsLockUtil;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
@@ -257,6 +258,18 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
     /** The navigation builder. */
     private CmsJspNavBuilder m_navBuilder;
 
+    /** The alias paths by structure id of the current site, only used while loading the sitemap tree. */
+    private Map<CmsUUID, List<String>> m_treeAliases;
+
+    /** The sorted site paths of the resources the current user can not lock, only used while loading the sitemap tree. */
+    private List<String> m_treeBlockingLocks;
+
+    /** The default files by folder root path, only set while loading the sitemap tree. */
+    private Map<String, CmsResource> m_treeDefaultFiles;
+
+    /** The lock owner names by user id, only used while loading the sitemap tree. */
+    private Map<CmsUUID, String> m_treeLockOwners;
+
     /**
      * Adds an alias import result.<p>
      *
@@ -622,12 +635,15 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
                 root,
                 CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
             boolean isRoot = root.equals(entryPointUri);
+            startTreeLoading();
             entry = toClientEntry(navElement, isRoot);
             if ((levels > 0) && (isRoot || (rootRes.isFolder()))) {
                 entry.setSubEntries(getChildren(root, levels, null), null);
             }
         } catch (Throwable e) {
             error(e);
+        } finally {
+            finishTreeLoading();
         }
         return entry;
     }
@@ -2000,6 +2016,17 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         return null;
     }
 
+    /**
+     * Discards the data collected while loading the sitemap tree.<p>
+     */
+    private void finishTreeLoading() {
+
+        m_treeAliases = null;
+        m_treeBlockingLocks = null;
+        m_treeDefaultFiles = null;
+        m_treeLockOwners = null;
+    }
+
     /**
      * Generates a client side lock info object representing the current lock state of the given resource.<p>
      *
@@ -2017,7 +2044,14 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         clientLock.setLockType(CmsClientLock.LockType.valueOf(lock.getType().getMode()));
         CmsUUID ownerId = lock.getUserId();
         if (!lock.isUnlocked() && (ownerId != null)) {
-            clientLock.setLockOwner(cms.readUser(ownerId).getDisplayName(cms, cms.getRequestContext().getLocale()));
+            String ownerName = m_treeLockOwners != null ? m_treeLockOwners.get(ownerId) : null;
+            if (ownerName == null) {
+                ownerName = cms.readUser(ownerId).getDisplayName(cms, cms.getRequestContext().getLocale());
+                if (m_treeLockOwners != null) {
+                    m_treeLockOwners.put(ownerId, ownerName);
+                }
+            }
+            clientLock.setLockOwner(ownerName);
             clientLock.setOwnedByUser(cms.getRequestContext().getCurrentUser().getId().equals(ownerId));
         }
         return clientLock;
@@ -2115,6 +2149,46 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         return result;
     }
 
+    /**
+     * Returns the alias paths pointing to the given resource.<p>
+     *
+     * While loading the sitemap tree, the aliases of the whole site are read at once.<p>
+     *
+     * @param resource the resource
+     *
+     * @return the alias paths
+     *
+     * @throws CmsException if something goes wrong
+     */
+    private List<String> getAliasPaths(CmsResource resource) throws CmsException {
+
+        CmsObject cms = getCmsObject();
+        if (m_treeDefaultFiles == null) {
+            List<String> result = new ArrayList<String>();
+            for (CmsAlias alias : OpenCms.getAliasManager().getAliasesForStructureId(
+                cms,
+                resource.getStructureId())) {
+                result.add(alias.getAliasPath());
+            }
+            return result;
+        }
+        if (m_treeAliases == null) {
+            m_treeAliases = new HashMap<CmsUUID, List<String>>();
+            for (CmsAlias alias : OpenCms.getAliasManager().getAliasesForSite(
+                cms,
+                cms.getRequestContext().getSiteRoot())) {
+                List<String> paths = m_treeAliases.get(alias.getStructureId());
+                if (paths == null) {
+                    paths = new ArrayList<String>();
+                    m_treeAliases.put(alias.getStructureId(), paths);
+                }
+                paths.add(alias.getAliasPath());
+            }
+        }
+        List<String> result = m_treeAliases.get(resource.getStructureId());
+        return result != null ? new ArrayList<String>(result) : new ArrayList<String>();
+    }
+
     /**
      * Returns the sitemap children for the given path with all descendants up to the given level or to the given target path, ie.
      * <dl><dt>levels=1 <dd>only children<dt>levels=2<dd>children and great children</dl>
@@ -2516,13 +2590,18 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         CmsJspNavElement navElement = getNavBuilder().getNavigationForResource(
             sitePath,
             CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
-        CmsClientSitemapEntry result = toClientEntry(navElement, true);
-        if (result != null) {
-            result.setPosition(0);
-            result.setChildrenLoadedInitially(true);
-            result.setSubEntries(getChildren(sitePath, 2, targetPath), null);
+        startTreeLoading();
+        try {
+            CmsClientSitemapEntry result = toClientEntry(navElement, true);
+            if (result != null) {
+                result.setPosition(0);
+                result.setChildrenLoadedInitially(true);
+                result.setSubEntries(getChildren(sitePath, 2, targetPath), null);
+            }
+            return result;
+        } finally {
+            finishTreeLoading();
         }
-        return result;
     }
 
     /**
@@ -2607,6 +2686,38 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         return result;
     }
 
+    /**
+     * Checks if the given folder or any of its descendants is locked so that the current user can not lock it.<p>
+     *
+     * While loading the sitemap tree, the blocking locks of the whole site are read at once.<p>
+     *
+     * @param folder the folder to check
+     *
+     * @return <code>true</code> if there are blocking locks in the given folder
+     *
+     * @throws CmsException if something goes wrong
+     */
+    private boolean hasBlockingLockedChildren(CmsResource folder) throws CmsException {
+
+        CmsObject cms = getCmsObject();
+        if (m_treeDefaultFiles == null) {
+            List<CmsResource> blockingChildren = cms.getBlockingLockedResources(folder);
+            return (blockingChildren != null) && !blockingChildren.isEmpty();
+        }
+        if (m_treeBlockingLocks == null) {
+            m_treeBlockingLocks = cms.getLockedResources(
+                "/",
+                CmsLockFilter.FILTER_ALL.filterNotLockableByUser(cms.getRequestContext().getCurrentUser()));
+        }
+        // the lock paths are sorted, so the first path not before the folder path decides
+        String folderPath = CmsResource.getFolderPath(cms.getSitePath(folder));
+        int pos = Collections.binarySearch(m_treeBlockingLocks, folderPath);
+        if (pos < 0) {
+            pos = -(pos + 1);
+        }
+        return (pos < m_treeBlockingLocks.size()) && m_treeBlockingLocks.get(pos).startsWith(folderPath);
+    }
+
     /**
      * Checks whether the sitemap change has default file changes.<p>
      *
@@ -2645,11 +2756,15 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
             return false;
         }
 
+        String parentPath = CmsResource.getParentFolder(resource.getRootPath());
+        if ((m_treeDefaultFiles != null) && m_treeDefaultFiles.containsKey(parentPath)) {
+            // the parent folder has already been read while loading the sitemap tree
+            return resource.equals(m_treeDefaultFiles.get(parentPath));
+        }
         CmsResource parent = cms.readResource(
             CmsResource.getParentFolder(cms.getSitePath(resource)),
             CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
-        CmsResource defaultFile = cms.readDefaultFile(parent, CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
-        return resource.equals(defaultFile);
+        return resource.equals(readDefaultFile(parent));
     }
 
     /**
@@ -2847,6 +2962,27 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         }
     }
 
+    /**
+     * Reads the default file of the given folder.<p>
+     *
+     * While loading the sitemap tree, the default files are kept for the folders already read.<p>
+     *
+     * @param folder the folder
+     *
+     * @return the default file, or <code>null</code> if the folder has none
+     */
+    private CmsResource readDefaultFile(CmsResource folder) {
+
+        if ((m_treeDefaultFiles != null) && m_treeDefaultFiles.containsKey(folder.getRootPath())) {
+            return m_treeDefaultFiles.get(folder.getRootPath());
+        }
+        CmsResource result = getCmsObject().readDefaultFile(folder, CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
+        if (m_treeDefaultFiles != null) {
+            m_treeDefaultFiles.put(folder.getRootPath(), result);
+        }
+        return result;
+    }
+
     /**
      * Reads the gallery folder properties.<p>
      *
@@ -3011,6 +3147,17 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
                     properties.get(CmsPropertyDefinition.PROPERTY_NAVTEXT).getValue()));
     }
 
+    /**
+     * Starts collecting the data shared by the entries of the sitemap tree, to avoid reading it for every entry.<p>
+     *
+     * Must be followed by a call to {@link #finishTreeLoading()}.<p>
+     */
+    private void startTreeLoading() {
+
+        m_treeDefaultFiles = new HashMap<String, CmsResource>();
+        m_treeLockOwners = new HashMap<CmsUUID, String>();
+    }
+
     /**
      * Converts a jsp navigation element into a client sitemap entry.<p>
      *
@@ -3032,7 +3179,7 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
         clientEntry.setResourceState(ownResource.getState());
         CmsResource defaultFileResource = null;
         if (ownResource.isFolder() && !navElement.isNavigationLevel()) {
-            defaultFileResource = cms.readDefaultFile(ownResource, CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
+            defaultFileResource = readDefaultFile(ownResource);
         }
 
         Map<String, CmsClientProperty> ownProps = getClientProperties(cms, ownResource, false);
@@ -3068,8 +3215,7 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
             clientEntry.setHasForeignFolderLock(
                 !folderLock.isUnlocked() && !folderLock.isOwnedBy(cms.getRequestContext().getCurrentUser()));
             if (!cms.getRequestContext().getCurrentProject().isOnlineProject()) {
-                List<CmsResource> blockingChildren = cms.getBlockingLockedResources(entryFolder);
-                clientEntry.setBlockingLockedChildren((blockingChildren != null) && !blockingChildren.isEmpty());
+                clientEntry.setBlockingLockedChildren(hasBlockingLockedChildren(entryFolder));
             }
         } else {
             entryPage = navElement.getResource();
@@ -3090,15 +3236,8 @@ public class CmsVfsSitemapService extends CmsGwtService implements I_CmsSitemapS
             }
         }
         if (entryPage.isFile()) {
-            List<CmsAlias> aliases = OpenCms.getAliasManager().getAliasesForStructureId(
-                getCmsObject(),
-                entryPage.getStructureId());
-            if (!aliases.isEmpty()) {
-                List<String> aliasList = new ArrayList<String>();
-                for (CmsAlias alias : aliases) {
-                    String aliasPath = alias.getAliasPath();
-                    aliasList.add(aliasPath);
-                }
+            List<String> aliasList = getAliasPaths(entryPage);
+            if (!aliasList.isEmpty()) {
                 clientEntry.setAliases(aliasList);
             }
         }
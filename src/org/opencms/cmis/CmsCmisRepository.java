@@ -263,7 +263,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createDocument(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, org.apache.chemistry.opencmis.commons.data.ContentStream, org.apache.chemistry.opencmis.commons.enums.VersioningState, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createDocument(
+    public String createDocument(
         CmsCmisCallContext context,
         Properties propertiesObj,
         String folderId,
@@ -322,7 +322,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createDocumentFromSource(org.opencms.cmis.CmsCmisCallContext, java.lang.String, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, org.apache.chemistry.opencmis.commons.enums.VersioningState, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createDocumentFromSource(
+    public String createDocumentFromSource(
         CmsCmisCallContext context,
         String sourceId,
         Properties propertiesObj,
@@ -397,7 +397,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createFolder(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createFolder(
+    public String createFolder(
         CmsCmisCallContext context,
         Properties propertiesObj,
         String folderId,
@@ -445,7 +445,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createRelationship(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createRelationship(
+    public String createRelationship(
         CmsCmisCallContext context,
         Properties properties,
         List<String> policies,
@@ -484,7 +484,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteContentStream(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.spi.Holder)
      */
-    public synchronized void deleteContentStream(
+    public void deleteContentStream(
         CmsCmisCallContext context,
         Holder<String> objectId,
         Holder<String> changeToken) {
@@ -496,7 +496,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteObject(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean)
      */
-    public synchronized void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
+    public void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
 
         checkWriteAccess();
         getHelper(objectId).deleteObject(context, objectId, allVersions);
@@ -505,7 +505,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteTree(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.UnfileObject, boolean)
      */
-    public synchronized FailedToDeleteData deleteTree(
+    public FailedToDeleteData deleteTree(
         CmsCmisCallContext context,
         String folderId,
         boolean allVersions,
@@ -536,7 +536,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAcl(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean)
      */
-    public synchronized Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
+    public Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
 
         return getHelper(objectId).getAcl(context, objectId, onlyBasicPermissions);
     }
@@ -544,7 +544,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAllowableActions(org.opencms.cmis.CmsCmisCallContext, java.lang.String)
      */
-    public synchronized AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
+    public AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
 
         return getHelper(objectId).getAllowableActions(context, objectId);
     }
@@ -552,7 +552,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getCheckedOutDocs(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList getCheckedOutDocs(
+    public ObjectList getCheckedOutDocs(
         CmsCmisCallContext context,
         String folderId,
         String filter,
@@ -571,7 +571,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getChildren(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectInFolderList getChildren(
+    public ObjectInFolderList getChildren(
         CmsCmisCallContext context,
         String folderId,
         String filter,
@@ -668,7 +668,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getContentStream(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ContentStream getContentStream(
+    public ContentStream getContentStream(
         CmsCmisCallContext context,
         String objectId,
         String streamId,
@@ -709,7 +709,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getDescendants(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.math.BigInteger, java.lang.String, boolean, boolean, boolean)
      */
-    public synchronized List<ObjectInFolderContainer> getDescendants(
+    public List<ObjectInFolderContainer> getDescendants(
         CmsCmisCallContext context,
         String folderId,
         BigInteger depth,
@@ -798,7 +798,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getFolderParent(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized ObjectData getFolderParent(CmsCmisCallContext context, String folderId, String filter) {
+    public ObjectData getFolderParent(CmsCmisCallContext context, String folderId, String filter) {
 
         List<ObjectParentData> parents = getObjectParents(context, folderId, filter, false, false);
         if (parents.size() == 0) {
@@ -826,7 +826,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObject(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObject(
+    public ObjectData getObject(
         CmsCmisCallContext context,
         String objectId,
         String filter,
@@ -850,7 +850,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectByPath(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObjectByPath(
+    public ObjectData getObjectByPath(
         CmsCmisCallContext context,
         String path,
         String filter,
@@ -894,7 +894,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectParents(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, boolean)
      */
-    public synchronized List<ObjectParentData> getObjectParents(
+    public List<ObjectParentData> getObjectParents(
         CmsCmisCallContext context,
         String objectId,
         String filter,
@@ -957,7 +957,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectRelationships(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.RelationshipDirection, java.lang.String, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList getObjectRelationships(
+    public ObjectList getObjectRelationships(
         CmsCmisCallContext context,
         String objectId,
         boolean includeSubRelationshipTypes,
@@ -974,22 +974,27 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             CmsUUID structureId = new CmsUUID(objectId);
             CmsResource resource = cms.readResource(structureId);
 
-            List<ObjectData> resultObjects = getRelationshipObjectData(
-                context,
-                cms,
-                resource,
-                relationshipDirection,
-                CmsCmisUtil.splitFilter(filter),
-                includeAllowableActions);
-            CmsObjectListLimiter<ObjectData> limiter = new CmsObjectListLimiter<ObjectData>(
-                resultObjects,
+            // only the requested page of relations is converted to CMIS objects
+            List<CmsRelation> relations = getRelations(cms, resource, relationshipDirection);
+            CmsObjectListLimiter<CmsRelation> limiter = new CmsObjectListLimiter<CmsRelation>(
+                relations,
                 maxItems,
                 skipCount);
+            Set<String> filterSet = CmsCmisUtil.splitFilter(filter);
+            CmsCmisRelationHelper helper = getRelationHelper();
             List<ObjectData> limitedResults = new ArrayList<ObjectData>();
-            for (ObjectData objectData : limiter) {
-                limitedResults.add(objectData);
+            for (CmsRelation relation : limiter) {
+                limitedResults.add(
+                    helper.collectObjectData(
+                        context,
+                        cms,
+                        resource,
+                        relation,
+                        filterSet,
+                        includeAllowableActions,
+                        false));
             }
-            result.setNumItems(BigInteger.valueOf(resultObjects.size()));
+            result.setNumItems(BigInteger.valueOf(relations.size()));
             result.setHasMoreItems(Boolean.valueOf(limiter.hasMore()));
             result.setObjects(limitedResults);
             return result;
@@ -1002,7 +1007,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getProperties(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized Properties getProperties(CmsCmisCallContext context, String objectId, String filter) {
+    public Properties getProperties(CmsCmisCallContext context, String objectId, String filter) {
 
         ObjectData object = getObject(context, objectId, null, false, null, null, false, false);
         return object.getProperties();
@@ -1011,7 +1016,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getRenditions(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized List<RenditionData> getRenditions(
+    public List<RenditionData> getRenditions(
         CmsCmisCallContext context,
         String objectId,
         String renditionFilter,
@@ -1039,7 +1044,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getRepositoryInfo()
      */
-    public synchronized RepositoryInfo getRepositoryInfo() {
+    public RepositoryInfo getRepositoryInfo() {
 
         // compile repository info
         RepositoryInfoImpl repositoryInfo = new RepositoryInfoImpl();
@@ -1113,7 +1118,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeChildren(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized TypeDefinitionList getTypeChildren(
+    public TypeDefinitionList getTypeChildren(
         CmsCmisCallContext context,
         String typeId,
         boolean includePropertyDefinitions,
@@ -1126,7 +1131,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeDefinition(org.opencms.cmis.CmsCmisCallContext, java.lang.String)
      */
-    public synchronized TypeDefinition getTypeDefinition(CmsCmisCallContext context, String typeId) {
+    public TypeDefinition getTypeDefinition(CmsCmisCallContext context, String typeId) {
 
         return m_typeManager.getTypeDefinition(typeId);
     }
@@ -1134,7 +1139,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeDescendants(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.math.BigInteger, boolean)
      */
-    public synchronized List<TypeDefinitionContainer> getTypeDescendants(
+    public List<TypeDefinitionContainer> getTypeDescendants(
         CmsCmisCallContext context,
         String typeId,
         BigInteger depth,
@@ -1200,7 +1205,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#moveObject(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, java.lang.String, java.lang.String)
      */
-    public synchronized void moveObject(
+    public void moveObject(
         CmsCmisCallContext context,
         Holder<String> objectId,
         String targetFolderId,
@@ -1234,7 +1239,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
      * @see org.opencms.cmis.I_CmsCmisRepository#query(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
     @Override
-    public synchronized ObjectList query(
+    public ObjectList query(
         CmsCmisCallContext context,
         String statement,
         boolean searchAllVersions,
@@ -1291,7 +1296,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#setContentStream(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, boolean, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.data.ContentStream)
      */
-    public synchronized void setContentStream(
+    public void setContentStream(
         CmsCmisCallContext context,
         Holder<String> objectId,
         boolean overwriteFlag,
@@ -1346,7 +1351,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#updateProperties(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.data.Properties)
      */
-    public synchronized void updateProperties(
+    public void updateProperties(
         CmsCmisCallContext context,
         Holder<String> objectId,
         Holder<String> changeToken,
@@ -1434,27 +1439,21 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     }
 
     /**
-     *  Gets the relationship data for a given resource.<p>
+     * Gets the relations of a given resource which can be represented as CMIS relationships.<p>
      *
-     * @param context the call context
      * @param cms the CMS context
      * @param resource the resource
      * @param relationshipDirection the relationship direction
-     * @param filterSet the property filter
-     * @param includeAllowableActions true if allowable actions should be included
-     * @return the list of relationship data
+     *
+     * @return the list of relations
      *
      * @throws CmsException if something goes wrong
      */
-    protected List<ObjectData> getRelationshipObjectData(
-        CmsCmisCallContext context,
+    protected List<CmsRelation> getRelations(
         CmsObject cms,
         CmsResource resource,
-        RelationshipDirection relationshipDirection,
-        Set<String> filterSet,
-        boolean includeAllowableActions) throws CmsException {
+        RelationshipDirection relationshipDirection) throws CmsException {
 
-        List<ObjectData> resultObjects = new ArrayList<ObjectData>();
         CmsRelationFilter relationFilter;
         if (relationshipDirection == RelationshipDirection.SOURCE) {
             relationFilter = CmsRelationFilter.TARGETS;
@@ -1472,6 +1471,32 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             }
             relations.add(relation);
         }
+        return relations;
+    }
+
+    /**
+     *  Gets the relationship data for a given resource.<p>
+     *
+     * @param context the call context
+     * @param cms the CMS context
+     * @param resource the resource
+     * @param relationshipDirection the relationship direction
+     * @param filterSet the property filter
+     * @param includeAllowableActions true if allowable actions should be included
+     * @return the list of relationship data
+     *
+     * @throws CmsException if something goes wrong
+     */
+    protected List<ObjectData> getRelationshipObjectData(
+        CmsCmisCallContext context,
+        CmsObject cms,
+        CmsResource resource,
+        RelationshipDirection relationshipDirection,
+        Set<String> filterSet,
+        boolean includeAllowableActions) throws CmsException {
+
+        List<ObjectData> resultObjects = new ArrayList<ObjectData>();
+        List<CmsRelation> relations = getRelations(cms, resource, relationshipDirection);
         CmsCmisRelationHelper helper = getRelationHelper();
         for (CmsRelation relation : relations) {
             ObjectData objData = helper.collectObjectData(
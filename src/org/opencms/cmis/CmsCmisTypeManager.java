@@ -67,6 +67,42 @@ import org.apache.commons.logging.Log;
  */
 public class CmsCmisTypeManager {
 
+    /**
+     * Immutable snapshot of the type data, which is replaced as a whole when the types are refreshed.<p>
+     */
+    private static class CmsTypeData {
+
+        /** The list of OpenCms property definitions. */
+        final List<CmsPropertyDefinition> m_cmsPropertyDefinitions;
+
+        /** The time at which the type data was created. */
+        final long m_lastUpdate;
+
+        /** The list of type definitions. */
+        final List<TypeDefinitionContainer> m_typeList;
+
+        /** The map of type definitions by id. */
+        final Map<String, TypeDefinitionContainerImpl> m_types;
+
+        /**
+         * Creates a new snapshot of the type data.<p>
+         *
+         * @param cmsPropertyDefinitions the list of OpenCms property definitions
+         * @param typeList the list of type definitions
+         * @param types the map of type definitions by id
+         */
+        CmsTypeData(
+            List<CmsPropertyDefinition> cmsPropertyDefinitions,
+            List<TypeDefinitionContainer> typeList,
+            Map<String, TypeDefinitionContainerImpl> types) {
+
+            m_cmsPropertyDefinitions = Collections.unmodifiableList(cmsPropertyDefinitions);
+            m_typeList = Collections.unmodifiableList(typeList);
+            m_types = Collections.unmodifiableMap(types);
+            m_lastUpdate = System.currentTimeMillis();
+        }
+    }
+
     /** CMIS type id for documents. */
     public static final String DOCUMENT_TYPE_ID = BaseTypeId.CMIS_DOCUMENT.value();
 
@@ -106,21 +142,12 @@ public class CmsCmisTypeManager {
     /** The admin CMS context. */
     private CmsObject m_adminCms;
 
-    /** The list of OpenCms property definitions. */
-    private List<CmsPropertyDefinition> m_cmsPropertyDefinitions;
-
-    /** The last update time. */
-    private long m_lastUpdate;
+    /** The current type data, always replaced as a whole. */
+    private volatile CmsTypeData m_data;
 
     /** List of dynamic property providers. */
     private List<I_CmsPropertyProvider> m_propertyProviders = new ArrayList<I_CmsPropertyProvider>();
 
-    /** The internal list of type definitions. */
-    private List<TypeDefinitionContainer> m_typeList;
-
-    /** The internal map of type definitions. */
-    private Map<String, TypeDefinitionContainerImpl> m_types;
-
     /**
      * Creates a new type manager instance.<p>
      *
@@ -562,9 +589,8 @@ public class CmsCmisTypeManager {
      */
     public List<String> getCmsPropertyNames() {
 
-        refresh();
         List<String> result = new ArrayList<String>();
-        for (CmsPropertyDefinition propDef : m_cmsPropertyDefinitions) {
+        for (CmsPropertyDefinition propDef : refresh().m_cmsPropertyDefinitions) {
             result.add(propDef.getName());
         }
         return result;
@@ -608,8 +634,7 @@ public class CmsCmisTypeManager {
      */
     public TypeDefinition getType(String typeId) {
 
-        refresh();
-        TypeDefinitionContainer tc = m_types.get(typeId);
+        TypeDefinitionContainer tc = refresh().m_types.get(typeId);
         if (tc == null) {
             return null;
         }
@@ -634,7 +659,7 @@ public class CmsCmisTypeManager {
         BigInteger maxItems,
         BigInteger skipCount) {
 
-        refresh();
+        Map<String, TypeDefinitionContainerImpl> types = refresh().m_types;
         TypeDefinitionListImpl result = new TypeDefinitionListImpl(new ArrayList<TypeDefinition>());
 
         int skip = (skipCount == null ? 0 : skipCount.intValue());
@@ -649,18 +674,18 @@ public class CmsCmisTypeManager {
 
         if (typeId == null) {
             if (skip < 1) {
-                result.getList().add(copyTypeDefintion(m_types.get(FOLDER_TYPE_ID).getTypeDefinition()));
+                result.getList().add(copyTypeDefintion(types.get(FOLDER_TYPE_ID).getTypeDefinition()));
                 max--;
             }
             if ((skip < 2) && (max > 0)) {
-                result.getList().add(copyTypeDefintion(m_types.get(DOCUMENT_TYPE_ID).getTypeDefinition()));
+                result.getList().add(copyTypeDefintion(types.get(DOCUMENT_TYPE_ID).getTypeDefinition()));
                 max--;
             }
 
             result.setHasMoreItems(Boolean.valueOf((result.getList().size() + skip) < 2));
             result.setNumItems(BigInteger.valueOf(2));
         } else {
-            TypeDefinitionContainer tc = m_types.get(typeId);
+            TypeDefinitionContainer tc = types.get(typeId);
             if ((tc == null) || (tc.getChildren() == null)) {
                 return result;
             }
@@ -701,8 +726,7 @@ public class CmsCmisTypeManager {
      */
     public TypeDefinition getTypeDefinition(String typeId) {
 
-        refresh();
-        TypeDefinitionContainer tc = m_types.get(typeId);
+        TypeDefinitionContainer tc = refresh().m_types.get(typeId);
         if (tc == null) {
             throw new CmisObjectNotFoundException("Type '" + typeId + "' is unknown!");
         }
@@ -725,7 +749,7 @@ public class CmsCmisTypeManager {
         BigInteger depth,
         boolean includePropertyDefinitions) {
 
-        refresh();
+        Map<String, TypeDefinitionContainerImpl> types = refresh().m_types;
         List<TypeDefinitionContainer> result = new ArrayList<TypeDefinitionContainer>();
 
         // check depth
@@ -735,11 +759,11 @@ public class CmsCmisTypeManager {
         }
 
         if (typeId == null) {
-            result.add(getTypeDescendants(d, m_types.get(FOLDER_TYPE_ID), includePropertyDefinitions));
-            result.add(getTypeDescendants(d, m_types.get(DOCUMENT_TYPE_ID), includePropertyDefinitions));
-            result.add(getTypeDescendants(d, m_types.get(RELATIONSHIP_TYPE_ID), includePropertyDefinitions));
+            result.add(getTypeDescendants(d, types.get(FOLDER_TYPE_ID), includePropertyDefinitions));
+            result.add(getTypeDescendants(d, types.get(DOCUMENT_TYPE_ID), includePropertyDefinitions));
+            result.add(getTypeDescendants(d, types.get(RELATIONSHIP_TYPE_ID), includePropertyDefinitions));
         } else {
-            TypeDefinitionContainer tc = m_types.get(typeId);
+            TypeDefinitionContainer tc = types.get(typeId);
             if (tc != null) {
                 result.add(getTypeDescendants(d, tc, includePropertyDefinitions));
             }
@@ -769,15 +793,17 @@ public class CmsCmisTypeManager {
     }
 
     /**
-     * Creates the base types.
+     * Creates the base types.<p>
+     *
+     * The types are built in new collections, which are then published together with a single write.<p>
      *
      * @throws CmsException if something goes wrong
      */
     void setup() throws CmsException {
 
-        m_types = new HashMap<String, TypeDefinitionContainerImpl>();
-        m_typeList = new ArrayList<TypeDefinitionContainer>();
-        m_cmsPropertyDefinitions = m_adminCms.readAllPropertyDefinitions();
+        Map<String, TypeDefinitionContainerImpl> types = new HashMap<String, TypeDefinitionContainerImpl>();
+        List<TypeDefinitionContainer> typeList = new ArrayList<TypeDefinitionContainer>();
+        List<CmsPropertyDefinition> cmsPropertyDefinitions = m_adminCms.readAllPropertyDefinitions();
 
         // folder type
         FolderTypeDefinitionImpl folderType = new FolderTypeDefinitionImpl();
@@ -798,10 +824,10 @@ public class CmsCmisTypeManager {
 
         addBasePropertyDefinitions(folderType);
         addFolderPropertyDefinitions(folderType);
-        addCmsPropertyDefinitions(folderType);
+        addCmsPropertyDefinitions(folderType, cmsPropertyDefinitions);
         addProviderPropertyDefinitions(folderType);
 
-        addTypeInternal(folderType);
+        addTypeInternal(folderType, types, typeList);
 
         // document type
         DocumentTypeDefinitionImpl documentType = new DocumentTypeDefinitionImpl();
@@ -825,10 +851,10 @@ public class CmsCmisTypeManager {
 
         addBasePropertyDefinitions(documentType);
         addDocumentPropertyDefinitions(documentType);
-        addCmsPropertyDefinitions(documentType);
+        addCmsPropertyDefinitions(documentType, cmsPropertyDefinitions);
         addProviderPropertyDefinitions(documentType);
 
-        addTypeInternal(documentType);
+        addTypeInternal(documentType, types, typeList);
 
         // relationship types
         RelationshipTypeDefinitionImpl relationshipType = new RelationshipTypeDefinitionImpl();
@@ -852,22 +878,25 @@ public class CmsCmisTypeManager {
         relationshipType.setAllowedTargetTypes(typeList);
         addBasePropertyDefinitions(relationshipType);
         addRelationPropertyDefinitions(relationshipType);
-        addTypeInternal(relationshipType);
+        addTypeInternal(relationshipType, types, typeList);
 
         for (CmsRelationType relType : CmsRelationType.getAll()) {
-            createRelationshipType(relType);
+            createRelationshipType(relType, types, typeList);
         }
-        m_lastUpdate = System.currentTimeMillis();
+        m_data = new CmsTypeData(cmsPropertyDefinitions, typeList, types);
     }
 
     /**
      * Adds the CMIS property definitions corresponding to the OpenCms property definitions to a CMIS type definition.<p>
      *
      * @param type the type to which the property definitions should be added
+     * @param cmsPropertyDefinitions the OpenCms property definitions
      */
-    private void addCmsPropertyDefinitions(AbstractTypeDefinition type) {
+    private void addCmsPropertyDefinitions(
+        AbstractTypeDefinition type,
+        List<CmsPropertyDefinition> cmsPropertyDefinitions) {
 
-        for (CmsPropertyDefinition propDef : m_cmsPropertyDefinitions) {
+        for (CmsPropertyDefinition propDef : cmsPropertyDefinitions) {
             type.addPropertyDefinition(createOpenCmsPropertyDefinition(propDef));
             type.addPropertyDefinition(createPropDef(
                 INHERITED_PREFIX + propDef.getName(),
@@ -917,10 +946,15 @@ public class CmsCmisTypeManager {
      * Adds a type to collection with inheriting base type properties.
      *
      * @param type the type definition to add
+     * @param types the map of type definitions to add the type to
+     * @param typeList the list of type definitions to add the type to
      *
      * @return true if the type definition was added
      */
-    private boolean addType(TypeDefinition type) {
+    private boolean addType(
+        TypeDefinition type,
+        Map<String, TypeDefinitionContainerImpl> types,
+        List<TypeDefinitionContainer> typeList) {
 
         if (type == null) {
             return false;
@@ -933,13 +967,13 @@ public class CmsCmisTypeManager {
         // find base type
         TypeDefinition baseType = null;
         if (type.getBaseTypeId() == BaseTypeId.CMIS_DOCUMENT) {
-            baseType = copyTypeDefintion(m_types.get(DOCUMENT_TYPE_ID).getTypeDefinition());
+            baseType = copyTypeDefintion(types.get(DOCUMENT_TYPE_ID).getTypeDefinition());
         } else if (type.getBaseTypeId() == BaseTypeId.CMIS_FOLDER) {
-            baseType = copyTypeDefintion(m_types.get(FOLDER_TYPE_ID).getTypeDefinition());
+            baseType = copyTypeDefintion(types.get(FOLDER_TYPE_ID).getTypeDefinition());
         } else if (type.getBaseTypeId() == BaseTypeId.CMIS_RELATIONSHIP) {
-            baseType = copyTypeDefintion(m_types.get(RELATIONSHIP_TYPE_ID).getTypeDefinition());
+            baseType = copyTypeDefintion(types.get(RELATIONSHIP_TYPE_ID).getTypeDefinition());
         } else if (type.getBaseTypeId() == BaseTypeId.CMIS_POLICY) {
-            baseType = copyTypeDefintion(m_types.get(POLICY_TYPE_ID).getTypeDefinition());
+            baseType = copyTypeDefintion(types.get(POLICY_TYPE_ID).getTypeDefinition());
         } else {
             return false;
         }
@@ -953,7 +987,7 @@ public class CmsCmisTypeManager {
         }
 
         // add it
-        addTypeInternal(newType);
+        addTypeInternal(newType, types, typeList);
         return true;
     }
 
@@ -961,14 +995,19 @@ public class CmsCmisTypeManager {
      * Internal method which adds a new type, without adding any property definitions automatically.<p>
      *
      * @param type the type to add
+     * @param types the map of type definitions to add the type to
+     * @param typeList the list of type definitions to add the type to
      */
-    private void addTypeInternal(AbstractTypeDefinition type) {
+    private void addTypeInternal(
+        AbstractTypeDefinition type,
+        Map<String, TypeDefinitionContainerImpl> types,
+        List<TypeDefinitionContainer> typeList) {
 
         if (type == null) {
             return;
         }
 
-        if (m_types.containsKey(type.getId())) {
+        if (types.containsKey(type.getId())) {
             // can't overwrite a type
             return;
         }
@@ -978,7 +1017,7 @@ public class CmsCmisTypeManager {
 
         // add to parent
         if (type.getParentTypeId() != null) {
-            TypeDefinitionContainerImpl tdc = m_types.get(type.getParentTypeId());
+            TypeDefinitionContainerImpl tdc = types.get(type.getParentTypeId());
             if (tdc != null) {
                 if (tdc.getChildren() == null) {
                     tdc.setChildren(new ArrayList<TypeDefinitionContainer>());
@@ -987,16 +1026,21 @@ public class CmsCmisTypeManager {
             }
         }
 
-        m_types.put(type.getId(), tc);
-        m_typeList.add(tc);
+        types.put(type.getId(), tc);
+        typeList.add(tc);
     }
 
     /**
      * Creates a CMIS relationship subtype for a given OpenCms relation type.<p>
      *
      * @param relType the OpenCms relation type
+     * @param types the map of type definitions to add the type to
+     * @param typeList the list of type definitions to add the type to
      */
-    private void createRelationshipType(CmsRelationType relType) {
+    private void createRelationshipType(
+        CmsRelationType relType,
+        Map<String, TypeDefinitionContainerImpl> types,
+        List<TypeDefinitionContainer> typeList) {
 
         // relationship types
         RelationshipTypeDefinitionImpl relationshipType = new RelationshipTypeDefinitionImpl();
@@ -1020,7 +1064,7 @@ public class CmsCmisTypeManager {
         typeList.add("cmis:folder");
         relationshipType.setAllowedSourceTypes(typeList);
         relationshipType.setAllowedTargetTypes(typeList);
-        addType(relationshipType);
+        addType(relationshipType, types, typeList);
     }
 
     /**
@@ -1061,16 +1105,28 @@ public class CmsCmisTypeManager {
 
     /**
      * Refreshes the internal data if the last update was longer ago than the udpate interval.<p>
+     *
+     * The new type definitions are built completely before they are published,
+     * so concurrent readers never see partially filled type definitions. Callers should use the returned
+     * snapshot for all their reads, so they see a consistent state even if the types are refreshed meanwhile.<p>
+     *
+     * @return the current type data
      */
-    private synchronized void refresh() {
+    private CmsTypeData refresh() {
 
-        try {
-            long now = System.currentTimeMillis();
-            if ((now - m_lastUpdate) > UPDATE_INTERVAL) {
-                setup();
+        CmsTypeData data = m_data;
+        if ((System.currentTimeMillis() - data.m_lastUpdate) <= UPDATE_INTERVAL) {
+            return data;
+        }
+        synchronized (this) {
+            try {
+                if ((System.currentTimeMillis() - m_data.m_lastUpdate) > UPDATE_INTERVAL) {
+                    setup();
+                }
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
             }
-        } catch (CmsException e) {
-            LOG.error(e.getLocalizedMessage(), e);
+            return m_data;
         }
     }
 
@@ -530,6 +530,12 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the version history. */
     public static final String N_VERSIONHISTORY = "versionhistory";
 
+    /** The node name for the warmup-entries node. */
+    public static final String N_WARMUP_ENTRIES = "warmup-entries";
+
+    /** The node name for the warmup-time node. */
+    public static final String N_WARMUP_TIME = "warmup-time";
+
     /** The node name for the warning-interval node. */
     public static final String N_WARNING_INTERVAL = "warning-interval";
 
@@ -1028,6 +1034,11 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
             "*/" + N_SYSTEM + "/" + N_MEMORYMONITOR + "/" + N_EMAIL_RECEIVER + "/" + N_RECEIVER,
             "addEmailReceiver",
             0);
+        digester.addCallMethod(
+            "*/" + N_SYSTEM + "/" + N_MEMORYMONITOR + "/" + N_WARMUP_ENTRIES,
+            "setWarmupEntries",
+            0);
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_MEMORYMONITOR + "/" + N_WARMUP_TIME, "setWarmupTime", 0);
 
         // set the MemoryMonitorConfiguration initialized once before
         digester.addSetNext("*/" + N_SYSTEM + "/" + N_MEMORYMONITOR, "setCmsMemoryMonitorConfiguration");
@@ -1523,6 +1534,12 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
                     emailreceiverElement.addElement(N_RECEIVER).addText(iter.next());
                 }
             }
+            if (m_cmsMemoryMonitorConfiguration.getWarmupEntries() > 0) {
+                memorymonitorElement.addElement(N_WARMUP_ENTRIES).addText(
+                    String.valueOf(m_cmsMemoryMonitorConfiguration.getWarmupEntries()));
+                memorymonitorElement.addElement(N_WARMUP_TIME).addText(
+                    String.valueOf(m_cmsMemoryMonitorConfiguration.getWarmupTime()));
+            }
         }
 
         // create <flexcache> node
@@ -110,6 +110,7 @@ import org.opencms.security.I_CmsPermissionHandler;
 import org.opencms.security.I_CmsPrincipal;
 import org.opencms.site.CmsSiteMatcher;
 import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsPair;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 import org.opencms.util.PrintfFormat;
@@ -130,6 +131,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -341,8 +343,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** The lock manager. */
     private CmsLockManager m_lockManager;
 
-    /** The log entry cache. */
-    private List<CmsLogEntry> m_log = new ArrayList<CmsLogEntry>();
+    /** The log entry cache, filled without locking by the request threads and drained by {@link #updateLog(CmsDbContext)}. */
+    private ConcurrentLinkedQueue<CmsLogEntry> m_log = new ConcurrentLinkedQueue<CmsLogEntry>();
 
     /** Local reference to the memory monitor to avoid multiple lookups through the OpenCms singleton. */
     private CmsMemoryMonitor m_monitor;
@@ -2438,50 +2440,12 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 Messages.get().container(Messages.RPT_START_DELETE_ACT_VERSIONS_1, new Integer(versionsToKeep)),
                 I_CmsReport.FORMAT_HEADLINE);
 
-            List<I_CmsHistoryResource> resources = getHistoryDriver(dbc).getAllNotDeletedEntries(dbc);
-            if (resources.isEmpty()) {
-                report.println(Messages.get().container(Messages.RPT_DELETE_NOTHING_0), I_CmsReport.FORMAT_OK);
-            }
-            int n = resources.size();
-            int m = 1;
-            Iterator<I_CmsHistoryResource> itResources = resources.iterator();
-            while (itResources.hasNext()) {
-                I_CmsHistoryResource histResource = itResources.next();
-
-                report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_SUCCESSION_2,
-                        String.valueOf(m),
-                        String.valueOf(n)),
-                    I_CmsReport.FORMAT_NOTE);
-                report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_ARGUMENT_1,
-                        dbc.removeSiteRoot(histResource.getRootPath())));
-                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-
-                try {
-                    int deleted = getHistoryDriver(dbc).deleteEntries(dbc, histResource, versionsToKeep, -1);
-
-                    report.print(
-                        Messages.get().container(Messages.RPT_VERSION_DELETING_1, new Integer(deleted)),
-                        I_CmsReport.FORMAT_NOTE);
-                    report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                        I_CmsReport.FORMAT_OK);
-                } catch (CmsDataAccessException e) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ERROR_0),
-                        I_CmsReport.FORMAT_ERROR);
-
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug(e.getLocalizedMessage(), e);
-                    }
-                }
-
-                m++;
-            }
+            pruneHistoricalVersions(
+                dbc,
+                getHistoryDriver(dbc).getAllNotDeletedEntryVersions(dbc),
+                versionsToKeep,
+                -1,
+                report);
 
             report.println(
                 Messages.get().container(Messages.RPT_END_DELETE_ACT_VERSIONS_0),
@@ -2500,50 +2464,12 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     Messages.get().container(Messages.RPT_START_DELETE_DEL_VERSIONS_1, new Integer(versionsDeleted)),
                     I_CmsReport.FORMAT_HEADLINE);
             }
-            List<I_CmsHistoryResource> resources = getHistoryDriver(dbc).getAllDeletedEntries(dbc);
-            if (resources.isEmpty()) {
-                report.println(Messages.get().container(Messages.RPT_DELETE_NOTHING_0), I_CmsReport.FORMAT_OK);
-            }
-            int n = resources.size();
-            int m = 1;
-            Iterator<I_CmsHistoryResource> itResources = resources.iterator();
-            while (itResources.hasNext()) {
-                I_CmsHistoryResource histResource = itResources.next();
-
-                report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_SUCCESSION_2,
-                        String.valueOf(m),
-                        String.valueOf(n)),
-                    I_CmsReport.FORMAT_NOTE);
-                report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_ARGUMENT_1,
-                        dbc.removeSiteRoot(histResource.getRootPath())));
-                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-
-                try {
-                    int deleted = getHistoryDriver(dbc).deleteEntries(dbc, histResource, versionsDeleted, timeDeleted);
-
-                    report.print(
-                        Messages.get().container(Messages.RPT_VERSION_DELETING_1, new Integer(deleted)),
-                        I_CmsReport.FORMAT_NOTE);
-                    report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                        I_CmsReport.FORMAT_OK);
-                } catch (CmsDataAccessException e) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ERROR_0),
-                        I_CmsReport.FORMAT_ERROR);
-
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug(e.getLocalizedMessage(), e);
-                    }
-                }
-
-                m++;
-            }
+            pruneHistoricalVersions(
+                dbc,
+                getHistoryDriver(dbc).getAllDeletedEntryVersions(dbc),
+                versionsDeleted,
+                timeDeleted,
+                report);
             report.println(
                 Messages.get().container(Messages.RPT_END_DELETE_DEL_VERSIONS_0),
                 I_CmsReport.FORMAT_HEADLINE);
@@ -9436,15 +9362,20 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 return;
             }
 
-            List<CmsLogEntry> log = new ArrayList<CmsLogEntry>(m_log);
-            m_log.clear();
+            // drain the queue entry by entry, so that entries added concurrently are not lost
+            List<CmsLogEntry> log = new ArrayList<CmsLogEntry>();
+            CmsLogEntry entry = m_log.poll();
+            while (entry != null) {
+                log.add(entry);
+                entry = m_log.poll();
+            }
             String logTableEnabledStr = (String)OpenCms.getRuntimeProperty(PARAM_LOG_TABLE_ENABLED);
             if (Boolean.parseBoolean(logTableEnabledStr)) { // defaults to 'false' if value not set
                 m_projectDriver.log(dbc, log);
             }
             CmsLogToPublishListChangeConverter converter = new CmsLogToPublishListChangeConverter();
-            for (CmsLogEntry entry : log) {
-                converter.add(entry);
+            for (CmsLogEntry logEntry : log) {
+                converter.add(logEntry);
             }
             m_projectDriver.deleteUserPublishListEntries(dbc, converter.getPublishListDeletions());
             m_projectDriver.writeUserPublishListEntries(dbc, converter.getPublishListAdditions());
@@ -11414,6 +11345,99 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return allUsers;
     }
 
+    /**
+     * Deletes the historical versions of the given resources.<p>
+     *
+     * Only the structure ids, last versions and numbers of versions of the resources are passed in,
+     * the historical resources are read one at a time while processing them. Resources which do not
+     * have more versions left than to keep are skipped without any further queries.<p>
+     *
+     * @param dbc the current database context
+     * @param entries a map from structure ids to pairs of the last historical version and the number of versions
+     * @param versionsToKeep number of versions to keep, is ignored if negative
+     * @param time versions older than this will also be deleted, is ignored if negative
+     * @param report the report for output logging
+     *
+     * @throws CmsException if something goes wrong
+     */
+    private void pruneHistoricalVersions(
+        CmsDbContext dbc,
+        Map<CmsUUID, CmsPair<Integer, Integer>> entries,
+        int versionsToKeep,
+        long time,
+        I_CmsReport report)
+    throws CmsException {
+
+        long startTime = System.currentTimeMillis();
+        List<CmsUUID> candidates = new ArrayList<CmsUUID>();
+        for (Map.Entry<CmsUUID, CmsPair<Integer, Integer>> entry : entries.entrySet()) {
+            // version numbers are not reused after pruning, so the number of versions left must be checked
+            int versionCount = entry.getValue().getSecond().intValue();
+            boolean nothingToDelete = (time < 0)
+                && (versionsToKeep >= 0)
+                && (versionCount > 0)
+                && (versionCount <= versionsToKeep);
+            if (!nothingToDelete) {
+                candidates.add(entry.getKey());
+            }
+        }
+        if (candidates.isEmpty()) {
+            report.println(Messages.get().container(Messages.RPT_DELETE_NOTHING_0), I_CmsReport.FORMAT_OK);
+        }
+        int n = candidates.size();
+        int m = 1;
+        int deletedVersions = 0;
+        for (CmsUUID structureId : candidates) {
+            report.print(
+                org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_SUCCESSION_2,
+                    String.valueOf(m),
+                    String.valueOf(n)),
+                I_CmsReport.FORMAT_NOTE);
+
+            try {
+                I_CmsHistoryResource histResource = getHistoryDriver(dbc).readResource(
+                    dbc,
+                    structureId,
+                    entries.get(structureId).getFirst().intValue());
+                report.print(
+                    org.opencms.report.Messages.get().container(
+                        org.opencms.report.Messages.RPT_ARGUMENT_1,
+                        dbc.removeSiteRoot(histResource.getRootPath())));
+                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+                int deleted = getHistoryDriver(dbc).deleteEntries(dbc, histResource, versionsToKeep, time);
+                deletedVersions += deleted;
+
+                report.print(
+                    Messages.get().container(Messages.RPT_VERSION_DELETING_1, new Integer(deleted)),
+                    I_CmsReport.FORMAT_NOTE);
+                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                    I_CmsReport.FORMAT_OK);
+            } catch (CmsDataAccessException e) {
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ERROR_0),
+                    I_CmsReport.FORMAT_ERROR);
+
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(e.getLocalizedMessage(), e);
+                }
+            }
+
+            m++;
+        }
+        report.println(
+            Messages.get().container(
+                Messages.RPT_DELETE_VERSIONS_STATS_4,
+                new Integer(deletedVersions),
+                new Integer(n),
+                new Long(System.currentTimeMillis() - startTime),
+                new Integer(entries.size() - n)),
+            I_CmsReport.FORMAT_NOTE);
+    }
+
     /**
      * Reads all resources that are inside and changed in a specified project.<p>
      *
@@ -1715,6 +1715,13 @@ public final class CmsSecurityManager {
                         }
                     }
                 }
+                try {
+                    updateLog();
+                } catch (Throwable t) {
+                    if (LOG.isErrorEnabled()) {
+                        LOG.error(Messages.get().getBundle().key(Messages.ERR_WRITE_LOG_FINAL_0), t);
+                    }
+                }
                 m_driverManager.destroy();
             }
         } catch (Throwable t) {
@@ -4890,6 +4897,9 @@ public final class CmsSecurityManager {
         CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
         try {
             result = m_driverManager.readPropertyObjects(dbc, resource, search);
+            if (context.getCurrentProject().isOnlineProject()) {
+                OpenCms.getMemoryMonitor().recordPropertyListAccess(resource.getRootPath(), search);
+            }
         } catch (Exception e) {
             dbc.report(
                 null,
@@ -5047,6 +5057,9 @@ public final class CmsSecurityManager {
         CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
         try {
             result = readResource(dbc, resourcePath, filter);
+            if (context.getCurrentProject().isOnlineProject()) {
+                OpenCms.getMemoryMonitor().recordResourceAccess(result.getRootPath());
+            }
         } catch (Exception e) {
             dbc.report(
                 null,
@@ -34,18 +34,33 @@ import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsUser;
 import org.opencms.file.history.I_CmsHistoryResource;
 import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
 import org.opencms.main.CmsRuntimeException;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsPrincipal;
 import org.opencms.security.CmsRole;
 import org.opencms.security.CmsRoleViolationException;
+import org.opencms.util.CmsPair;
 import org.opencms.util.CmsStringUtil;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Manager that provides methods to subscribe resources to users, read subscribed or unvisited resources and more.<p>
  *
+ * Visits are not written to the database immediately, but collected in memory and written in regular intervals
+ * by a background thread. Repeated visits of a user to the same resource within one interval are written only once.<p>
+ *
  * @since 8.0
  */
 public class CmsSubscriptionManager {
@@ -53,9 +68,24 @@ public class CmsSubscriptionManager {
     /** The default maximum number of visited resources to store per user. */
     private static final int DEFAULT_MAX_VISITEDCOUNT = 1000;
 
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsSubscriptionManager.class);
+
+    /** The maximum number of pending visits, further visits are written directly. */
+    private static final int MAX_PENDING_VISITS = 10000;
+
+    /** The interval in milliseconds in which pending visits are written to the database. */
+    private static final long VISIT_WRITE_INTERVAL = 10000;
+
     /** The security manager to access the cms. */
     protected CmsSecurityManager m_securityManager;
 
+    /** The admin context used to write pending visits. */
+    private CmsObject m_cms;
+
+    /** The number of visits which have been merged with a pending visit of the same user to the same resource. */
+    private AtomicLong m_coalescedVisits = new AtomicLong();
+
     /** Indicates if the subscription functionality is enabled. */
     private boolean m_enabled;
 
@@ -65,15 +95,25 @@ public class CmsSubscriptionManager {
     /** The maximum number of visited resources to store per user. */
     private int m_maxVisitedCount;
 
+    /** The visits which have not been written to the database yet, by user and resource. */
+    private ConcurrentHashMap<String, CmsPair<CmsUser, CmsResource>> m_pendingVisits;
+
     /** The name of the database pool to use. */
     private String m_poolName;
 
+    /** The number of visits which have been queued. */
+    private AtomicLong m_queuedVisits = new AtomicLong();
+
+    /** The executor which writes the pending visits. */
+    private ScheduledExecutorService m_visitWriter;
+
     /**
      * Initializes a new CmsSubscriptionManager, called from the configuration.<p>
      */
     public CmsSubscriptionManager() {
 
         m_frozen = false;
+        m_pendingVisits = new ConcurrentHashMap<String, CmsPair<CmsUser, CmsResource>>();
     }
 
     /**
@@ -89,6 +129,9 @@ public class CmsSubscriptionManager {
      */
     public long getDateLastVisitedBy(CmsObject cms, CmsUser user, CmsResource resource) throws CmsException {
 
+        if (m_pendingVisits.containsKey(getVisitKey(user, resource))) {
+            writePendingVisits();
+        }
         return m_securityManager.getDateLastVisitedBy(cms.getRequestContext(), getPoolName(), user, resource);
     }
 
@@ -106,7 +149,18 @@ public class CmsSubscriptionManager {
     public long getDateLastVisitedBy(CmsObject cms, CmsUser user, String resourcePath) throws CmsException {
 
         CmsResource resource = cms.readResource(resourcePath, CmsResourceFilter.ALL);
-        return m_securityManager.getDateLastVisitedBy(cms.getRequestContext(), getPoolName(), user, resource);
+        return getDateLastVisitedBy(cms, user, resource);
+    }
+
+    /**
+     * Returns the number of visits which have been merged with a pending visit of the same user to the same resource,
+     * instead of being written to the database separately.<p>
+     *
+     * @return the number of coalesced visits
+     */
+    public long getCoalescedVisitCount() {
+
+        return m_coalescedVisits.get();
     }
 
     /**
@@ -122,6 +176,16 @@ public class CmsSubscriptionManager {
         return m_maxVisitedCount;
     }
 
+    /**
+     * Returns the number of visits which have not been written to the database yet.<p>
+     *
+     * @return the number of pending visits
+     */
+    public int getPendingVisitCount() {
+
+        return m_pendingVisits.size();
+    }
+
     /**
      * Returns the name of the database pool to use.<p>
      *
@@ -136,6 +200,16 @@ public class CmsSubscriptionManager {
         return m_poolName;
     }
 
+    /**
+     * Returns the number of visits which have been queued for writing.<p>
+     *
+     * @return the number of queued visits
+     */
+    public long getQueuedVisitCount() {
+
+        return m_queuedVisits.get();
+    }
+
     /**
      * Initializes this subscription manager with the OpenCms system configuration.<p>
      *
@@ -147,6 +221,21 @@ public class CmsSubscriptionManager {
 
         OpenCms.getRoleManager().checkRole(cms, CmsRole.ROOT_ADMIN);
         m_frozen = true;
+        m_cms = cms;
+        m_visitWriter = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("OpenCms-VisitWriter-%d").setDaemon(true).build());
+        m_visitWriter.scheduleWithFixedDelay(new Runnable() {
+
+            public void run() {
+
+                try {
+                    writePendingVisits();
+                } catch (Throwable t) {
+                    // make sure the task is not cancelled
+                    LOG.error(t.getLocalizedMessage(), t);
+                }
+            }
+        }, VISIT_WRITE_INTERVAL, VISIT_WRITE_INTERVAL, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -173,7 +262,15 @@ public class CmsSubscriptionManager {
         if (!isEnabled()) {
             throw new CmsRuntimeException(Messages.get().container(Messages.ERR_SUBSCRIPTION_MANAGER_DISABLED_0));
         }
-        m_securityManager.markResourceAsVisitedBy(cms.getRequestContext(), getPoolName(), resource, user);
+        if ((m_visitWriter == null) || m_visitWriter.isShutdown() || (m_pendingVisits.size() >= MAX_PENDING_VISITS)) {
+            // no background writer available or too many pending visits, write the visit directly
+            m_securityManager.markResourceAsVisitedBy(cms.getRequestContext(), getPoolName(), resource, user);
+            return;
+        }
+        m_queuedVisits.incrementAndGet();
+        if (m_pendingVisits.put(getVisitKey(user, resource), CmsPair.create(user, resource)) != null) {
+            m_coalescedVisits.incrementAndGet();
+        }
     }
 
     /**
@@ -218,6 +315,7 @@ public class CmsSubscriptionManager {
      */
     public List<CmsResource> readResourcesVisitedBy(CmsObject cms, CmsVisitedByFilter filter) throws CmsException {
 
+        writePendingVisits();
         return m_securityManager.readResourcesVisitedBy(cms.getRequestContext(), getPoolName(), filter);
     }
 
@@ -277,6 +375,8 @@ public class CmsSubscriptionManager {
      */
     public List<CmsResource> readSubscribedResources(CmsObject cms, CmsSubscriptionFilter filter) throws CmsException {
 
+        // the filter may select resources by their visited state
+        writePendingVisits();
         return m_securityManager.readSubscribedResources(cms.getRequestContext(), getPoolName(), filter);
     }
 
@@ -367,6 +467,22 @@ public class CmsSubscriptionManager {
         m_securityManager.setSubscribedResourceAsDeleted(cms.getRequestContext(), getPoolName(), resource);
     }
 
+    /**
+     * Stops the background writer and writes all pending visits to the database.<p>
+     */
+    public void shutDown() {
+
+        if (m_visitWriter != null) {
+            m_visitWriter.shutdown();
+            try {
+                m_visitWriter.awaitTermination(VISIT_WRITE_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // write the remaining visits anyway
+            }
+        }
+        writePendingVisits();
+    }
+
     /**
      * Subscribes the user or group to the resource.<p>
      *
@@ -494,4 +610,57 @@ public class CmsSubscriptionManager {
         unsubscribeResourceForAll(cms, resource);
     }
 
+    /**
+     * Writes all pending visits to the database.<p>
+     */
+    public void writePendingVisits() {
+
+        if (m_pendingVisits.isEmpty()) {
+            return;
+        }
+        // the admin context is not thread safe, so only one thread writes visits at a time
+        synchronized (m_pendingVisits) {
+            long startTime = System.currentTimeMillis();
+            int count = 0;
+            for (String key : new ArrayList<String>(m_pendingVisits.keySet())) {
+                // a visit queued while this one is written is kept for the next run
+                CmsPair<CmsUser, CmsResource> visit = m_pendingVisits.remove(key);
+                if (visit == null) {
+                    continue;
+                }
+                try {
+                    m_securityManager.markResourceAsVisitedBy(
+                        m_cms.getRequestContext(),
+                        getPoolName(),
+                        visit.getSecond(),
+                        visit.getFirst());
+                    count++;
+                } catch (CmsException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_WRITE_PENDING_VISITS_3,
+                        new Integer(count),
+                        new Long(System.currentTimeMillis() - startTime),
+                        new Long(m_coalescedVisits.get())));
+            }
+        }
+    }
+
+    /**
+     * Returns the key for the pending visit of the given user to the given resource.<p>
+     *
+     * @param user the user
+     * @param resource the resource
+     *
+     * @return the key for the pending visit
+     */
+    private String getVisitKey(CmsUser user, CmsResource resource) {
+
+        return user.getId() + "|" + resource.getStructureId();
+    }
+
 }
@@ -35,9 +35,11 @@ import org.opencms.file.history.CmsHistoryPrincipal;
 import org.opencms.file.history.CmsHistoryProject;
 import org.opencms.file.history.I_CmsHistoryResource;
 import org.opencms.security.I_CmsPrincipal;
+import org.opencms.util.CmsPair;
 import org.opencms.util.CmsUUID;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Definitions of all required history driver methods.<p>
@@ -114,6 +116,21 @@ public interface I_CmsHistoryDriver {
      */
     List<I_CmsHistoryResource> getAllDeletedEntries(CmsDbContext dbc) throws CmsDataAccessException;
 
+    /**
+     * Returns the structure ids of all deleted resources with historical entries,
+     * together with the last version and the number of versions available for each of them.<p>
+     *
+     * In contrast to {@link #getAllDeletedEntries(CmsDbContext)}, the historical resources are not read.<p>
+     *
+     * @param dbc the current database context
+     *
+     * @return a map from structure ids to pairs of the last historical version and the number of versions
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    Map<CmsUUID, CmsPair<Integer, Integer>> getAllDeletedEntryVersions(CmsDbContext dbc)
+    throws CmsDataAccessException;
+
     /**
      * Returns all historical resources (of not deleted resources).<p>
      *
@@ -125,6 +142,21 @@ public interface I_CmsHistoryDriver {
      */
     List<I_CmsHistoryResource> getAllNotDeletedEntries(CmsDbContext dbc) throws CmsDataAccessException;
 
+    /**
+     * Returns the structure ids of all not deleted resources with historical entries,
+     * together with the last version and the number of versions available for each of them.<p>
+     *
+     * In contrast to {@link #getAllNotDeletedEntries(CmsDbContext)}, the historical resources are not read.<p>
+     *
+     * @param dbc the current database context
+     *
+     * @return a map from structure ids to pairs of the last historical version and the number of versions
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    Map<CmsUUID, CmsPair<Integer, Integer>> getAllNotDeletedEntryVersions(CmsDbContext dbc)
+    throws CmsDataAccessException;
+
     /**
      * Returns the SqlManager of this driver.<p>
      *
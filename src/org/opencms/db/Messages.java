@@ -762,6 +762,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_WRITE_GROUP_1 = "ERR_WRITE_GROUP_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_WRITE_LOG_FINAL_0 = "ERR_WRITE_LOG_FINAL_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_WRITE_ORGUNIT_1 = "ERR_WRITE_ORGUNIT_1";
 
@@ -891,6 +894,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_WRITE_EXPORT_POINT_FAILED_1 = "LOG_WRITE_EXPORT_POINT_FAILED_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_WRITE_PENDING_VISITS_3 = "LOG_WRITE_PENDING_VISITS_3";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_CHECKING_0 = "RPT_CHECKING_0";
 
@@ -900,6 +906,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_DELETE_NOTHING_0 = "RPT_DELETE_NOTHING_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_DELETE_VERSIONS_STATS_4 = "RPT_DELETE_VERSIONS_STATS_4";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_END_DELETE_ACT_VERSIONS_0 = "RPT_END_DELETE_ACT_VERSIONS_0";
 
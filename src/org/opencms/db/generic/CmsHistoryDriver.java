@@ -55,6 +55,7 @@ import org.opencms.file.history.I_CmsHistoryResource;
 import org.opencms.main.CmsLog;
 import org.opencms.security.CmsOrganizationalUnit;
 import org.opencms.security.I_CmsPrincipal;
+import org.opencms.util.CmsPair;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
@@ -323,72 +324,43 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
      */
     public List<I_CmsHistoryResource> getAllDeletedEntries(CmsDbContext dbc) throws CmsDataAccessException {
 
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet res = null;
-
-        Map<CmsUUID, Integer> tmpEntrieis = new HashMap<CmsUUID, Integer>();
         List<I_CmsHistoryResource> entries = new ArrayList<I_CmsHistoryResource>();
-        try {
-            conn = m_sqlManager.getConnection(dbc);
-            // get all not-deleted historical entries that may come in question
-            stmt = m_sqlManager.getPreparedStatement(conn, "C_STRUCTURE_HISTORY_READ_DELETED");
-            res = stmt.executeQuery();
-            while (res.next()) {
-                CmsUUID structureId = new CmsUUID(res.getString(1));
-                int version = res.getInt(2);
-                tmpEntrieis.put(structureId, Integer.valueOf(version));
-            }
-        } catch (SQLException e) {
-            throw new CmsDbSqlException(
-                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
-                e);
-        } finally {
-            m_sqlManager.closeAll(dbc, conn, stmt, res);
-        }
-        for (Map.Entry<CmsUUID, Integer> entry : tmpEntrieis.entrySet()) {
-            entries.add(readResource(dbc, entry.getKey(), entry.getValue().intValue()));
+        for (Map.Entry<CmsUUID, CmsPair<Integer, Integer>> entry : getAllDeletedEntryVersions(dbc).entrySet()) {
+            entries.add(readResource(dbc, entry.getKey(), entry.getValue().getFirst().intValue()));
         }
         return entries;
     }
 
     /**
-     * @see org.opencms.db.I_CmsHistoryDriver#getAllNotDeletedEntries(org.opencms.db.CmsDbContext)
+     * @see org.opencms.db.I_CmsHistoryDriver#getAllDeletedEntryVersions(org.opencms.db.CmsDbContext)
      */
-    public List<I_CmsHistoryResource> getAllNotDeletedEntries(CmsDbContext dbc) throws CmsDataAccessException {
+    public Map<CmsUUID, CmsPair<Integer, Integer>> getAllDeletedEntryVersions(CmsDbContext dbc)
+    throws CmsDataAccessException {
 
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet res = null;
+        return internalReadEntryVersions(dbc, "C_STRUCTURE_HISTORY_READ_DELETED");
+    }
 
-        Map<CmsUUID, Integer> tmpEntrieis = new HashMap<CmsUUID, Integer>();
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#getAllNotDeletedEntries(org.opencms.db.CmsDbContext)
+     */
+    public List<I_CmsHistoryResource> getAllNotDeletedEntries(CmsDbContext dbc) throws CmsDataAccessException {
 
         List<I_CmsHistoryResource> entries = new ArrayList<I_CmsHistoryResource>();
-        try {
-            conn = m_sqlManager.getConnection(dbc);
-
-            // get all not-deleted historical entries that may come in question
-            stmt = m_sqlManager.getPreparedStatement(conn, "C_STRUCTURE_HISTORY_READ_NOTDELETED");
-            res = stmt.executeQuery();
-            while (res.next()) {
-                CmsUUID structureId = new CmsUUID(res.getString(1));
-                int version = res.getInt(2);
-                tmpEntrieis.put(structureId, Integer.valueOf(version));
-            }
-        } catch (SQLException e) {
-            throw new CmsDbSqlException(
-                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
-                e);
-        } finally {
-            m_sqlManager.closeAll(dbc, conn, stmt, res);
-        }
-
-        for (Map.Entry<CmsUUID, Integer> entry : tmpEntrieis.entrySet()) {
-            entries.add(readResource(dbc, entry.getKey(), entry.getValue().intValue()));
+        for (Map.Entry<CmsUUID, CmsPair<Integer, Integer>> entry : getAllNotDeletedEntryVersions(dbc).entrySet()) {
+            entries.add(readResource(dbc, entry.getKey(), entry.getValue().getFirst().intValue()));
         }
         return entries;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#getAllNotDeletedEntryVersions(org.opencms.db.CmsDbContext)
+     */
+    public Map<CmsUUID, CmsPair<Integer, Integer>> getAllNotDeletedEntryVersions(CmsDbContext dbc)
+    throws CmsDataAccessException {
+
+        return internalReadEntryVersions(dbc, "C_STRUCTURE_HISTORY_READ_NOTDELETED");
+    }
+
     /**
      * @see org.opencms.db.I_CmsHistoryDriver#getSqlManager()
      */
@@ -1880,6 +1852,44 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         }
     }
 
+    /**
+     * Reads the structure ids, last versions and numbers of versions of historical entries using the given query.<p>
+     *
+     * @param dbc the current database context
+     * @param query the key of the query which selects the structure id, the last version and the number of versions
+     *
+     * @return a map from structure ids to pairs of the last historical version and the number of versions
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected Map<CmsUUID, CmsPair<Integer, Integer>> internalReadEntryVersions(CmsDbContext dbc, String query)
+    throws CmsDataAccessException {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+
+        Map<CmsUUID, CmsPair<Integer, Integer>> entries = new HashMap<CmsUUID, CmsPair<Integer, Integer>>();
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, query);
+            res = stmt.executeQuery();
+            while (res.next()) {
+                CmsUUID structureId = new CmsUUID(res.getString(1));
+                int version = res.getInt(2);
+                int count = res.getInt(3);
+                entries.put(structureId, CmsPair.create(Integer.valueOf(version), Integer.valueOf(count)));
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+        return entries;
+    }
+
     /**
      * Tests if a history resource does exist.<p>
      *
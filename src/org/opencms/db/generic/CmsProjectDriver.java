@@ -87,6 +87,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -911,12 +912,21 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             conn = m_sqlManager.getConnection(dbc);
             stmt = m_sqlManager.getPreparedStatement(conn, "C_LOG_CREATE_5");
 
+            // write all entries in one batch first
             for (CmsLogEntry logEntry : logEntries) {
-                stmt.setString(1, logEntry.getUserId().toString());
-                stmt.setLong(2, logEntry.getDate());
-                stmt.setString(3, logEntry.getStructureId() == null ? null : logEntry.getStructureId().toString());
-                stmt.setInt(4, logEntry.getType().getId());
-                stmt.setString(5, CmsStringUtil.arrayAsString(logEntry.getData(), "|"));
+                setLogEntryParameters(stmt, logEntry);
+                stmt.addBatch();
+            }
+            try {
+                stmt.executeBatch();
+                return;
+            } catch (BatchUpdateException e) {
+                // most likely a duplicate entry, fall back to single row inserts below
+                LOG.debug(e.getLocalizedMessage(), e);
+                stmt.clearBatch();
+            }
+            for (CmsLogEntry logEntry : logEntries) {
+                setLogEntryParameters(stmt, logEntry);
                 try {
                     stmt.executeUpdate();
                 } catch (SQLException e) {
@@ -3850,4 +3860,21 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         m_driverManager.getVfsDriver(dbc).updateRelations(dbc, onlineProject, offlineResource);
     }
 
+    /**
+     * Sets the parameters of the log entry insert statement for the given entry.<p>
+     *
+     * @param stmt the prepared log entry insert statement
+     * @param logEntry the log entry to write
+     *
+     * @throws SQLException if something goes wrong
+     */
+    protected void setLogEntryParameters(PreparedStatement stmt, CmsLogEntry logEntry) throws SQLException {
+
+        stmt.setString(1, logEntry.getUserId().toString());
+        stmt.setLong(2, logEntry.getDate());
+        stmt.setString(3, logEntry.getStructureId() == null ? null : logEntry.getStructureId().toString());
+        stmt.setInt(4, logEntry.getType().getId());
+        stmt.setString(5, CmsStringUtil.arrayAsString(logEntry.getData(), "|"));
+    }
+
 }
\ No newline at end of file
@@ -96,6 +96,9 @@ import java.util.Set;
 
 import org.apache.commons.logging.Log;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
 /**
  * Generic (ANSI-SQL) database server implementation of the VFS driver methods.<p>
  *
@@ -112,6 +115,15 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(org.opencms.db.generic.CmsVfsDriver.class);
 
+    /** The canonical instances of the user and project ids, which are shared by many resources. */
+    private static final Interner<CmsUUID> SHARED_IDS = Interners.newWeakInterner();
+
+    /** The maximum length of property values for which a canonical instance is used. */
+    private static final int SHARED_STRING_MAX_LENGTH = 128;
+
+    /** The canonical instances of the property names and short property values. */
+    private static final Interner<String> SHARED_STRINGS = Interners.newWeakInterner();
+
     /** The driver manager. */
     protected CmsDriverManager m_driverManager;
 
@@ -309,8 +321,8 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         long dateReleased = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_RELEASED"));
         long dateExpired = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_EXPIRED"));
         int resourceSize = res.getInt(m_sqlManager.readQuery("C_RESOURCES_SIZE"));
-        CmsUUID userCreated = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_CREATED")));
-        CmsUUID userLastModified = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED")));
+        CmsUUID userCreated = readSharedId(res, m_sqlManager.readQuery("C_RESOURCES_USER_CREATED"));
+        CmsUUID userLastModified = readSharedId(res, m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED"));
         byte[] content = m_sqlManager.getBytes(res, m_sqlManager.readQuery("C_RESOURCES_FILE_CONTENT"));
         int siblingCount = res.getInt(m_sqlManager.readQuery("C_RESOURCES_SIBLING_COUNT"));
         long dateContent = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_CONTENT"));
@@ -367,9 +379,9 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         long dateReleased = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_RELEASED"));
         long dateExpired = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_EXPIRED"));
         int resourceSize = res.getInt(m_sqlManager.readQuery("C_RESOURCES_SIZE"));
-        CmsUUID userCreated = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_CREATED")));
-        CmsUUID userLastModified = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED")));
-        CmsUUID lockedInProject = new CmsUUID(res.getString("LOCKED_IN_PROJECT"));
+        CmsUUID userCreated = readSharedId(res, m_sqlManager.readQuery("C_RESOURCES_USER_CREATED"));
+        CmsUUID userLastModified = readSharedId(res, m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED"));
+        CmsUUID lockedInProject = readSharedId(res, "LOCKED_IN_PROJECT");
         int siblingCount = res.getInt(m_sqlManager.readQuery("C_RESOURCES_SIBLING_COUNT"));
         long dateContent = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_CONTENT"));
         int resourceVersion = res.getInt(m_sqlManager.readQuery("C_RESOURCES_VERSION"));
@@ -423,9 +435,9 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         long dateLastModified = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_LASTMODIFIED"));
         long dateReleased = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_RELEASED"));
         long dateExpired = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_EXPIRED"));
-        CmsUUID userCreated = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_CREATED")));
-        CmsUUID userLastModified = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED")));
-        CmsUUID resProjectId = new CmsUUID(res.getString("LOCKED_IN_PROJECT"));
+        CmsUUID userCreated = readSharedId(res, m_sqlManager.readQuery("C_RESOURCES_USER_CREATED"));
+        CmsUUID userLastModified = readSharedId(res, m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED"));
+        CmsUUID resProjectId = readSharedId(res, "LOCKED_IN_PROJECT");
         int resourceVersion = res.getInt(m_sqlManager.readQuery("C_RESOURCES_VERSION"));
         int structureVersion = res.getInt(m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_VERSION"));
         int resourceSize = res.getInt(m_sqlManager.readQuery("C_RESOURCES_SIZE"));
@@ -852,8 +864,9 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         String resourcePath = res.getString(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_PATH"));
         int resourceType = res.getInt(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_TYPE"));
         int resourceFlags = res.getInt(m_sqlManager.readQuery("C_RESOURCES_RESOURCE_FLAGS"));
-        CmsUUID resourceProjectLastModified = new CmsUUID(
-            res.getString(m_sqlManager.readQuery("C_RESOURCES_PROJECT_LASTMODIFIED")));
+        CmsUUID resourceProjectLastModified = readSharedId(
+            res,
+            m_sqlManager.readQuery("C_RESOURCES_PROJECT_LASTMODIFIED"));
         int resourceState = res.getInt(m_sqlManager.readQuery("C_RESOURCES_STATE"));
         int structureState = res.getInt(m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_STATE"));
         long dateCreated = res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_CREATED"));
@@ -867,8 +880,8 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
             resourcePath = CmsFileUtil.addTrailingSeparator(resourcePath);
         }
         long dateContent = isFolder ? -1 : res.getLong(m_sqlManager.readQuery("C_RESOURCES_DATE_CONTENT"));
-        CmsUUID userCreated = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_CREATED")));
-        CmsUUID userLastModified = new CmsUUID(res.getString(m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED")));
+        CmsUUID userCreated = readSharedId(res, m_sqlManager.readQuery("C_RESOURCES_USER_CREATED"));
+        CmsUUID userLastModified = readSharedId(res, m_sqlManager.readQuery("C_RESOURCES_USER_LASTMODIFIED"));
         int siblingCount = res.getInt(m_sqlManager.readQuery("C_RESOURCES_SIBLING_COUNT"));
         int resourceVersion = res.getInt(m_sqlManager.readQuery("C_RESOURCES_VERSION"));
         int structureVersion = res.getInt(m_sqlManager.readQuery("C_RESOURCES_STRUCTURE_VERSION"));
@@ -2115,10 +2128,10 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
 
                 if (property == null) {
                     property = new CmsProperty();
-                    property.setName(key);
+                    property.setName(shareString(key));
                 }
 
-                propertyValue = res.getString(1);
+                propertyValue = shareString(res.getString(1));
                 mappingType = res.getInt(2);
 
                 if (mappingType == CmsProperty.STRUCTURE_RECORD_MAPPING) {
@@ -2179,8 +2192,8 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
                 propertyValue = null;
                 mappingType = -1;
 
-                propertyKey = res.getString(1);
-                propertyValue = res.getString(2);
+                propertyKey = shareString(res.getString(1));
+                propertyValue = shareString(res.getString(2));
                 mappingType = res.getInt(3);
 
                 property = propertyMap.get(propertyKey);
@@ -4525,6 +4538,24 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * Reads an id from the given result set, and returns its canonical instance.<p>
+     *
+     * Used for the user and project ids of resources, which are the same for many resources.
+     * Sharing them reduces the memory used by the resources kept in the resource caches.<p>
+     *
+     * @param res the result set
+     * @param columnName the name of the column containing the id
+     *
+     * @return the canonical instance of the id
+     *
+     * @throws SQLException if something goes wrong
+     */
+    protected CmsUUID readSharedId(ResultSet res, String columnName) throws SQLException {
+
+        return SHARED_IDS.intern(new CmsUUID(res.getString(columnName)));
+    }
+
     /**
      * Reads all resources inside a given project matching the criteria specified by parameter values.<p>
      *
@@ -4659,6 +4690,24 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * Returns the canonical instance of the given property name or value.<p>
+     *
+     * Property names and short values like template paths or flags repeat for many resources,
+     * so sharing them reduces the memory used by the property lists kept in the property caches.<p>
+     *
+     * @param value the property name or value, may be <code>null</code>
+     *
+     * @return the canonical instance, or the given value if it is <code>null</code> or too long to be shared
+     */
+    protected String shareString(String value) {
+
+        if ((value == null) || (value.length() > SHARED_STRING_MAX_LENGTH)) {
+            return value;
+        }
+        return SHARED_STRINGS.intern(value);
+    }
+
     /**
      * Updates broken links.<p>
      *
@@ -66,6 +66,7 @@ import org.opencms.main.CmsLog;
 import org.opencms.security.CmsOrganizationalUnit;
 import org.opencms.security.I_CmsPrincipal;
 import org.opencms.util.CmsDataTypeUtil;
+import org.opencms.util.CmsPair;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
@@ -417,17 +418,30 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
      */
     public List<I_CmsHistoryResource> getAllDeletedEntries(CmsDbContext dbc) throws CmsDataAccessException {
 
-        Query q = null;
         List<I_CmsHistoryResource> entries = new ArrayList<I_CmsHistoryResource>();
+        for (Map.Entry<CmsUUID, CmsPair<Integer, Integer>> entry : getAllDeletedEntryVersions(dbc).entrySet()) {
+            entries.add(readResource(dbc, entry.getKey(), entry.getValue().getFirst().intValue()));
+        }
+        return entries;
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#getAllDeletedEntryVersions(org.opencms.db.CmsDbContext)
+     */
+    public Map<CmsUUID, CmsPair<Integer, Integer>> getAllDeletedEntryVersions(CmsDbContext dbc)
+    throws CmsDataAccessException {
+
+        Map<CmsUUID, CmsPair<Integer, Integer>> entries = new HashMap<CmsUUID, CmsPair<Integer, Integer>>();
         try {
-            // get all not-deleted historical entries that may come in question
-            q = m_sqlManager.createQuery(dbc, C_STRUCTURE_HISTORY_READ_DELETED);
+            // get all deleted historical entries that may come in question
+            Query q = m_sqlManager.createQuery(dbc, C_STRUCTURE_HISTORY_READ_DELETED);
             @SuppressWarnings("unchecked")
             List<Object[]> res = q.getResultList();
             for (Object[] obj : res) {
                 CmsUUID structureId = new CmsUUID((String)obj[0]);
-                int version = CmsDataTypeUtil.numberToInt((Integer)obj[1]);
-                entries.add(readResource(dbc, structureId, version));
+                int version = CmsDataTypeUtil.numberToInt((Number)obj[1]);
+                int count = CmsDataTypeUtil.numberToInt((Number)obj[2]);
+                entries.put(structureId, CmsPair.create(Integer.valueOf(version), Integer.valueOf(count)));
             }
         } catch (PersistenceException e) {
             throw new CmsDataAccessException(Messages.get().container(Messages.ERR_JPA_PERSITENCE_1, e), e);
@@ -441,6 +455,19 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
     public List<I_CmsHistoryResource> getAllNotDeletedEntries(CmsDbContext dbc) throws CmsDataAccessException {
 
         List<I_CmsHistoryResource> entries = new ArrayList<I_CmsHistoryResource>();
+        for (Map.Entry<CmsUUID, CmsPair<Integer, Integer>> entry : getAllNotDeletedEntryVersions(dbc).entrySet()) {
+            entries.add(readResource(dbc, entry.getKey(), entry.getValue().getFirst().intValue()));
+        }
+        return entries;
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#getAllNotDeletedEntryVersions(org.opencms.db.CmsDbContext)
+     */
+    public Map<CmsUUID, CmsPair<Integer, Integer>> getAllNotDeletedEntryVersions(CmsDbContext dbc)
+    throws CmsDataAccessException {
+
+        Map<CmsUUID, CmsPair<Integer, Integer>> entries = new HashMap<CmsUUID, CmsPair<Integer, Integer>>();
         try {
             // get all not-deleted historical entries that may come in question
             Query q = m_sqlManager.createQuery(dbc, C_STRUCTURE_HISTORY_READ_NOTDELETED);
@@ -449,7 +476,8 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
             for (Object[] o : res) {
                 CmsUUID structureId = new CmsUUID((String)o[0]);
                 int version = CmsDataTypeUtil.numberToInt((Number)o[1]);
-                entries.add(readResource(dbc, structureId, version));
+                int count = CmsDataTypeUtil.numberToInt((Number)o[2]);
+                entries.put(structureId, CmsPair.create(Integer.valueOf(version), Integer.valueOf(count)));
             }
         } catch (PersistenceException e) {
             throw new CmsDbSqlException(Messages.get().container(Messages.ERR_JPA_PERSITENCE_1, e), e);
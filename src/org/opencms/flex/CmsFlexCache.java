@@ -35,20 +35,21 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsRole;
-import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsStringUtil;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.commons.collections.map.LRUMap;
 import org.apache.commons.logging.Log;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+
 /**
  * This class implements the FlexCache.<p>
  *
@@ -89,6 +90,14 @@ import org.apache.commons.logging.Log;
  * The cache is fully flushed if an event {@link I_CmsEventListener#EVENT_PUBLISH_PROJECT}
  * or {@link I_CmsEventListener#EVENT_CLEAR_CACHES} is caught.<p>
  *
+ * Lookups never block. Both levels of the cache are concurrent maps, and clearing the keys
+ * of the online or offline project just increments an epoch counter for that project.
+ * Variations created in an earlier epoch are ignored by all lookups from then on,
+ * and are released from the cache afterwards.<p>
+ *
+ * Entries are stored, and the variation maps are swapped or released, while holding the lock
+ * of the variation list, so an entry can never be added to a map that has already been released.<p>
+ *
  * @since 6.0.0
  *
  * @see org.opencms.flex.CmsFlexCacheKey
@@ -107,69 +116,42 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         public CmsFlexCacheKey m_key;
 
         /** Maps variations to CmsFlexCacheEntries. */
-        public Map<String, I_CmsLruCacheObject> m_map;
+        public volatile Map<String, I_CmsLruCacheObject> m_map;
+
+        /** The epoch of the project cache in which this variation list was created. */
+        final long m_epoch;
+
+        /** Flag indicating the variation list has been removed from the cache, guarded by the variation list. */
+        boolean m_removed;
 
         /**
          * Generates a new instance of CmsFlexCacheVariation.<p>
          *
          * @param theKey The (resource) key to contruct this variation list for
+         * @param epoch the current epoch of the project cache the resource belongs to
          */
-        public CmsFlexCacheVariation(CmsFlexCacheKey theKey) {
+        public CmsFlexCacheVariation(CmsFlexCacheKey theKey, long epoch) {
 
             m_key = theKey;
-            m_map = new Hashtable<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
+            m_map = new ConcurrentHashMap<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
+            m_epoch = epoch;
         }
     }
 
     /**
-     * Extended LRUMap that handles the variations in case a key is removed.<p>
+     * Removal listener that releases all variations of a key if the key is evicted from the key cache.<p>
      */
-    class CmsFlexKeyMap extends LRUMap {
-
-        /** Serial version UID required for safe serialization. */
-        private static final long serialVersionUID = 6931995916013396902L;
+    class CmsFlexKeyRemovalListener implements RemovalListener<String, CmsFlexCacheVariation> {
 
         /**
-         * Initialize the map with the given size.<p>
-         *
-         * @param maxSize the maximum number of key to cache
+         * @see com.google.common.cache.RemovalListener#onRemoval(com.google.common.cache.RemovalNotification)
          */
-        public CmsFlexKeyMap(int maxSize) {
+        @SuppressWarnings("synthetic-access")
+        public void onRemoval(RemovalNotification<String, CmsFlexCacheVariation> notification) {
 
-            super(maxSize);
-        }
-
-        /**
-         * Ensures that all variations that referenced by this key are released
-         * if the key is released.<p>
-         *
-         * @param entry the entry to remove
-         *
-         * @return <code>true</code> to actually delete the entry
-         *
-         * @see LRUMap#removeLRU(LinkEntry)
-         */
-        @Override
-        protected boolean removeLRU(LinkEntry entry) {
-
-            CmsFlexCacheVariation v = (CmsFlexCacheVariation)entry.getValue();
-            if (v == null) {
-                return true;
-            }
-            Map<String, I_CmsLruCacheObject> m = v.m_map;
-            if ((m == null) || (m.size() == 0)) {
-                return true;
-            }
-            Collection<I_CmsLruCacheObject> entries = m.values();
-            synchronized (m_variationCache) {
-                for (I_CmsLruCacheObject e : entries) {
-                    m_variationCache.remove(e);
-                }
-                v.m_map.clear();
-                v.m_map = null;
-                v.m_key = null;
+            if (notification.wasEvicted() && (notification.getValue() != null)) {
+                releaseVariation(notification.getValue());
             }
-            return true;
         }
     }
 
@@ -197,6 +179,9 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
     /** Trigger for clearcache event: Clear only online entries. */
     public static final int CLEAR_ONLINE_ENTRIES = 3;
 
+    /** The concurrency level of the key cache. */
+    public static final int CONCURRENCY_LEVEL = 16;
+
     /** Initial cache size, this should be a power of 2 because of the Java collections implementation. */
     public static final int INITIAL_CAPACITY_CACHE = 512;
 
@@ -222,10 +207,13 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
     private boolean m_enabled;
 
     /** Map to store the entries for fast lookup. */
-    private Map<String, CmsFlexCacheVariation> m_keyCache;
+    private ConcurrentMap<String, CmsFlexCacheVariation> m_keyCache;
+
+    /** The epoch of the offline project cache, incremented every time the offline keys are cleared. */
+    private AtomicLong m_offlineEpoch;
 
-    /** Counter for the size. */
-    private int m_size;
+    /** The epoch of the online project cache, incremented every time the online keys are cleared. */
+    private AtomicLong m_onlineEpoch;
 
     /**
      * Constructor for class CmsFlexCache.<p>
@@ -242,6 +230,8 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
 
         m_enabled = configuration.isCacheEnabled();
         m_cacheOffline = configuration.isCacheOffline();
+        m_onlineEpoch = new AtomicLong();
+        m_offlineEpoch = new AtomicLong();
 
         long maxCacheBytes = configuration.getMaxCacheBytes();
         long avgCacheBytes = configuration.getAvgCacheBytes();
@@ -252,10 +242,10 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         OpenCms.getMemoryMonitor().register(getClass().getName() + ".m_entryLruCache", m_variationCache);
 
         if (m_enabled) {
-            CmsFlexKeyMap flexKeyMap = new CmsFlexKeyMap(maxKeys);
-            m_keyCache = Collections.synchronizedMap(
-                CmsCollectionsGenericWrapper.<String, CmsFlexCacheVariation> map(flexKeyMap));
-            OpenCms.getMemoryMonitor().register(getClass().getName() + ".m_resourceMap", flexKeyMap);
+            CacheBuilder<String, CmsFlexCacheVariation> builder = CacheBuilder.newBuilder().concurrencyLevel(
+                CONCURRENCY_LEVEL).maximumSize(maxKeys).removalListener(new CmsFlexKeyRemovalListener());
+            m_keyCache = builder.build().asMap();
+            OpenCms.getMemoryMonitor().register(getClass().getName() + ".m_resourceMap", m_keyCache);
 
             OpenCms.addCmsEventListener(
                 this,
@@ -377,9 +367,9 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         if (!isEnabled() || !OpenCms.getRoleManager().hasRole(cms, CmsRole.WORKPLACE_MANAGER)) {
             return null;
         }
-        Object o = m_keyCache.get(key);
-        if (o != null) {
-            return ((CmsFlexCacheVariation)o).m_key;
+        CmsFlexCacheVariation v = getVariation(key);
+        if (v != null) {
+            return v.m_key;
         }
         return null;
     }
@@ -423,9 +413,9 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         if (!isEnabled() || !OpenCms.getRoleManager().hasRole(cms, CmsRole.WORKPLACE_MANAGER)) {
             return null;
         }
-        Object o = m_keyCache.get(key);
-        if (o != null) {
-            return ((CmsFlexCacheVariation)o).m_map.keySet();
+        CmsFlexCacheVariation v = getVariation(key);
+        if (v != null) {
+            return v.m_map.keySet();
         }
         return null;
     }
@@ -490,10 +480,9 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             // cache is disabled
             return null;
         }
-        Object o = m_keyCache.get(key.getResource());
-        if (o != null) {
+        CmsFlexCacheVariation v = getVariation(key.getResource());
+        if (v != null) {
             // found a matching key in the cache
-            CmsFlexCacheVariation v = (CmsFlexCacheVariation)o;
             String variation = v.m_key.matchRequestKey(key);
 
             if (CmsStringUtil.isEmpty(variation)) {
@@ -528,12 +517,12 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         if (!isEnabled()) {
             return null;
         }
-        Object o = m_keyCache.get(resource);
-        if (o != null) {
+        CmsFlexCacheVariation v = getVariation(resource);
+        if (v != null) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_FOUND_1, resource));
             }
-            return ((CmsFlexCacheVariation)o).m_key;
+            return v.m_key;
         } else {
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_NOT_FOUND_1, resource));
@@ -610,11 +599,10 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         if (!isEnabled()) {
             return;
         }
-        Object o = m_keyCache.get(key.getResource());
-        if (o == null) {
+        if (getVariation(key.getResource()) == null) {
             // No variation map for this resource yet, so create one
-            CmsFlexCacheVariation variationMap = new CmsFlexCacheVariation(key);
-            m_keyCache.put(key.getResource(), variationMap);
+            CmsFlexCacheVariation variationMap = new CmsFlexCacheVariation(key, getEpoch(key.getResource()).get());
+            m_keyCache.putIfAbsent(key.getResource(), variationMap);
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_ADD_KEY_1, key.getResource()));
             }
@@ -632,7 +620,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         if (!isEnabled()) {
             return;
         }
-        CmsFlexCacheVariation o = m_keyCache.get(key.getResource());
+        CmsFlexCacheVariation o = getVariation(key.getResource());
         if (o != null) {
             I_CmsLruCacheObject old = o.m_map.get(key.getVariation());
             if (old != null) {
@@ -643,16 +631,22 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
 
     /**
      * Empties the cache completely.<p>
+     *
+     * Lookups are not blocked: incrementing the epochs hides all cached keys at once,
+     * the maps are emptied afterwards.<p>
      */
-    private synchronized void clear() {
+    private void clear() {
 
         if (!isEnabled()) {
             return;
         }
-        m_keyCache.clear();
-        m_size = 0;
-
-        m_variationCache.clear();
+        m_onlineEpoch.incrementAndGet();
+        m_offlineEpoch.incrementAndGet();
+        Iterator<Map.Entry<String, CmsFlexCacheVariation>> i = m_keyCache.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry<String, CmsFlexCacheVariation> entry = i.next();
+            removeVariation(entry.getKey(), entry.getValue());
+        }
 
         if (LOG.isInfoEnabled()) {
             LOG.info(Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_CLEAR_0));
@@ -667,41 +661,28 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
      * A parameter is used to indicate if only
      * the entries or keys and entries are to be cleared.<p>
      *
+     * When keys are cleared, the epoch of the project cache is incremented first,
+     * so concurrent lookups immediately ignore all keys that are about to be removed.<p>
+     *
      * @param suffix used to distinguish between "[Online]" and "[Offline]" entries
      * @param entriesOnly if <code>true</code>, only entries will be cleared, otherwise
      *         the entries and the keys will be cleared
      */
-    private synchronized void clearAccordingToSuffix(String suffix, boolean entriesOnly) {
+    private void clearAccordingToSuffix(String suffix, boolean entriesOnly) {
 
-        Set<String> keys = new HashSet<String>(m_keyCache.keySet());
-        Iterator<String> i = keys.iterator();
+        if (!entriesOnly) {
+            getEpoch(suffix).incrementAndGet();
+        }
+        Iterator<Map.Entry<String, CmsFlexCacheVariation>> i = m_keyCache.entrySet().iterator();
         while (i.hasNext()) {
-            String s = i.next();
-            if (s.endsWith(suffix)) {
-                CmsFlexCacheVariation v = m_keyCache.get(s);
+            Map.Entry<String, CmsFlexCacheVariation> entry = i.next();
+            if (entry.getKey().endsWith(suffix)) {
                 if (entriesOnly) {
                     // Clear only entry
-                    m_size -= v.m_map.size();
-                    Iterator<I_CmsLruCacheObject> allEntries = v.m_map.values().iterator();
-                    while (allEntries.hasNext()) {
-                        I_CmsLruCacheObject nextObject = allEntries.next();
-                        allEntries.remove();
-                        m_variationCache.remove(nextObject);
-                    }
-                    v.m_map = new Hashtable<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
+                    clearVariation(entry.getValue());
                 } else {
                     // Clear key and entry
-                    m_size -= v.m_map.size();
-                    Iterator<I_CmsLruCacheObject> allEntries = v.m_map.values().iterator();
-                    while (allEntries.hasNext()) {
-                        I_CmsLruCacheObject nextObject = allEntries.next();
-                        allEntries.remove();
-                        m_variationCache.remove(nextObject);
-                    }
-
-                    v.m_map = null;
-                    v.m_key = null;
-                    m_keyCache.remove(s);
+                    removeVariation(entry.getKey(), entry.getValue());
                 }
             }
         }
@@ -722,7 +703,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
      * Only users with administrator permissions are allowed
      * to perform this operation.<p>
      */
-    private synchronized void clearEntries() {
+    private void clearEntries() {
 
         if (!isEnabled()) {
             return;
@@ -730,20 +711,9 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         if (LOG.isInfoEnabled()) {
             LOG.info(Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_CLEAR_ALL_0));
         }
-        // create new set to avoid ConcurrentModificationExceptions
-        Set<String> cacheKeys = new HashSet<String>(m_keyCache.keySet());
-        Iterator<String> i = cacheKeys.iterator();
-        while (i.hasNext()) {
-            CmsFlexCacheVariation v = m_keyCache.get(i.next());
-            Iterator<I_CmsLruCacheObject> allEntries = v.m_map.values().iterator();
-            while (allEntries.hasNext()) {
-                I_CmsLruCacheObject nextObject = allEntries.next();
-                allEntries.remove();
-                m_variationCache.remove(nextObject);
-            }
-            v.m_map = new Hashtable<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
+        for (CmsFlexCacheVariation v : m_keyCache.values()) {
+            clearVariation(v);
         }
-        m_size = 0;
     }
 
     /**
@@ -824,6 +794,56 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         clearAccordingToSuffix(CACHE_ONLINESUFFIX, true);
     }
 
+    /**
+     * Replaces the variation map of the given variation list with an empty map
+     * and releases the entries of the old map.<p>
+     *
+     * @param v the variation list
+     */
+    private void clearVariation(CmsFlexCacheVariation v) {
+
+        synchronized (v) {
+            if (v.m_removed) {
+                return;
+            }
+            Map<String, I_CmsLruCacheObject> entries = v.m_map;
+            v.m_map = new ConcurrentHashMap<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
+            releaseEntries(entries);
+        }
+    }
+
+    /**
+     * Returns the epoch counter of the project cache the given resource belongs to.<p>
+     *
+     * @param resource the resource name including the online or offline suffix
+     *
+     * @return the epoch counter of the project cache
+     */
+    private AtomicLong getEpoch(String resource) {
+
+        return resource.endsWith(CACHE_ONLINESUFFIX) ? m_onlineEpoch : m_offlineEpoch;
+    }
+
+    /**
+     * Returns the variation list cached for the given resource name.<p>
+     *
+     * A variation list created before its project cache was last cleared is
+     * removed from the cache, and <code>null</code> is returned.<p>
+     *
+     * @param resource the resource name including the online or offline suffix
+     *
+     * @return the variation list, or <code>null</code> if no current variation list is cached
+     */
+    private CmsFlexCacheVariation getVariation(String resource) {
+
+        CmsFlexCacheVariation v = m_keyCache.get(resource);
+        if ((v != null) && (v.m_epoch != getEpoch(resource).get())) {
+            removeVariation(resource, v);
+            return null;
+        }
+        return v;
+    }
+
     /**
      * This method purges the JSP repository dirs,
      * i.e. it deletes all JSP files that OpenCms has written to the
@@ -834,7 +854,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
      * a complete purge of all JSP pages on a machine after
      * a major update of JSP templates was made.<p>
      */
-    private synchronized void purgeJspRepository() {
+    private void purgeJspRepository() {
 
         CmsJspLoader cmsJspLoader = (CmsJspLoader)OpenCms.getResourceManager().getLoader(
             CmsJspLoader.RESOURCE_LOADER_ID);
@@ -857,34 +877,36 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
      */
     private void put(CmsFlexCacheKey key, CmsFlexCacheEntry theCacheEntry) {
 
-        CmsFlexCacheVariation o = m_keyCache.get(key.getResource());
         if (key.getTimeout() > 0) {
             theCacheEntry.setDateExpiresToNextTimeout(key.getTimeout());
         }
-        if (o != null) {
-            // We already have a variation map for this resource
-            Map<String, I_CmsLruCacheObject> m = o.m_map;
-            boolean wasAdded = true;
-            if (!m.containsKey(key.getVariation())) {
-                wasAdded = m_variationCache.add(theCacheEntry);
+        String resource = key.getResource();
+        boolean stored = false;
+        while (!stored) {
+            CmsFlexCacheVariation o = getVariation(resource);
+            if (o == null) {
+                // No variation map for this resource yet, so create one,
+                // but only add it to the cache once the entry has been stored in it
+                CmsFlexCacheVariation list = new CmsFlexCacheVariation(key, getEpoch(resource).get());
+                if (!putEntry(list, key.getVariation(), theCacheEntry)) {
+                    return;
+                }
+                stored = m_keyCache.putIfAbsent(resource, list) == null;
+                if (!stored) {
+                    // another thread has created the variation map in the meantime, use that one
+                    m_variationCache.remove(theCacheEntry);
+                }
             } else {
-                wasAdded = m_variationCache.touch(theCacheEntry);
-            }
-
-            if (wasAdded) {
-                theCacheEntry.setVariationData(key.getVariation(), m);
-                m.put(key.getVariation(), theCacheEntry);
-            }
-        } else {
-            // No variation map for this resource yet, so create one
-            CmsFlexCacheVariation list = new CmsFlexCacheVariation(key);
-
-            boolean wasAdded = m_variationCache.add(theCacheEntry);
-
-            if (wasAdded) {
-                theCacheEntry.setVariationData(key.getVariation(), list.m_map);
-                list.m_map.put(key.getVariation(), theCacheEntry);
-                m_keyCache.put(key.getResource(), list);
+                synchronized (o) {
+                    if (o.m_removed || (o.m_epoch != getEpoch(resource).get())) {
+                        // the variation map has been cleared concurrently, look it up again
+                        continue;
+                    }
+                    if (!putEntry(o, key.getVariation(), theCacheEntry)) {
+                        return;
+                    }
+                    stored = true;
+                }
             }
         }
 
@@ -892,10 +914,82 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             LOG.debug(
                 Messages.get().getBundle().key(
                     Messages.LOG_FLEXCACHE_ADDED_ENTRY_FOR_RESOURCE_WITH_VARIATION_3,
-                    new Integer(m_size),
+                    new Integer(size()),
                     key.getResource(),
                     key.getVariation()));
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_ADDED_ENTRY_1, theCacheEntry.toString()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Stores an entry in the variation map of the given variation list.<p>
+     *
+     * The caller must hold the lock of the variation list, unless the list is not yet part of the cache.<p>
+     *
+     * @param v the variation list
+     * @param variation the variation of the entry
+     * @param theCacheEntry the entry to store
+     *
+     * @return <code>true</code> if the entry was stored, <code>false</code> if the LRU cache rejected it
+     */
+    private boolean putEntry(CmsFlexCacheVariation v, String variation, CmsFlexCacheEntry theCacheEntry) {
+
+        Map<String, I_CmsLruCacheObject> m = v.m_map;
+        boolean wasAdded;
+        if (!m.containsKey(variation)) {
+            wasAdded = m_variationCache.add(theCacheEntry);
+        } else {
+            wasAdded = m_variationCache.touch(theCacheEntry);
+        }
+        if (wasAdded) {
+            theCacheEntry.setVariationData(variation, m);
+            m.put(variation, theCacheEntry);
+        }
+        return wasAdded;
+    }
+
+    /**
+     * Removes all entries of a variation map from the LRU cache.<p>
+     *
+     * @param entries the variation map
+     */
+    private void releaseEntries(Map<String, I_CmsLruCacheObject> entries) {
+
+        if ((entries == null) || entries.isEmpty()) {
+            return;
+        }
+        Iterator<I_CmsLruCacheObject> allEntries = entries.values().iterator();
+        while (allEntries.hasNext()) {
+            I_CmsLruCacheObject nextObject = allEntries.next();
+            allEntries.remove();
+            m_variationCache.remove(nextObject);
+        }
+    }
+
+    /**
+     * Marks a variation list that is no longer part of the cache as removed and releases its entries.<p>
+     *
+     * @param v the variation list
+     */
+    private void releaseVariation(CmsFlexCacheVariation v) {
+
+        synchronized (v) {
+            v.m_removed = true;
+            releaseEntries(v.m_map);
+        }
+    }
+
+    /**
+     * Removes a variation list from the cache and releases its entries.<p>
+     *
+     * @param resource the resource name including the online or offline suffix
+     * @param v the variation list to remove
+     */
+    private void removeVariation(String resource, CmsFlexCacheVariation v) {
+
+        // the key cache is modified outside the lock, since this may notify the removal listener of other keys
+        if (m_keyCache.remove(resource, v)) {
+            releaseVariation(v);
+        }
+    }
+}
@@ -151,6 +151,19 @@ public class CmsFlexCacheKey {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsFlexCacheKey.class);
 
+    /** Maximum capacity of the per thread key buffer that is kept for reuse. */
+    private static final int MAX_REUSED_BUFFER_CAPACITY = 4096;
+
+    /** Per thread buffer used to build the variation keys in {@link #matchRequestKey(CmsFlexRequestKey)}. */
+    private static final ThreadLocal<StringBuilder> VARIATION_BUFFER = new ThreadLocal<StringBuilder>() {
+
+        @Override
+        protected StringBuilder initialValue() {
+
+            return new StringBuilder(256);
+        }
+    };
+
     /** Cache key variable: Determines if this resource can be cached alwys, never or under certain conditions. -1 = never, 0=check, 1=always. */
     private int m_always;
 
@@ -265,7 +278,7 @@ public class CmsFlexCacheKey {
      * @param key the key to append
      * @param value the value to append
      */
-    private static void appendKeyValue(StringBuffer str, String key, String value) {
+    private static void appendKeyValue(StringBuilder str, String key, String value) {
 
         str.append(key);
         if (value == IS_USED) {
@@ -308,7 +321,6 @@ public class CmsFlexCacheKey {
      */
     public String matchRequestKey(CmsFlexRequestKey key) {
 
-        StringBuffer str = new StringBuffer(100);
         if (m_always < 0) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_KEYMATCH_CACHE_NEVER_0));
@@ -350,10 +362,18 @@ public class CmsFlexCacheKey {
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_KEYMATCH_CACHE_ALWAYS_0));
             }
-            str.append(CACHE_00_ALWAYS);
-            return str.toString();
+            return CACHE_00_ALWAYS;
         }
 
+        // reuse the buffer of this thread, the result is copied to a new String anyway
+        StringBuilder str = VARIATION_BUFFER.get();
+        if (str.capacity() > MAX_REUSED_BUFFER_CAPACITY) {
+            // don't keep buffers grown by huge keys around
+            str = new StringBuilder(256);
+            VARIATION_BUFFER.set(str);
+        }
+        str.setLength(0);
+
         if (m_uri != null) {
             appendKeyValue(str, CACHE_02_URI, key.getUri());
         }
@@ -469,12 +489,13 @@ public class CmsFlexCacheKey {
         }
 
         if (m_session != null) {
-            StringBuffer buf = new StringBuffer(32);
-            boolean found = false;
-            buf.append(CACHE_07_SESSION);
-            buf.append("=(");
             HttpSession keySession = key.getSession();
             if (keySession != null) {
+                // append directly to the key buffer, and cut it back if no session attribute was found
+                int sessionStart = str.length();
+                boolean found = false;
+                str.append(CACHE_07_SESSION);
+                str.append("=(");
                 // match only session attributes listed in cache directives
                 Iterator<String> i = m_session.iterator();
                 while (i.hasNext()) {
@@ -482,18 +503,19 @@ public class CmsFlexCacheKey {
                     Object val = keySession.getAttribute(name);
                     if (val != null) {
                         found = true;
-                        buf.append(name);
-                        buf.append("=");
-                        buf.append(val);
+                        str.append(name);
+                        str.append("=");
+                        str.append(val);
                         if (i.hasNext()) {
-                            buf.append(",");
+                            str.append(",");
                         }
                     }
                 }
-            }
-            if (found) {
-                buf.append(");");
-                str.append(buf);
+                if (found) {
+                    str.append(");");
+                } else {
+                    str.setLength(sessionStart);
+                }
             }
         }
 
@@ -538,7 +560,7 @@ public class CmsFlexCacheKey {
     @Override
     public String toString() {
 
-        StringBuffer str = new StringBuffer(100);
+        StringBuilder str = new StringBuilder(100);
 
         if (m_always < 0) {
             str.append(CACHE_01_NEVER);
@@ -344,6 +344,22 @@ public final class CmsResourceBundleLoader {
         return ResourceBundle.getBundle(baseName, locale);
     }
 
+    /**
+     * Replaces all cached variations of the given bundle with the given bundles in one step.<p>
+     *
+     * Message lookups either see all previous or all new bundles of the given base name.<p>
+     *
+     * @param baseName the raw bundle name, without locale qualifiers
+     * @param bundles the new bundles by locale, the bundle for the <code>null</code> key has no locale qualifier
+     */
+    public static synchronized void replaceBundles(String baseName, Map<Locale, I_CmsResourceBundle> bundles) {
+
+        flushBundleCache(baseName, true);
+        for (Map.Entry<Locale, I_CmsResourceBundle> entry : bundles.entrySet()) {
+            addBundleToCache(baseName, entry.getKey(), entry.getValue());
+        }
+    }
+
     /**
      * Tries to load a property file with the specified name.
      *
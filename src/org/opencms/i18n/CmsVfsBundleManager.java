@@ -31,6 +31,7 @@ import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.CmsVfsResourceNotFoundException;
 import org.opencms.main.CmsEvent;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
@@ -39,11 +40,16 @@ import org.opencms.main.OpenCms;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 
@@ -114,9 +120,18 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
     /** The set of bundle base names. */
     private Set<String> m_bundleBaseNames;
 
+    /** The bundle resources, by structure id. */
+    private Map<CmsUUID, CmsResource> m_bundleResources;
+
     /** The CMS context to use. */
     private CmsObject m_cms;
 
+    /** Indicates if the scheduled reload has to read all bundles again. */
+    private volatile boolean m_fullReloadRequested;
+
+    /** The structure ids of the published bundle resources not yet updated. */
+    private Set<CmsUUID> m_pendingBundleIds;
+
     /**
      * Creates a new instance.<p>
      *
@@ -126,6 +141,8 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
 
         m_cms = cms;
         m_bundleBaseNames = new HashSet<String>();
+        m_bundleResources = new HashMap<CmsUUID, CmsResource>();
+        m_pendingBundleIds = Collections.newSetFromMap(new ConcurrentHashMap<CmsUUID, Boolean>());
         CmsVfsResourceBundle.setCmsObject(cms);
         OpenCms.getEventManager().addCmsEventListener(
             this,
@@ -173,36 +190,36 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
     /**
      * Re-initializes the resource bundles.<p>
      *
+     * All bundle resources are read from the VFS before the cached bundles are replaced,
+     * so message lookups keep using the previous bundles while the VFS is read.<p>
+     *
      * @param isStartup true when this is called during startup
      */
     public synchronized void reload(boolean isStartup) {
 
         if (OpenCms.getRunLevel() > OpenCms.RUNLEVEL_1_CORE_OBJECT) {
-            flushBundles();
-            try {
-                int xmlType = OpenCms.getResourceManager().getResourceType(TYPE_XML_BUNDLE).getTypeId();
-                List<CmsResource> xmlBundles = m_cms.readResources(
-                    "/",
-                    CmsResourceFilter.ALL.addRequireType(xmlType),
-                    true);
-                for (CmsResource xmlBundle : xmlBundles) {
-                    addXmlBundle(xmlBundle);
+            Map<CmsUUID, CmsResource> bundleResources = new HashMap<CmsUUID, CmsResource>();
+            for (String typeName : new String[] {TYPE_XML_BUNDLE, TYPE_PROPERTIES_BUNDLE}) {
+                try {
+                    int type = OpenCms.getResourceManager().getResourceType(typeName).getTypeId();
+                    List<CmsResource> resources = m_cms.readResources(
+                        "/",
+                        CmsResourceFilter.ALL.addRequireType(type),
+                        true);
+                    for (CmsResource resource : resources) {
+                        bundleResources.put(resource.getStructureId(), resource);
+                    }
+                } catch (Exception e) {
+                    logError(e, isStartup);
                 }
-            } catch (Exception e) {
-                logError(e, isStartup);
             }
-            try {
-                int propType = OpenCms.getResourceManager().getResourceType(TYPE_PROPERTIES_BUNDLE).getTypeId();
-                List<CmsResource> propertyBundles = m_cms.readResources(
-                    "/",
-                    CmsResourceFilter.ALL.addRequireType(propType),
-                    true);
-                for (CmsResource propertyBundle : propertyBundles) {
-                    addPropertyBundle(propertyBundle);
-                }
-            } catch (Exception e) {
-                logError(e, isStartup);
+            // replace the bundles no longer available as well as all current ones
+            Set<String> baseNames = new HashSet<String>(m_bundleBaseNames);
+            for (CmsResource resource : bundleResources.values()) {
+                baseNames.add(getNameAndLocale(resource).getName());
             }
+            m_bundleResources = bundleResources;
+            updateBundleCache(baseNames);
         }
     }
 
@@ -234,6 +251,41 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
         }
     }
 
+    /**
+     * Updates the resource bundles of the given bundle resources.<p>
+     *
+     * Only the bundles sharing a base name with one of the given resources are replaced.
+     * Resources which can no longer be read are removed.<p>
+     *
+     * @param structureIds the structure ids of the changed bundle resources
+     */
+    public synchronized void update(Collection<CmsUUID> structureIds) {
+
+        if (OpenCms.getRunLevel() <= OpenCms.RUNLEVEL_1_CORE_OBJECT) {
+            return;
+        }
+        Set<String> baseNames = new HashSet<String>();
+        for (CmsUUID structureId : structureIds) {
+            CmsResource oldResource = m_bundleResources.remove(structureId);
+            if (oldResource != null) {
+                baseNames.add(getNameAndLocale(oldResource).getName());
+            }
+            try {
+                CmsResource resource = m_cms.readResource(structureId, CmsResourceFilter.ALL);
+                if (isBundle(resource)) {
+                    m_bundleResources.put(structureId, resource);
+                    baseNames.add(getNameAndLocale(resource).getName());
+                }
+            } catch (CmsVfsResourceNotFoundException e) {
+                // the bundle has been deleted
+                LOG.debug(e.getLocalizedMessage(), e);
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+        updateBundleCache(baseNames);
+    }
+
     /**
      * Logs an exception that occurred.<p>
      *
@@ -251,30 +303,18 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
         setReloadScheduled(false);
     }
 
-    /**
-     * Internal method for adding a resource bundle to the internal cache.<p>
-     *
-     * @param baseName the base name of the resource bundle
-     * @param locale the locale of the resource bundle
-     * @param bundle the resource bundle to add
-     */
-    private void addBundle(String baseName, Locale locale, I_CmsResourceBundle bundle) {
-
-        CmsResourceBundleLoader.addBundleToCache(baseName, locale, bundle);
-    }
-
     /**
      * Adds a resource bundle based on a properties file in the VFS.<p>
      *
      * @param bundleResource the properties file
+     * @param bundles the bundles by locale to add the bundle to
      */
-    private void addPropertyBundle(CmsResource bundleResource) {
+    private void addPropertyBundle(CmsResource bundleResource, Map<Locale, I_CmsResourceBundle> bundles) {
 
         NameAndLocale nameAndLocale = getNameAndLocale(bundleResource);
         Locale locale = nameAndLocale.getLocale();
 
         String baseName = nameAndLocale.getName();
-        m_bundleBaseNames.add(baseName);
         LOG.info(
             String.format(
                 "Adding property VFS bundle (path=%s, name=%s, locale=%s)",
@@ -289,19 +329,19 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
             locale == null,
             CmsVfsResourceBundle.TYPE_PROPERTIES);
         CmsVfsResourceBundle bundle = new CmsVfsResourceBundle(params);
-        addBundle(baseName, locale, bundle);
+        bundles.put(locale, bundle);
     }
 
     /**
      * Adds an XML based message bundle.<p>
      *
      * @param xmlBundle the XML content containing the message bundle data
+     * @param bundles the bundles by locale to add the bundles to
      */
-    private void addXmlBundle(CmsResource xmlBundle) {
+    private void addXmlBundle(CmsResource xmlBundle, Map<Locale, I_CmsResourceBundle> bundles) {
 
         String name = xmlBundle.getName();
         String path = xmlBundle.getRootPath();
-        m_bundleBaseNames.add(name);
 
         LOG.info(String.format("Adding property VFS bundle (path=%s, name=%s)", xmlBundle.getRootPath(), name));
         for (Locale locale : getAllLocales()) {
@@ -312,22 +352,7 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                 false,
                 CmsVfsResourceBundle.TYPE_XML);
             CmsVfsResourceBundle bundle = new CmsVfsResourceBundle(params);
-            addBundle(name, locale, bundle);
-        }
-    }
-
-    /**
-     * Clears the internal cache.
-     */
-    private void flushBundles() {
-
-        for (String baseName : m_bundleBaseNames) {
-            CmsResourceBundleLoader.flushBundleCache(baseName, true);
-        }
-        m_bundleBaseNames.clear();
-        if (OpenCms.getWorkplaceManager() != null) {
-            // may be null in some test case scenarios
-            OpenCms.getWorkplaceManager().flushMessageCache();
+            bundles.put(locale, bundle);
         }
     }
 
@@ -375,17 +400,25 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                             scheduleReload();
                         } else {
                             String[] typesToMatch = new String[] {TYPE_PROPERTIES_BUNDLE, TYPE_XML_BUNDLE};
+                            List<CmsUUID> bundleIds = new ArrayList<CmsUUID>();
                             boolean reload = false;
                             for (CmsPublishedResource res : publishedResources) {
+                                if (res.isFolder() && res.isMoved()) {
+                                    // the paths of bundles in the moved folder have changed
+                                    reload = true;
+                                    break;
+                                }
                                 for (String typeName : typesToMatch) {
                                     if (OpenCms.getResourceManager().matchResourceType(typeName, res.getType())) {
-                                        reload = true;
+                                        bundleIds.add(res.getStructureId());
                                         break;
                                     }
                                 }
                             }
                             if (reload) {
                                 scheduleReload();
+                            } else if (!bundleIds.isEmpty()) {
+                                scheduleUpdate(bundleIds);
                             }
                         }
                     } catch (CmsException e) {
@@ -400,11 +433,33 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
         }
     }
 
+    /**
+     * Checks if the given resource is a message bundle.<p>
+     *
+     * @param resource the resource to check
+     *
+     * @return <code>true</code> if the given resource is a message bundle
+     */
+    private boolean isBundle(CmsResource resource) {
+
+        return OpenCms.getResourceManager().matchResourceType(TYPE_XML_BUNDLE, resource.getTypeId())
+            || OpenCms.getResourceManager().matchResourceType(TYPE_PROPERTIES_BUNDLE, resource.getTypeId());
+    }
+
     /**
      * Schedules a bundle reload.<p>
      */
     private void scheduleReload() {
 
+        m_fullReloadRequested = true;
+        scheduleThread();
+    }
+
+    /**
+     * Starts a thread performing the requested reload or update after a short delay, if not already scheduled.<p>
+     */
+    private void scheduleThread() {
+
         if (!isReloadScheduled() && (OpenCms.getRunLevel() > OpenCms.RUNLEVEL_1_CORE_OBJECT)) {
             // only schedule a reload if the system is not going down already
             m_threadCount++;
@@ -419,13 +474,79 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                     } catch (Exception e) {
                         // ignore
                     }
-                    if (isReloadScheduled()) {
-                        reload(false);
+                    boolean scheduled = isReloadScheduled();
+                    if (scheduled) {
+                        if (m_fullReloadRequested) {
+                            m_fullReloadRequested = false;
+                            m_pendingBundleIds.clear();
+                            reload(false);
+                        } else {
+                            List<CmsUUID> bundleIds = new ArrayList<CmsUUID>(m_pendingBundleIds);
+                            m_pendingBundleIds.removeAll(bundleIds);
+                            update(bundleIds);
+                        }
                     }
                     setReloadScheduled(false);
+                    if (scheduled && (m_fullReloadRequested || !m_pendingBundleIds.isEmpty())) {
+                        // changes arrived while this thread was working
+                        scheduleThread();
+                    }
                 }
             };
             thread.start();
         }
     }
+
+    /**
+     * Schedules an update of the given bundle resources.<p>
+     *
+     * @param structureIds the structure ids of the published bundle resources
+     */
+    private void scheduleUpdate(Collection<CmsUUID> structureIds) {
+
+        m_pendingBundleIds.addAll(structureIds);
+        scheduleThread();
+    }
+
+    /**
+     * Replaces the cached resource bundles with the given base names by the bundles of the current bundle resources.<p>
+     *
+     * @param baseNames the base names of the bundles to replace
+     */
+    private void updateBundleCache(Set<String> baseNames) {
+
+        if (baseNames.isEmpty()) {
+            return;
+        }
+        Map<String, Map<Locale, I_CmsResourceBundle>> bundlesByName = new HashMap<String, Map<Locale, I_CmsResourceBundle>>();
+        for (CmsResource resource : m_bundleResources.values()) {
+            String baseName = getNameAndLocale(resource).getName();
+            if (baseNames.contains(baseName)) {
+                Map<Locale, I_CmsResourceBundle> bundles = bundlesByName.get(baseName);
+                if (bundles == null) {
+                    bundles = new HashMap<Locale, I_CmsResourceBundle>();
+                    bundlesByName.put(baseName, bundles);
+                }
+                if (OpenCms.getResourceManager().matchResourceType(TYPE_XML_BUNDLE, resource.getTypeId())) {
+                    addXmlBundle(resource, bundles);
+                } else {
+                    addPropertyBundle(resource, bundles);
+                }
+            }
+        }
+        for (String baseName : baseNames) {
+            Map<Locale, I_CmsResourceBundle> bundles = bundlesByName.get(baseName);
+            if (bundles == null) {
+                CmsResourceBundleLoader.flushBundleCache(baseName, true);
+                m_bundleBaseNames.remove(baseName);
+            } else {
+                CmsResourceBundleLoader.replaceBundles(baseName, bundles);
+                m_bundleBaseNames.add(baseName);
+            }
+        }
+        if (OpenCms.getWorkplaceManager() != null) {
+            // may be null in some test case scenarios
+            OpenCms.getWorkplaceManager().flushMessageCache();
+        }
+    }
 }
@@ -42,6 +42,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 
@@ -82,6 +83,12 @@ public class CmsVfsResourceBundle extends ResourceBundle implements I_CmsResourc
     /** The logger instance for this class. */
     private static final Log LOG = CmsLog.getLog(CmsVfsResourceBundle.class);
 
+    /** The number of message lookups which found the key in a VFS bundle. */
+    private static final AtomicLong LOOKUP_HITS = new AtomicLong();
+
+    /** The number of message lookups which did not find the key in a VFS bundle. */
+    private static final AtomicLong LOOKUP_MISSES = new AtomicLong();
+
     /** The cache instance used for caching the resource bundle data. */
     private static CmsVfsMemoryObjectCache m_cache = new CmsVfsMemoryObjectCache();
 
@@ -102,6 +109,28 @@ public class CmsVfsResourceBundle extends ResourceBundle implements I_CmsResourc
         m_loader = initLoader(params.getType());
     }
 
+    /**
+     * Returns the number of message lookups which found the key in a VFS bundle.<p>
+     *
+     * @return the number of message lookups which found the key
+     */
+    public static long getLookupHits() {
+
+        return LOOKUP_HITS.get();
+    }
+
+    /**
+     * Returns the number of message lookups which did not find the key in a VFS bundle.<p>
+     *
+     * Lookups continuing in a parent bundle are counted as well.<p>
+     *
+     * @return the number of message lookups which did not find the key
+     */
+    public static long getLookupMisses() {
+
+        return LOOKUP_MISSES.get();
+    }
+
     /**
      * Sets the CMS context used by this class.<p>
      *
@@ -198,7 +227,13 @@ public class CmsVfsResourceBundle extends ResourceBundle implements I_CmsResourc
     protected Object handleGetObject(String key) {
 
         Map<String, String> messages = getMessagesForLocale();
-        return messages.get(key);
+        String result = messages.get(key);
+        if (result != null) {
+            LOOKUP_HITS.incrementAndGet();
+        } else {
+            LOOKUP_MISSES.incrementAndGet();
+        }
+        return result;
     }
 
     /**
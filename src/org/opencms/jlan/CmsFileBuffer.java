@@ -27,28 +27,114 @@
 
 package org.opencms.jlan;
 
+import org.opencms.main.CmsLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.logging.Log;
+
 /**
- * Buffer class which holds file contents for JLAN file access in memory before they are written to the VFS.<p>
+ * Buffer class which holds file contents for JLAN file access before they are written to the VFS.<p>
  *
- * This is implemented as a CmsByteBuffer instance together with a 'position' index which marks the next write position
+ * This is implemented as a CmsByteBuffer instance together with a 'position' index which marks the next write position.
+ * Once the contents grow beyond a threshold, they are moved to a temporary file, so that large files copied to the
+ * share do not have to be kept in memory until they are closed.<p>
  */
 public class CmsFileBuffer {
 
-    /** The buffer used to store the file contents. */
+    /** The default size in bytes above which the contents are moved to a temporary file. */
+    public static final int DEFAULT_SPILL_THRESHOLD = 1024 * 1024;
+
+    /** The prefix for the names of temporary files. */
+    private static final String TEMP_FILE_PREFIX = "opencms-jlan-";
+
+    /** The logger instance for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsFileBuffer.class);
+
+    /** The buffer used to store the file contents, null if the contents have been moved to a temporary file. */
     CmsByteBuffer m_buffer = new CmsByteBuffer(8192);
 
     /** The current write position. */
     long m_position;
 
+    /** The channel used to access the temporary file. */
+    private FileChannel m_channel;
+
+    /** The temporary file, null as long as the contents are held in memory. */
+    private RandomAccessFile m_file;
+
+    /** The length of the contents stored in the temporary file. */
+    private long m_size;
+
+    /** The location of the temporary file. */
+    private File m_tempFile;
+
+    /** The size in bytes above which the contents are moved to a temporary file. */
+    private int m_threshold;
+
+    /**
+     * Creates a new instance using the default threshold.<p>
+     */
+    public CmsFileBuffer() {
+
+        this(DEFAULT_SPILL_THRESHOLD);
+    }
+
+    /**
+     * Creates a new instance.<p>
+     *
+     * @param threshold the size in bytes above which the contents are moved to a temporary file
+     */
+    public CmsFileBuffer(int threshold) {
+
+        m_threshold = threshold;
+    }
+
+    /**
+     * Releases the resources used by this buffer, i.e. deletes the temporary file if one was created.<p>
+     *
+     * The buffer is empty afterwards.<p>
+     */
+    public void dispose() {
+
+        if (m_file != null) {
+            try {
+                m_file.close();
+            } catch (IOException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+            if (!m_tempFile.delete()) {
+                LOG.warn("Couldn't delete temporary file " + m_tempFile.getAbsolutePath());
+            }
+            m_file = null;
+            m_channel = null;
+            m_tempFile = null;
+            m_size = 0;
+        }
+        m_buffer = new CmsByteBuffer(8192);
+        m_position = 0;
+    }
+
     /**
      * Gets the contents of this buffer as a byte array.<p>
      *
      * @return the file content
+     *
+     * @throws IOException if reading the temporary file fails
      */
-    public byte[] getContents() {
+    public byte[] getContents() throws IOException {
 
-        byte[] contents = new byte[m_buffer.size()];
-        m_buffer.readBytes(contents, 0, 0, m_buffer.size());
+        if (m_file == null) {
+            byte[] contents = new byte[m_buffer.size()];
+            m_buffer.readBytes(contents, 0, 0, m_buffer.size());
+            return contents;
+        }
+        byte[] contents = new byte[(int)m_size];
+        readFully(ByteBuffer.wrap(contents), 0);
         return contents;
     }
 
@@ -60,7 +146,7 @@ public class CmsFileBuffer {
      */
     public long getLength() {
 
-        return m_buffer.size();
+        return m_file == null ? m_buffer.size() : m_size;
     }
 
     /**
@@ -77,11 +163,23 @@ public class CmsFileBuffer {
      * Initializes the file content data.<p>
      *
      * @param data the file content data
+     *
+     * @throws IOException if writing to the temporary file fails
      */
-    public void init(byte[] data) {
+    public void init(byte[] data) throws IOException {
 
         m_position = 0;
-        m_buffer.writeBytes(data, 0, 0, data.length);
+        write(data);
+    }
+
+    /**
+     * Checks whether the contents of this buffer have been moved to a temporary file.<p>
+     *
+     * @return true if the contents are stored in a temporary file
+     */
+    public boolean isSpilled() {
+
+        return m_file != null;
     }
 
     /**
@@ -94,17 +192,24 @@ public class CmsFileBuffer {
      * @param fileOffset the start index for this instance
      *
      * @return the number of bytes read, or -1 if we are at the end of the file
+     *
+     * @throws IOException if reading the temporary file fails
      */
-    public int read(byte[] dest, int length, int bufferOffset, int fileOffset) {
+    public int read(byte[] dest, int length, int bufferOffset, int fileOffset) throws IOException {
 
-        if (fileOffset >= m_buffer.size()) {
+        long size = getLength();
+        if (fileOffset >= size) {
             return -1;
         }
-        int readEnd = fileOffset + length;
-        if (readEnd > m_buffer.size()) {
-            length = length - (readEnd - m_buffer.size());
+        long readEnd = (long)fileOffset + length;
+        if (readEnd > size) {
+            length = length - (int)(readEnd - size);
+        }
+        if (m_file == null) {
+            m_buffer.readBytes(dest, fileOffset, bufferOffset, length);
+        } else {
+            readFully(ByteBuffer.wrap(dest, bufferOffset, length), fileOffset);
         }
-        m_buffer.readBytes(dest, fileOffset, bufferOffset, length);
         return length;
     }
 
@@ -122,10 +227,21 @@ public class CmsFileBuffer {
      * Changes the size of this buffer.<p>
      *
      * @param size the new size
+     *
+     * @throws IOException if resizing the temporary file fails
      */
-    public void truncate(int size) {
+    public void truncate(int size) throws IOException {
 
-        m_buffer.truncate(size);
+        if ((m_file == null) && (size > m_threshold)) {
+            spill();
+        }
+        if (m_file == null) {
+            m_buffer.truncate(size);
+        } else {
+            // growing the file fills the new space with 0s, like the in-memory buffer does
+            m_file.setLength(size);
+            m_size = size;
+        }
         m_position = Math.min(size, m_position);
     }
 
@@ -133,9 +249,81 @@ public class CmsFileBuffer {
      * Writes the data to the internal buffer.<p>
      *
      * @param data the data to write
+     *
+     * @throws IOException if writing to the temporary file fails
      */
-    public void write(byte[] data) {
+    public void write(byte[] data) throws IOException {
+
+        write(data, 0, data.length);
+    }
 
-        m_buffer.writeBytes(data, 0, (int)m_position, data.length);
+    /**
+     * Writes a part of the given data to the internal buffer.<p>
+     *
+     * @param data the array containing the data to write
+     * @param start the start index of the data to write
+     * @param length the number of bytes to write
+     *
+     * @throws IOException if writing to the temporary file fails
+     */
+    public void write(byte[] data, int start, int length) throws IOException {
+
+        long end = m_position + length;
+        if ((m_file == null) && (end > m_threshold)) {
+            spill();
+        }
+        if (m_file == null) {
+            m_buffer.writeBytes(data, start, (int)m_position, length);
+        } else {
+            ByteBuffer source = ByteBuffer.wrap(data, start, length);
+            long position = m_position;
+            while (source.hasRemaining()) {
+                position += m_channel.write(source, position);
+            }
+            m_size = Math.max(m_size, end);
+        }
+    }
+
+    /**
+     * Reads from the temporary file until the given target buffer is full or the end of the file is reached.<p>
+     *
+     * @param target the buffer to fill
+     * @param position the file position to start reading from
+     *
+     * @throws IOException if reading the temporary file fails
+     */
+    private void readFully(ByteBuffer target, long position) throws IOException {
+
+        while (target.hasRemaining()) {
+            int read = m_channel.read(target, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Moves the contents of the in-memory buffer to a new temporary file.<p>
+     *
+     * @throws IOException if creating or writing the temporary file fails
+     */
+    private void spill() throws IOException {
+
+        m_tempFile = File.createTempFile(TEMP_FILE_PREFIX, null);
+        m_file = new RandomAccessFile(m_tempFile, "rw");
+        m_channel = m_file.getChannel();
+        int size = m_buffer.size();
+        byte[] contents = new byte[size];
+        m_buffer.readBytes(contents, 0, 0, size);
+        ByteBuffer source = ByteBuffer.wrap(contents);
+        while (source.hasRemaining()) {
+            m_channel.write(source, source.position());
+        }
+        m_size = size;
+        m_buffer = null;
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Moved JLAN file buffer to temporary file " + m_tempFile.getAbsolutePath());
+        }
     }
 }
@@ -36,6 +36,7 @@ import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsSecurityException;
+import org.opencms.util.CmsPair;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.I_CmsRegexSubstitution;
 
@@ -44,6 +45,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -64,6 +66,8 @@ import org.alfresco.jlan.util.WildCard;
 import org.springframework.extensions.config.ConfigElement;
 
 import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
  * OpenCms implementation of the JLAN DiskInterface interface.<p>
@@ -78,9 +82,24 @@ public class CmsJlanDiskInterface implements DiskInterface {
     /** The standard resource filter used for reading resources. */
     public static final CmsResourceFilter STANDARD_FILTER = CmsResourceFilter.ONLY_VISIBLE_NO_DELETED;
 
+    /** The time in seconds for which directory listings are cached. */
+    private static final int LISTING_CACHE_SECONDS = 3;
+
+    /** The maximum number of cached directory listings. */
+    private static final int LISTING_CACHE_SIZE = 500;
+
     /** The logger instance for this class. */
     private static final Log LOG = CmsLog.getLog(CmsJlanDiskInterface.class);
 
+    /**
+     * Short lived cache for the results of wildcard searches, since clients tend to list the same folder
+     * several times in quick succession.<p>
+     *
+     * Only the resources and paths are cached, since file objects hold a buffer and the context of their session.<p>
+     */
+    private Cache<String, List<CmsPair<CmsResource, String>>> m_listingCache = CacheBuilder.newBuilder()
+        .expireAfterWrite(LISTING_CACHE_SECONDS, TimeUnit.SECONDS).maximumSize(LISTING_CACHE_SIZE).build();
+
     /**
      * Tries to convert a CmsException to the matching exception type from JLAN.<p>
      *
@@ -131,6 +150,9 @@ public class CmsJlanDiskInterface implements DiskInterface {
      */
     public void closeFile(SrvSession session, TreeConnection connection, NetworkFile file) throws IOException {
 
+        if ((file.getWriteCount() > 0) || file.hasDeleteOnClose()) {
+            m_listingCache.invalidateAll();
+        }
         file.close();
     }
 
@@ -149,6 +171,7 @@ public class CmsJlanDiskInterface implements DiskInterface {
     public void createDirectory(SrvSession session, TreeConnection connection, FileOpenParams params)
     throws IOException {
 
+        m_listingCache.invalidateAll();
         internalCreateFile(session, connection, params, "folder");
     }
 
@@ -158,6 +181,7 @@ public class CmsJlanDiskInterface implements DiskInterface {
     public NetworkFile createFile(SrvSession session, TreeConnection connection, FileOpenParams params)
     throws IOException {
 
+        m_listingCache.invalidateAll();
         return internalCreateFile(session, connection, params, null);
     }
 
@@ -176,6 +200,7 @@ public class CmsJlanDiskInterface implements DiskInterface {
 
         // note: deletion of a file may not necessarily go through this method, instead the client program may open the
         // file, set a "delete on close" flag, and then close it.
+        m_listingCache.invalidateAll();
         try {
             CmsJlanNetworkFile file = getFileForPath(session, connection, path);
             if (file == null) {
@@ -307,6 +332,7 @@ public class CmsJlanDiskInterface implements DiskInterface {
     public void renameFile(SrvSession session, TreeConnection connection, String oldName, String newName)
     throws IOException {
 
+        m_listingCache.invalidateAll();
         String cmsNewPath = getCmsPath(newName);
         try {
             CmsJlanNetworkFile file = getFileForPath(session, connection, oldName);
@@ -361,8 +387,23 @@ public class CmsJlanDiskInterface implements DiskInterface {
             String parent = CmsResource.getParentFolder(cmsPath);
 
             if (WildCard.containsWildcards(name)) {
-                CmsJlanNetworkFile parentFile = getFileForPath(session, connection, parent);
-                return new CmsJlanSearch(parentFile.search(name, searchAttributes));
+                String cacheKey = session.getClientInformation().getUserName()
+                    + "|"
+                    + searchAttributes
+                    + "|"
+                    + cmsPath;
+                List<CmsPair<CmsResource, String>> children = m_listingCache.getIfPresent(cacheKey);
+                if (children == null) {
+                    CmsJlanNetworkFile parentFile = getFileForPath(session, connection, parent);
+                    children = Collections.unmodifiableList(parentFile.searchChildren(name, searchAttributes));
+                    m_listingCache.put(cacheKey, children);
+                }
+                CmsObjectWrapper cms = getCms(session, connection);
+                List<CmsJlanNetworkFile> files = new ArrayList<CmsJlanNetworkFile>(children.size());
+                for (CmsPair<CmsResource, String> child : children) {
+                    files.add(new CmsJlanNetworkFile(cms, child.getFirst(), child.getSecond()));
+                }
+                return new CmsJlanSearch(files);
             } else {
                 CmsJlanNetworkFile file = getFileForPath(session, connection, cmsPath);
                 return new CmsJlanSearch(Collections.singletonList(file));
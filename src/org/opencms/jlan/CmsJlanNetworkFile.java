@@ -34,11 +34,11 @@ import org.opencms.file.wrapper.CmsWrappedResource;
 import org.opencms.lock.CmsLock;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
+import org.opencms.util.CmsPair;
 import org.opencms.util.CmsUUID;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -97,17 +97,23 @@ public class CmsJlanNetworkFile extends NetworkFile {
     @Override
     public void closeFile() throws IOException {
 
-        if (hasDeleteOnClose()) {
-            delete();
-        } else {
-            flushFile();
-            if (getWriteCount() > 0) {
-                try {
-                    m_cms.unlockResource(m_cms.getSitePath(m_resource));
-                } catch (CmsException e) {
-                    LOG.error("Couldn't unlock file: " + m_resource.getRootPath());
+        try {
+            if (hasDeleteOnClose()) {
+                delete();
+            } else {
+                flushFile();
+                if (getWriteCount() > 0) {
+                    try {
+                        m_cms.unlockResource(m_cms.getSitePath(m_resource));
+                    } catch (CmsException e) {
+                        LOG.error("Couldn't unlock file: " + m_resource.getRootPath());
+                    }
                 }
             }
+        } finally {
+            // remove the temporary file if the buffer has been moved to disk
+            m_buffer.dispose();
+            m_bufferInitialized = false;
         }
     }
 
@@ -266,17 +272,38 @@ public class CmsJlanNetworkFile extends NetworkFile {
      */
     public List<CmsJlanNetworkFile> search(String name, int searchAttributes) throws IOException {
 
+        List<CmsJlanNetworkFile> result = new ArrayList<CmsJlanNetworkFile>();
+        for (CmsPair<CmsResource, String> child : searchChildren(name, searchAttributes)) {
+            result.add(new CmsJlanNetworkFile(m_cms, child.getFirst(), child.getSecond()));
+        }
+        return result;
+    }
+
+    /**
+     * Collects the resources and full paths of all files matching the given name pattern and search attributes.<p>
+     *
+     * Unlike the file objects returned by {@link #search(String, int)}, the result holds no per session state,
+     * so it can be reused to create new file objects for later searches.<p>
+     *
+     * @param name the name pattern
+     * @param searchAttributes the search attributes
+     *
+     * @return the list of resources and full paths which match the given parameters
+     *
+     * @throws IOException if something goes wrong
+     */
+    public List<CmsPair<CmsResource, String>> searchChildren(String name, int searchAttributes) throws IOException {
+
         try {
             load(false);
             if (m_resource.isFolder()) {
-                List<CmsJlanNetworkFile> result = new ArrayList<CmsJlanNetworkFile>();
+                List<CmsPair<CmsResource, String>> result = new ArrayList<CmsPair<CmsResource, String>>();
                 String regex = WildCard.convertToRegexp(name);
                 Pattern pattern = Pattern.compile(regex);
                 List<CmsResource> children = m_cms.getResourcesInFolder(
                     m_cms.getSitePath(m_resource),
                     CmsJlanDiskInterface.STANDARD_FILTER);
                 for (CmsResource child : children) {
-                    CmsJlanNetworkFile childFile = new CmsJlanNetworkFile(m_cms, child, getFullChildPath(child));
                     if (!matchesSearchAttributes(searchAttributes)) {
                         continue;
                     }
@@ -284,7 +311,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
                         continue;
                     }
 
-                    result.add(childFile);
+                    result.add(CmsPair.create(child, getFullChildPath(child)));
                 }
                 return result;
             } else {
@@ -370,8 +397,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
             }
             load(true);
             m_buffer.seek(offset);
-            byte[] dataToWrite = Arrays.copyOfRange(data, pos, pos + len);
-            m_buffer.write(dataToWrite);
+            m_buffer.write(data, pos, len);
             incrementWriteCount();
         } catch (CmsException e) {
             throw CmsJlanDiskInterface.convertCmsException(e);
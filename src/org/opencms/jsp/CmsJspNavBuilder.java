@@ -467,21 +467,30 @@ public class CmsJspNavBuilder {
         folder = CmsFileUtil.removeTrailingSeparator(folder);
         List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>();
 
-        List<CmsResource> resources = null;
-        try {
-
-            resources = m_cms.getResourcesInFolder(folder, resourceFilter);
-        } catch (Exception e) {
-            // should never happen
-            LOG.error(e.getLocalizedMessage(), e);
-        }
-        if (resources == null) {
+        List<CmsJspNavCache.Entry> entries = getNavigationSnapshot(folder, resourceFilter);
+        if (entries == null) {
             return Collections.<CmsJspNavElement> emptyList();
         }
         boolean includeAll = visibility == Visibility.all;
         boolean includeHidden = visibility == Visibility.includeHidden;
-        for (CmsResource r : resources) {
-            CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), resourceFilter);
+        long requestTime = m_cms.getRequestContext().getRequestTime();
+        for (CmsJspNavCache.Entry entry : entries) {
+            CmsJspNavElement element;
+            if (resourceFilter.requireTimerange() && !entry.getResource().isReleasedAndNotExpired(requestTime)) {
+                // the snapshot also contains resources outside of their release time range
+                continue;
+            }
+            if (entry.isNavigationLevel()) {
+                // the target of a navigation level depends on the sub folder, so it is not cached
+                element = getNavigationForResource(entry.getSitePath(), resourceFilter, false);
+            } else {
+                element = new CmsJspNavElement(
+                    entry.getSitePath(),
+                    entry.getResource(),
+                    entry.getProperties(),
+                    entry.getLevel(),
+                    m_locale);
+            }
             if ((element != null)
                 && (includeAll
                     || (element.isInNavigation() && (includeHidden || !element.isHiddenNavigationEntry())))) {
@@ -700,6 +709,78 @@ public class CmsJspNavBuilder {
         return result;
     }
 
+    /**
+     * Returns the cached navigation snapshot of the given folder, reading it if not cached yet.<p>
+     *
+     * The sub resources are read ignoring their release time range, so that the snapshot stays valid
+     * until the next change of the folder. Their time range is checked when the navigation is built.
+     * The default files of sub folders are read with the given filter, as for uncached navigation.<p>
+     *
+     * @param folder the site path of the folder
+     * @param resourceFilter the filter to use reading the resources
+     *
+     * @return the navigation snapshot, or <code>null</code> if the folder could not be read
+     */
+    private List<CmsJspNavCache.Entry> getNavigationSnapshot(String folder, CmsResourceFilter resourceFilter) {
+
+        CmsJspNavCache cache = CmsJspNavCache.getInstance();
+        List<CmsJspNavCache.Entry> entries = cache.getEntries(m_cms, folder, resourceFilter);
+        if (entries != null) {
+            return entries;
+        }
+        CmsResourceFilter readFilter = resourceFilter;
+        if (resourceFilter.requireTimerange()) {
+            readFilter = resourceFilter.addExcludeTimerange();
+        }
+        List<CmsResource> resources;
+        try {
+            resources = m_cms.getResourcesInFolder(folder, readFilter);
+        } catch (Exception e) {
+            // should never happen
+            LOG.error(e.getLocalizedMessage(), e);
+            return null;
+        }
+        entries = new ArrayList<CmsJspNavCache.Entry>(resources.size());
+        for (CmsResource resource : resources) {
+            String sitePath = m_cms.getSitePath(resource);
+            int level = CmsResource.getPathLevel(sitePath);
+            if (sitePath.endsWith("/")) {
+                level--;
+            }
+            Map<String, String> propertiesMap;
+            try {
+                propertiesMap = CmsProperty.toMap(m_cms.readPropertyObjects(resource, false));
+            } catch (CmsException e) {
+                // may happen if permissions are not sufficient
+                LOG.warn(e.getLocalizedMessage(), e);
+                continue;
+            }
+            boolean navigationLevel = false;
+            if (resource.isFolder()) {
+                navigationLevel = NAVIGATION_LEVEL_FOLDER.equals(
+                    propertiesMap.get(CmsPropertyDefinition.PROPERTY_DEFAULT_FILE));
+                if (resourceFilter.equals(CmsResourceFilter.DEFAULT) && !navigationLevel) {
+                    try {
+                        CmsResource defaultFile = m_cms.readDefaultFile(resource, resourceFilter);
+                        if ((defaultFile != null)
+                            && !defaultFile.isReleasedAndNotExpired(m_cms.getRequestContext().getRequestTime())) {
+                            // do not show navigation entries for unreleased or expired resources
+                            continue;
+                        }
+                    } catch (@SuppressWarnings("unused") CmsException e) {
+                        // may happen if permissions are not sufficient can be ignored
+                    }
+                }
+                if (!sitePath.endsWith("/")) {
+                    sitePath = sitePath + "/";
+                }
+            }
+            entries.add(new CmsJspNavCache.Entry(sitePath, resource, propertiesMap, level, navigationLevel));
+        }
+        cache.putEntries(m_cms, folder, resourceFilter, entries);
+        return entries;
+    }
+
     /**
      * Returns a navigation element for the named resource.<p>
      *
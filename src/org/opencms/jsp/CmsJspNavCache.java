@@ -0,0 +1,374 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.jsp;
+
+import org.opencms.cache.CmsVfsCache;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.util.CmsCollectionsGenericWrapper;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache for the navigation snapshots of single folders used by the {@link CmsJspNavBuilder}.<p>
+ *
+ * A snapshot contains the resources and properties of all sub resources of a folder
+ * as read by one user in one site, so that rendering a deep navigation does not read the same
+ * resources and properties again for every request. The snapshots of the online project are
+ * dropped when a project is published, offline snapshots are dropped per folder when a
+ * resource is changed.<p>
+ *
+ * @since 10.5.0
+ */
+public final class CmsJspNavCache extends CmsVfsCache {
+
+    /**
+     * Cached navigation data for a single sub resource of a folder.<p>
+     */
+    public static class Entry {
+
+        /** The navigation tree level. */
+        private int m_level;
+
+        /** Flag indicating the resource is a folder marked as navigation level. */
+        private boolean m_navigationLevel;
+
+        /** The properties of the resource. */
+        private Map<String, String> m_properties;
+
+        /** The resource. */
+        private CmsResource m_resource;
+
+        /** The site path of the resource. */
+        private String m_sitePath;
+
+        /**
+         * Creates a new entry.<p>
+         *
+         * @param sitePath the site path of the resource, folders ending with a slash
+         * @param resource the resource
+         * @param properties the properties of the resource
+         * @param level the navigation tree level
+         * @param navigationLevel <code>true</code> if the resource is a folder marked as navigation level
+         */
+        public Entry(
+            String sitePath,
+            CmsResource resource,
+            Map<String, String> properties,
+            int level,
+            boolean navigationLevel) {
+
+            m_sitePath = sitePath;
+            m_resource = resource;
+            m_properties = properties;
+            m_level = level;
+            m_navigationLevel = navigationLevel;
+        }
+
+        /**
+         * Returns the navigation tree level.<p>
+         *
+         * @return the navigation tree level
+         */
+        public int getLevel() {
+
+            return m_level;
+        }
+
+        /**
+         * Returns the properties of the resource.<p>
+         *
+         * @return the properties of the resource
+         */
+        public Map<String, String> getProperties() {
+
+            return m_properties;
+        }
+
+        /**
+         * Returns the resource.<p>
+         *
+         * @return the resource
+         */
+        public CmsResource getResource() {
+
+            return m_resource;
+        }
+
+        /**
+         * Returns the site path of the resource.<p>
+         *
+         * @return the site path of the resource
+         */
+        public String getSitePath() {
+
+            return m_sitePath;
+        }
+
+        /**
+         * Returns if the resource is a folder marked as navigation level.<p>
+         *
+         * @return <code>true</code> if the resource is a folder marked as navigation level
+         */
+        public boolean isNavigationLevel() {
+
+            return m_navigationLevel;
+        }
+    }
+
+    /** The maximum number of folder snapshots kept per project type. */
+    private static final int MAX_ENTRIES = 5000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsJspNavCache.class);
+
+    /** The singleton instance. */
+    private static CmsJspNavCache m_instance;
+
+    /** The snapshots for offline projects. */
+    private Cache<String, List<Entry>> m_offline;
+
+    /** The snapshots for the online project. */
+    private Cache<String, List<Entry>> m_online;
+
+    /**
+     * Creates a new cache and registers it as event listener.<p>
+     */
+    private CmsJspNavCache() {
+
+        m_online = CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES).concurrencyLevel(4).build();
+        m_offline = CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES).concurrencyLevel(4).build();
+        registerEventListener();
+        OpenCms.addCmsEventListener(
+            this,
+            new int[] {
+                I_CmsEventListener.EVENT_PROPERTY_MODIFIED,
+                I_CmsEventListener.EVENT_RESOURCE_CREATED,
+                I_CmsEventListener.EVENT_RESOURCE_COPIED,
+                I_CmsEventListener.EVENT_USER_MODIFIED,
+                I_CmsEventListener.EVENT_GROUP_MODIFIED,
+                I_CmsEventListener.EVENT_CLEAR_PRINCIPAL_CACHES});
+    }
+
+    /**
+     * Returns the singleton instance of the navigation cache.<p>
+     *
+     * @return the navigation cache
+     */
+    public static synchronized CmsJspNavCache getInstance() {
+
+        if (m_instance == null) {
+            m_instance = new CmsJspNavCache();
+        }
+        return m_instance;
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    @Override
+    public void cmsEvent(CmsEvent event) {
+
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_PROPERTY_MODIFIED:
+                CmsProperty property = (CmsProperty)event.getData().get("property");
+                // resource level values are shared by all siblings, structure level values are not
+                boolean shared = (property == null)
+                    || (property.getResourceValue() != null)
+                    || property.isDeleteResourceValue();
+                uncacheResource((CmsResource)event.getData().get(I_CmsEventListener.KEY_RESOURCE), shared);
+                break;
+            case I_CmsEventListener.EVENT_RESOURCE_CREATED:
+                uncacheResource((CmsResource)event.getData().get(I_CmsEventListener.KEY_RESOURCE));
+                break;
+            case I_CmsEventListener.EVENT_RESOURCE_COPIED:
+                List<CmsResource> resources = CmsCollectionsGenericWrapper.list(
+                    event.getData().get(I_CmsEventListener.KEY_RESOURCES));
+                uncacheResources(resources);
+                break;
+            case I_CmsEventListener.EVENT_USER_MODIFIED:
+            case I_CmsEventListener.EVENT_GROUP_MODIFIED:
+            case I_CmsEventListener.EVENT_CLEAR_PRINCIPAL_CACHES:
+                // group memberships change the permissions the snapshots were read with
+                flush(true);
+                flush(false);
+                break;
+            case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+                // the offline snapshots contain the state of the published resources
+                flush(true);
+                flush(false);
+                break;
+            default:
+                super.cmsEvent(event);
+                break;
+        }
+    }
+
+    /**
+     * Returns the cached snapshot for the given folder, or <code>null</code> if not cached.<p>
+     *
+     * @param cms the current users context
+     * @param folder the site path of the folder
+     * @param filter the resource filter the snapshot was read with
+     *
+     * @return the cached snapshot, or <code>null</code>
+     */
+    public List<Entry> getEntries(CmsObject cms, String folder, CmsResourceFilter filter) {
+
+        return getCache(cms).getIfPresent(getCacheKey(cms, folder, filter));
+    }
+
+    /**
+     * Caches the snapshot for the given folder.<p>
+     *
+     * @param cms the current users context
+     * @param folder the site path of the folder
+     * @param filter the resource filter the snapshot was read with
+     * @param entries the snapshot to cache
+     */
+    public void putEntries(CmsObject cms, String folder, CmsResourceFilter filter, List<Entry> entries) {
+
+        getCache(cms).put(getCacheKey(cms, folder, filter), entries);
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#flush(boolean)
+     */
+    @Override
+    protected void flush(boolean online) {
+
+        if (online) {
+            m_online.invalidateAll();
+        } else {
+            m_offline.invalidateAll();
+        }
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#uncacheResource(org.opencms.file.CmsResource)
+     */
+    @Override
+    protected void uncacheResource(CmsResource resource) {
+
+        uncacheResource(resource, true);
+    }
+
+    /**
+     * Returns the snapshot cache for the project of the given context.<p>
+     *
+     * @param cms the current users context
+     *
+     * @return the snapshot cache
+     */
+    private Cache<String, List<Entry>> getCache(CmsObject cms) {
+
+        return cms.getRequestContext().getCurrentProject().isOnlineProject() ? m_online : m_offline;
+    }
+
+    /**
+     * Returns the cache key for the given folder, starting with the root path of the folder.<p>
+     *
+     * @param cms the current users context
+     * @param folder the site path of the folder
+     * @param filter the resource filter
+     *
+     * @return the cache key
+     */
+    private String getCacheKey(CmsObject cms, String folder, CmsResourceFilter filter) {
+
+        StringBuffer key = new StringBuffer(128);
+        key.append(CmsResource.getFolderPath(cms.getRequestContext().addSiteRoot(folder)));
+        key.append('|').append(cms.getRequestContext().getSiteRoot());
+        key.append('|').append(cms.getRequestContext().getCurrentUser().getId());
+        key.append('|').append(filter.getCacheId());
+        return key.toString();
+    }
+
+    /**
+     * Removes the snapshots of the given folders and of all folders in the given sub tree.<p>
+     *
+     * @param cache the cache to remove the snapshots from
+     * @param parent the root path of the parent folder, may be <code>null</code>
+     * @param grandParent the root path of the grand parent folder, may be <code>null</code>
+     * @param subTree the root path of the changed folder, may be <code>null</code>
+     */
+    private void uncache(Cache<String, List<Entry>> cache, String parent, String grandParent, String subTree) {
+
+        Iterator<String> it = cache.asMap().keySet().iterator();
+        while (it.hasNext()) {
+            String key = it.next();
+            String folder = key.substring(0, key.indexOf('|'));
+            if (folder.equals(parent)
+                || folder.equals(grandParent)
+                || ((subTree != null) && folder.startsWith(subTree))) {
+                it.remove();
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(Messages.get().getBundle().key(Messages.LOG_NAV_CACHE_UNCACHED_1, key));
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the snapshots that contain the given resource.<p>
+     *
+     * @param resource the changed resource
+     * @param shared <code>true</code> if the change also affects the siblings of the resource
+     */
+    private void uncacheResource(CmsResource resource, boolean shared) {
+
+        if (resource == null) {
+            return;
+        }
+        if (shared && (resource.getSiblingCount() > 1)) {
+            // the siblings may be listed in any folder, online resources only change by publishing
+            flush(false);
+        }
+        String rootPath = resource.getRootPath();
+        // the parent lists the resource, the grand parent lists the parent with its default file
+        String parent = CmsResource.getParentFolder(rootPath);
+        String grandParent = parent != null ? CmsResource.getParentFolder(parent) : null;
+        // changes to a folder may change the permissions of all resources below
+        String subTree = resource.isFolder() ? CmsResource.getFolderPath(rootPath) : null;
+        uncache(m_online, parent, grandParent, subTree);
+        uncache(m_offline, parent, grandParent, subTree);
+    }
+}
@@ -28,14 +28,17 @@
 package org.opencms.loader;
 
 import org.opencms.configuration.CmsParameterConfiguration;
+import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsRequestContext;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsVfsResourceNotFoundException;
 import org.opencms.file.history.CmsHistoryResourceHandler;
+import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.flex.CmsFlexCache;
 import org.opencms.flex.CmsFlexController;
 import org.opencms.flex.CmsFlexRequest;
@@ -59,6 +62,7 @@ import org.opencms.staticexport.CmsLinkManager;
 import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsRequestUtil;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 import org.opencms.util.I_CmsRegexSubstitution;
 import org.opencms.workplace.CmsWorkplaceManager;
 
@@ -69,15 +73,22 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.net.SocketException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
@@ -93,6 +104,10 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.logging.Log;
 
 import com.google.common.base.Splitter;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * The JSP loader which enables the execution of JSP in OpenCms.<p>
@@ -132,6 +147,78 @@ import com.google.common.base.Splitter;
  */
 public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledLoader, I_CmsEventListener {
 
+    /**
+     * Cached parse state of a JSP resource.<p>
+     *
+     * Stores the raw content of the JSP as read from the VFS, and once the JSP has been parsed,
+     * the parsed content together with the root paths of all JSPs it depends on through
+     * <code>&lt;%@ include %&gt;</code> or <code>&lt;%@ cms %&gt;</code> directives.<p>
+     */
+    private static class CmsJspParseResult {
+
+        /** The date of last modification of the resource this entry was created for. */
+        protected final long m_dateLastModified;
+
+        /** The root paths of the JSPs the parsed content depends on. */
+        protected volatile List<String> m_dependencies;
+
+        /** The encoding of the JSP. */
+        protected final String m_encoding;
+
+        /** The parsed JSP content, or <code>null</code> if the JSP has not been parsed yet. */
+        protected volatile byte[] m_parsedContent;
+
+        /** The raw JSP content. */
+        protected final byte[] m_source;
+
+        /** The structure id of the resource this entry was created for. */
+        protected final CmsUUID m_structureId;
+
+        /**
+         * Creates a new parse result.<p>
+         *
+         * @param structureId the structure id of the JSP resource
+         * @param dateLastModified the date of last modification of the JSP resource
+         * @param encoding the encoding of the JSP
+         * @param source the raw JSP content
+         */
+        protected CmsJspParseResult(CmsUUID structureId, long dateLastModified, String encoding, byte[] source) {
+
+            m_structureId = structureId;
+            m_dateLastModified = dateLastModified;
+            m_encoding = encoding;
+            m_source = source;
+        }
+
+        /**
+         * Sets the parsed content together with the JSPs it depends on.<p>
+         *
+         * @param parsedContent the parsed JSP content
+         * @param dependencies the root paths of the JSPs the parsed content depends on
+         */
+        protected void setParsedContent(byte[] parsedContent, List<String> dependencies) {
+
+            // dependencies must be written first, readers check the parsed content before reading them
+            m_dependencies = dependencies;
+            m_parsedContent = parsedContent;
+        }
+
+        /**
+         * Checks if this entry is still valid for the given resource and encoding.<p>
+         *
+         * @param resource the JSP resource
+         * @param encoding the current encoding of the JSP
+         *
+         * @return <code>true</code> if this entry is still valid
+         */
+        protected boolean isValid(CmsResource resource, String encoding) {
+
+            return m_structureId.equals(resource.getStructureId())
+                && (m_dateLastModified == resource.getDateLastModified())
+                && m_encoding.equals(encoding);
+        }
+    }
+
     /** Property value for "cache" that indicates that the FlexCache should be bypassed. */
     public static final String CACHE_PROPERTY_BYPASS = "bypass";
 
@@ -165,6 +252,9 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
     /** Jsp repository parameter name. */
     public static final String PARAM_JSP_REPOSITORY = "jsp.repository";
 
+    /** Parameter name for the number of threads used to warm up the JSP cache after publishing, 0 disables the warm up. */
+    public static final String PARAM_JSP_WARMUP_THREADS = "jsp.warmup.threads";
+
     /** The id of this loader. */
     public static final int RESOURCE_LOADER_ID = 6;
 
@@ -174,8 +264,11 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
     /** The maximum age for delivered contents in the clients cache. */
     private static long m_clientCacheMaxAge;
 
-    /** Read write locks for jsp files. */
-    private static Map<String, ReentrantReadWriteLock> m_fileLocks;
+    /** Collects the root paths of the JSPs included by the JSP currently parsed by this thread. */
+    private static final ThreadLocal<List<String>> DEPENDENCY_COLLECTOR = new ThreadLocal<List<String>>();
+
+    /** Read write locks for jsp files, weakly referenced so a lock can never be dropped while it is held. */
+    private static LoadingCache<String, ReentrantReadWriteLock> m_fileLocks;
 
     /** The directory to store the generated JSP pages in (absolute path). */
     private static String m_jspRepository;
@@ -195,15 +288,27 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
     /** The offline JSPs. */
     private Map<String, Boolean> m_offlineJsps;
 
+    /** The parse results for offline JSPs, by root path. */
+    private Map<String, CmsJspParseResult> m_offlineParseResults;
+
     /** The online JSPs. */
     private Map<String, Boolean> m_onlineJsps;
 
+    /** The parse results for online JSPs, by root path. */
+    private Map<String, CmsJspParseResult> m_onlineParseResults;
+
     /** A map from taglib names to their URIs. */
     private Map<String, String> m_taglibs = new HashMap<String, String>();
 
     /** Lock used to prevent JSP repository from being accessed while it is purged. The read lock is needed for accessing the JSP repository, the write lock is needed for purging it. */
     private ReentrantReadWriteLock m_purgeLock = new ReentrantReadWriteLock(true);
 
+    /** The CMS context used to read published JSPs for warming up the cache. */
+    private CmsObject m_warmupCms;
+
+    /** The executor used to warm up the cache after publishing, <code>null</code> if disabled. */
+    private ThreadPoolExecutor m_warmupExecutor;
+
     /**
      * The constructor of the class is empty, the initial instance will be
      * created by the resource manager upon startup of OpenCms.<p>
@@ -215,8 +320,15 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
         m_configuration = new CmsParameterConfiguration();
         OpenCms.addCmsEventListener(
             this,
-            new int[] {EVENT_CLEAR_CACHES, EVENT_CLEAR_OFFLINE_CACHES, EVENT_CLEAR_ONLINE_CACHES});
-        m_fileLocks = CmsMemoryMonitor.createLRUCacheMap(10000);
+            new int[] {EVENT_CLEAR_CACHES, EVENT_CLEAR_OFFLINE_CACHES, EVENT_CLEAR_ONLINE_CACHES, EVENT_PUBLISH_PROJECT});
+        m_fileLocks = CacheBuilder.newBuilder().weakValues().build(new CacheLoader<String, ReentrantReadWriteLock>() {
+
+            @Override
+            public ReentrantReadWriteLock load(String key) {
+
+                return new ReentrantReadWriteLock(true);
+            }
+        });
         initCaches(1000);
     }
 
@@ -240,24 +352,35 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
             case EVENT_CLEAR_CACHES:
                 m_offlineJsps.clear();
                 m_onlineJsps.clear();
+                m_offlineParseResults.clear();
+                m_onlineParseResults.clear();
                 return;
             case EVENT_CLEAR_OFFLINE_CACHES:
+                // the parse results are validated against the resource date, no need to clear them here
                 m_offlineJsps.clear();
                 return;
             case EVENT_CLEAR_ONLINE_CACHES:
                 m_onlineJsps.clear();
                 return;
+            case EVENT_PUBLISH_PROJECT:
+                String publishId = (String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID);
+                if (publishId != null) {
+                    warmUp(new CmsUUID(publishId));
+                }
+                return;
             default:
                 // do nothing
         }
     }
 
     /**
-     * Destroy this ResourceLoder, this is a NOOP so far.
+     * Destroy this ResourceLoder, stops the warm up threads if any.<p>
      */
     public void destroy() {
 
-        // NOOP
+        if (m_warmupExecutor != null) {
+            m_warmupExecutor.shutdownNow();
+        }
     }
 
     /**
@@ -431,6 +554,19 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
             initCaches(cacheSize);
         }
 
+        int warmupThreads = m_configuration.getInteger(PARAM_JSP_WARMUP_THREADS, 2);
+        if (warmupThreads > 0) {
+            m_warmupExecutor = new ThreadPoolExecutor(
+                warmupThreads,
+                warmupThreads,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactoryBuilder().setNameFormat("OpenCms-JspWarmup-%d").setDaemon(true).setPriority(
+                    Thread.MIN_PRIORITY).build());
+            m_warmupExecutor.allowCoreThreadTimeOut(true);
+        }
+
         // output setup information
         if (CmsLog.INIT.isInfoEnabled()) {
             CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_JSP_REPOSITORY_ABS_PATH_1, m_jspRepository));
@@ -446,11 +582,30 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                 CmsLog.INIT.info(
                     Messages.get().getBundle().key(Messages.INIT_JSP_CACHE_SIZE_1, String.valueOf(cacheSize)));
             }
+            CmsLog.INIT.info(
+                Messages.get().getBundle().key(Messages.INIT_JSP_WARMUP_THREADS_1, String.valueOf(warmupThreads)));
             CmsLog.INIT.info(
                 Messages.get().getBundle().key(Messages.INIT_LOADER_INITIALIZED_1, this.getClass().getName()));
         }
     }
 
+    /**
+     * Initializes the CMS context used to warm up the JSP cache after publishing.<p>
+     *
+     * @param cms an initialized CMS context with administration permissions
+     */
+    public void initialize(CmsObject cms) {
+
+        try {
+            m_warmupCms = OpenCms.initCmsObject(cms);
+            m_warmupCms.getRequestContext().setCurrentProject(m_warmupCms.readProject(CmsProject.ONLINE_PROJECT_ID));
+            m_warmupCms.getRequestContext().setSiteRoot("");
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            m_warmupCms = null;
+        }
+    }
+
     /**
      * @see org.opencms.loader.I_CmsResourceLoader#isStaticExportEnabled()
      */
@@ -765,13 +920,15 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
             // create directory structure
             d.mkdirs();
         }
-        ReentrantReadWriteLock readWriteLock = getFileLock(jspVfsName);
+        ReentrantReadWriteLock readWriteLock = getFileLock(jspPath);
         try {
             // get a read lock for this jsp
             readWriteLock.readLock().lock();
             File jspFile = new File(jspPath);
             // check if the JSP must be updated
             boolean mustUpdate = false;
+            // a forced update must not reuse the cached parsed content, strong link macros may resolve differently
+            boolean forceParse = false;
             long jspModificationDate = 0;
             if (!jspFile.exists()) {
                 // file does not exist in real FS
@@ -795,6 +952,7 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                 } else if (controller.getCurrentRequest().isDoRecompile()) {
                     // recompile is forced with parameter
                     mustUpdate = true;
+                    forceParse = true;
                 } else {
                     // check if update is needed
                     if (controller.getCurrentRequest().isOnline()) {
@@ -806,6 +964,7 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                     if (mustUpdate) {
                         // update strong link dependencies
                         mustUpdate = updateStrongLinks(resource, controller, updatedFiles);
+                        forceParse = mustUpdate;
                     }
                 }
             }
@@ -820,21 +979,12 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                     // check again if updating is still necessary as this might have happened while waiting for the write lock
                     if (!jspFile.exists() || (jspModificationDate == jspFile.lastModified())) {
                         updatedFiles.add(jspTargetName);
-                        byte[] contents;
-                        String encoding;
+                        CmsJspParseResult parseResult;
                         try {
-                            CmsObject cms = controller.getCmsObject();
-                            contents = cms.readFile(resource).getContents();
-                            // check the "content-encoding" property for the JSP, use system default if not found on path
-                            encoding = cms.readPropertyObject(
+                            parseResult = getParseResult(
+                                controller.getCmsObject(),
                                 resource,
-                                CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING,
-                                true).getValue();
-                            if (encoding == null) {
-                                encoding = OpenCms.getSystemInfo().getDefaultEncoding();
-                            } else {
-                                encoding = CmsEncoder.lookupEncoding(encoding.trim(), encoding);
-                            }
+                                controller.getCurrentRequest().isOnline());
                         } catch (CmsException e) {
                             controller.setThrowable(e, jspVfsName);
                             throw new ServletException(
@@ -843,8 +993,16 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                         }
 
                         try {
-                            // parse the JSP and modify OpenCms critical directives
-                            contents = parseJsp(contents, encoding, controller, updatedFiles, isHardInclude);
+                            byte[] contents = forceParse ? null : parseResult.m_parsedContent;
+                            if (contents != null) {
+                                // reuse the cached parse result, but make sure all included JSPs exist in the RFS
+                                for (String dependency : parseResult.m_dependencies) {
+                                    updateJsp(dependency, controller, updatedFiles);
+                                }
+                            } else {
+                                // parse the JSP and modify OpenCms critical directives
+                                contents = parseJsp(parseResult, controller, updatedFiles, isHardInclude);
+                            }
                             if (LOG.isInfoEnabled()) {
                                 // check for existing file and display some debug info
                                 LOG.info(
@@ -856,20 +1014,20 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                                             Boolean.valueOf(jspFile.isFile()),
                                             Boolean.valueOf(jspFile.canWrite())}));
                             }
-                            // write the parsed JSP content to the real FS
-                            synchronized (CmsJspLoader.class) {
-                                // this must be done only one file at a time
-                                FileOutputStream fs = new FileOutputStream(jspFile);
+                            // write the parsed JSP content to the real FS, we hold the write lock for this file
+                            FileOutputStream fs = new FileOutputStream(jspFile);
+                            try {
                                 fs.write(contents);
+                            } finally {
                                 fs.close();
+                            }
 
-                                // we set the modification date to (approximately) that of the VFS resource. This is needed because in the Online project, the old version of a JSP
-                                // may be generated in the RFS JSP repository *after* the JSP has been changed, but *before* it has been published, which would lead
-                                // to it not being updated after the changed JSP is published.
+                            // we set the modification date to (approximately) that of the VFS resource. This is needed because in the Online project, the old version of a JSP
+                            // may be generated in the RFS JSP repository *after* the JSP has been changed, but *before* it has been published, which would lead
+                            // to it not being updated after the changed JSP is published.
 
-                                // Note: the RFS may only support second precision for the last modification date
-                                jspFile.setLastModified((1 + (resource.getDateLastModified() / 1000)) * 1000);
-                            }
+                            // Note: the RFS may only support second precision for the last modification date
+                            jspFile.setLastModified((1 + (resource.getDateLastModified() / 1000)) * 1000);
                             if (controller.getCurrentRequest().isOnline()) {
                                 m_onlineJsps.put(jspVfsName, Boolean.TRUE);
                             } else {
@@ -1081,6 +1239,10 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                     org.opencms.flex.Messages.LOG_FLEXCACHE_WILL_PURGE_JSP_REPOSITORY_0));
         }
 
+        // the cached parse results must not be written back, the JSPs have to be generated again
+        m_offlineParseResults.clear();
+        m_onlineParseResults.clear();
+
         File d;
         d = new File(getJspRepository() + CmsFlexCache.REPOSITORY_ONLINE + File.separator);
         CmsFileUtil.purgeDirectory(d);
@@ -1171,6 +1333,8 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
 
         m_offlineJsps = CmsMemoryMonitor.createLRUCacheMap(cacheSize);
         m_onlineJsps = CmsMemoryMonitor.createLRUCacheMap(cacheSize);
+        m_offlineParseResults = CmsMemoryMonitor.createLRUCacheMap(cacheSize);
+        m_onlineParseResults = CmsMemoryMonitor.createLRUCacheMap(cacheSize);
     }
 
     /**
@@ -1671,8 +1835,17 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_NAME_REAL_FS_1, jspRfsName));
             }
+            List<String> dependencies = DEPENDENCY_COLLECTOR.get();
+            if (dependencies != null) {
+                dependencies.add(includeResource.getRootPath());
+            }
         } catch (Exception e) {
             jspRfsName = null;
+            List<String> dependencies = DEPENDENCY_COLLECTOR.get();
+            if (dependencies != null) {
+                // a null entry marks an unresolved include, the parse result must not be reused
+                dependencies.add(null);
+            }
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_ERR_UPDATE_1, jspVfsName), e);
             }
@@ -1733,24 +1906,116 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
     }
 
     /**
-     * Returns the read-write-lock for the given jsp vfs name.<p>
+     * Loads the sources of all JSPs contained in the given publish list into the parse cache
+     * of the Online project, using the warm up thread pool.<p>
      *
-     * @param jspVfsName the jsp vfs name
+     * This way the first requests after publishing do not have to read the changed JSPs from the database
+     * while they hold the write lock for the JSP in the RFS.<p>
      *
-     * @return the read-write-lock
+     * @param publishHistoryId the id of the publish list
      */
-    private ReentrantReadWriteLock getFileLock(String jspVfsName) {
+    protected void warmUp(CmsUUID publishHistoryId) {
 
-        ReentrantReadWriteLock lock = m_fileLocks.get(jspVfsName);
-        if (lock == null) {
-            synchronized (m_fileLocks) {
-                if (!m_fileLocks.containsKey(jspVfsName)) {
-                    m_fileLocks.put(jspVfsName, new ReentrantReadWriteLock(true));
+        if ((m_warmupExecutor == null) || (m_warmupCms == null)) {
+            return;
+        }
+        List<CmsUUID> jspIds = new ArrayList<CmsUUID>();
+        try {
+            for (CmsPublishedResource published : m_warmupCms.readPublishedResources(publishHistoryId)) {
+                if (published.isFolder() || published.getState().isDeleted()) {
+                    continue;
+                }
+                I_CmsResourceType type = OpenCms.getResourceManager().getResourceType(published.getType());
+                if (type.getLoaderId() == RESOURCE_LOADER_ID) {
+                    jspIds.add(published.getStructureId());
                 }
-                lock = m_fileLocks.get(jspVfsName);
             }
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            return;
+        }
+        if (jspIds.isEmpty()) {
+            return;
+        }
+        final long start = System.currentTimeMillis();
+        final int total = jspIds.size();
+        final AtomicInteger pending = new AtomicInteger(total);
+        for (final CmsUUID structureId : jspIds) {
+            try {
+                m_warmupExecutor.execute(new Runnable() {
+
+                    @SuppressWarnings("synthetic-access")
+                    public void run() {
+
+                        try {
+                            CmsObject cms = OpenCms.initCmsObject(m_warmupCms);
+                            CmsResource resource = cms.readResource(structureId, CmsResourceFilter.ALL);
+                            getParseResult(cms, resource, true);
+                        } catch (CmsException e) {
+                            LOG.warn(e.getLocalizedMessage(), e);
+                        } finally {
+                            if ((pending.decrementAndGet() == 0) && LOG.isInfoEnabled()) {
+                                LOG.info(
+                                    Messages.get().getBundle().key(
+                                        Messages.LOG_JSP_WARMUP_FINISHED_2,
+                                        String.valueOf(total),
+                                        String.valueOf(System.currentTimeMillis() - start)));
+                            }
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the loader is shutting down
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the read-write-lock for the given jsp RFS path.<p>
+     *
+     * @param jspRfsPath the jsp RFS path
+     *
+     * @return the read-write-lock
+     */
+    private ReentrantReadWriteLock getFileLock(String jspRfsPath) {
+
+        return m_fileLocks.getUnchecked(jspRfsPath);
+    }
+
+    /**
+     * Returns the cached parse result for the given JSP resource, reading the JSP source if
+     * no valid parse result is cached.<p>
+     *
+     * @param cms the current CMS context
+     * @param resource the JSP resource
+     * @param online <code>true</code> if the parse result for the Online project is requested
+     *
+     * @return the parse result
+     *
+     * @throws CmsException if reading the JSP fails
+     */
+    private CmsJspParseResult getParseResult(CmsObject cms, CmsResource resource, boolean online)
+    throws CmsException {
+
+        // check the "content-encoding" property for the JSP, use system default if not found on path
+        String encoding = cms.readPropertyObject(
+            resource,
+            CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING,
+            true).getValue();
+        if (encoding == null) {
+            encoding = OpenCms.getSystemInfo().getDefaultEncoding();
+        } else {
+            encoding = CmsEncoder.lookupEncoding(encoding.trim(), encoding);
+        }
+        Map<String, CmsJspParseResult> cache = online ? m_onlineParseResults : m_offlineParseResults;
+        CmsJspParseResult result = cache.get(resource.getRootPath());
+        if ((result == null) || !result.isValid(resource, encoding)) {
+            byte[] source = cms.readFile(resource).getContents();
+            result = new CmsJspParseResult(resource.getStructureId(), resource.getDateLastModified(), encoding, source);
+            cache.put(resource.getRootPath(), result);
         }
-        return lock;
+        return result;
     }
 
     /**
@@ -1780,4 +2045,40 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
         String jspPath = CmsFileUtil.getRepositoryName(m_jspRepository, jspVfsName + extension, online);
         return jspPath;
     }
+
+    /**
+     * Parses the source of the given parse result, and stores the parsed content together with
+     * the JSPs it includes in the parse result.<p>
+     *
+     * @param parseResult the parse result holding the JSP source
+     * @param controller the controller for the JSP integration
+     * @param updatedFiles a Set containing all JSP pages that have been already updated
+     * @param isHardInclude indicated if this page is actually a "hard" include with <code>&lt;%@ include file="..." &gt;</code>
+     *
+     * @return the parsed JSP content
+     */
+    private byte[] parseJsp(
+        CmsJspParseResult parseResult,
+        CmsFlexController controller,
+        Set<String> updatedFiles,
+        boolean isHardInclude) {
+
+        List<String> previousDependencies = DEPENDENCY_COLLECTOR.get();
+        List<String> dependencies = new ArrayList<String>();
+        DEPENDENCY_COLLECTOR.set(dependencies);
+        try {
+            byte[] contents = parseJsp(
+                parseResult.m_source,
+                parseResult.m_encoding,
+                controller,
+                updatedFiles,
+                isHardInclude);
+            if (!dependencies.contains(null)) {
+                parseResult.setParsedContent(contents, dependencies);
+            }
+            return contents;
+        } finally {
+            DEPENDENCY_COLLECTOR.set(previousDependencies);
+        }
+    }
 }
@@ -1167,6 +1167,12 @@ public class CmsResourceManager {
             type.initialize(cms);
         }
 
+        // the JSP loader needs a CMS context to warm up its cache after publishing
+        I_CmsResourceLoader jspLoader = getLoader(CmsJspLoader.RESOURCE_LOADER_ID);
+        if (jspLoader instanceof CmsJspLoader) {
+            ((CmsJspLoader)jspLoader).initialize(cms);
+        }
+
         if (CmsLog.INIT.isInfoEnabled()) {
             CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_LOADER_CONFIG_FINISHED_0));
         }
@@ -187,6 +187,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_JSP_REPOSITORY_ERR_PAGE_COMMOTED_1 = "INIT_JSP_REPOSITORY_ERR_PAGE_COMMOTED_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_JSP_WARMUP_THREADS_1 = "INIT_JSP_WARMUP_THREADS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_LOADER_CONFIG_FINISHED_0 = "INIT_LOADER_CONFIG_FINISHED_0";
 
@@ -241,6 +244,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_JSP_PERMCHECK_4 = "LOG_JSP_PERMCHECK_4";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JSP_WARMUP_FINISHED_2 = "LOG_JSP_WARMUP_FINISHED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_NAME_REAL_FS_1 = "LOG_NAME_REAL_FS_1";
 
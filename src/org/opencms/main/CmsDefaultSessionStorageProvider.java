@@ -27,35 +27,54 @@
 
 package org.opencms.main;
 
-import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsUUID;
 
 import java.util.ArrayList;
-import java.util.ConcurrentModificationException;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-
-import org.apache.commons.collections.FastHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
  * The default session storage provider implementation.<p>
  *
- * Implementation based on a {@link FastHashMap}.<p>
+ * Implementation based on a {@link ConcurrentHashMap}, with secondary indexes
+ * of the session ids by user and by the time they expire.<p>
+ *
+ * The expiry index is a time wheel with buckets of {@link #EXPIRY_BUCKET_MILLIS} milliseconds,
+ * so {@link #validate()} only has to look at the sessions that may have expired since the last run.
+ * Sessions that have been updated in the meantime are simply moved to a later bucket.<p>
+ *
+ * All changes of an index entry are made while holding the lock of its session id set, and a set is
+ * only removed from its index while it is empty and locked, so no session id can be added to a set
+ * that is no longer part of the index.<p>
  *
  * @since 6.5.5
  */
 public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProvider {
 
+    /** The time span covered by one bucket of the expiry index in milliseconds. */
+    public static final long EXPIRY_BUCKET_MILLIS = 60000;
+
+    /** The session ids by the expiry bucket they are in. */
+    private ConcurrentSkipListMap<Long, Set<CmsUUID>> m_expiryIndex;
+
     /** Stores the session info objects mapped to the session id. */
-    private FastHashMap m_sessions;
+    private ConcurrentHashMap<CmsUUID, CmsSessionInfo> m_sessions;
+
+    /** The session ids by user id. */
+    private ConcurrentHashMap<CmsUUID, Set<CmsUUID>> m_userIndex;
 
     /**
      * @see org.opencms.main.I_CmsSessionStorageProvider#get(org.opencms.util.CmsUUID)
      */
     public CmsSessionInfo get(CmsUUID sessionId) {
 
-        return (CmsSessionInfo)m_sessions.get(sessionId);
+        return m_sessions.get(sessionId);
     }
 
     /**
@@ -63,7 +82,7 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public List<CmsSessionInfo> getAll() {
 
-        return getAllOfUser(null);
+        return new ArrayList<CmsSessionInfo>(m_sessions.values());
     }
 
     /**
@@ -71,14 +90,21 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public List<CmsSessionInfo> getAllOfUser(CmsUUID userId) {
 
-        try {
-            return getAllSelected(CmsCollectionsGenericWrapper.<CmsUUID, CmsSessionInfo> map(m_sessions), userId);
-        } catch (ConcurrentModificationException e) {
-            // try again with a clone this time
-            return getAllSelected(
-                CmsCollectionsGenericWrapper.<CmsUUID, CmsSessionInfo> map(m_sessions.clone()),
-                userId);
+        if (userId == null) {
+            return getAll();
+        }
+        List<CmsSessionInfo> userSessions = new ArrayList<CmsSessionInfo>();
+        Set<CmsUUID> sessionIds = m_userIndex.get(userId);
+        if (sessionIds != null) {
+            for (CmsUUID sessionId : sessionIds) {
+                CmsSessionInfo sessionInfo = m_sessions.get(sessionId);
+                if ((sessionInfo != null) && userId.equals(sessionInfo.getUserId())) {
+                    // sessionInfo == null may be the case in case of concurrent modification
+                    userSessions.add(sessionInfo);
+                }
+            }
         }
+        return userSessions;
     }
 
     /**
@@ -95,9 +121,9 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
     public void initialize() {
 
         // create a map for all sessions, these will be mapped using their session id
-        m_sessions = new FastHashMap();
-        // set to "fast" mode (will be reset for write access)
-        m_sessions.setFast(true);
+        m_sessions = new ConcurrentHashMap<CmsUUID, CmsSessionInfo>();
+        m_userIndex = new ConcurrentHashMap<CmsUUID, Set<CmsUUID>>();
+        m_expiryIndex = new ConcurrentSkipListMap<Long, Set<CmsUUID>>();
     }
 
     /**
@@ -105,7 +131,14 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public CmsSessionInfo put(CmsSessionInfo sessionInfo) {
 
-        return (CmsSessionInfo)m_sessions.put(sessionInfo.getSessionId(), sessionInfo);
+        CmsUUID sessionId = sessionInfo.getSessionId();
+        CmsSessionInfo previous = m_sessions.put(sessionId, sessionInfo);
+        if ((previous != null) && !previous.getUserId().equals(sessionInfo.getUserId())) {
+            removeFromIndex(m_userIndex, previous.getUserId(), sessionId);
+        }
+        addToIndex(m_userIndex, sessionInfo.getUserId(), sessionId);
+        addToIndex(m_expiryIndex, getExpiryBucket(sessionInfo), sessionId);
+        return previous;
     }
 
     /**
@@ -113,7 +146,12 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public CmsSessionInfo remove(CmsUUID sessionId) {
 
-        return (CmsSessionInfo)m_sessions.remove(sessionId);
+        CmsSessionInfo sessionInfo = m_sessions.remove(sessionId);
+        if (sessionInfo != null) {
+            removeFromIndex(m_userIndex, sessionInfo.getUserId(), sessionId);
+            // the entries in the expiry index are dropped when their bucket is validated
+        }
+        return sessionInfo;
     }
 
     /**
@@ -122,7 +160,8 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
     public void shutdown() {
 
         m_sessions.clear();
-        m_sessions = null;
+        m_userIndex.clear();
+        m_expiryIndex.clear();
     }
 
     /**
@@ -130,59 +169,97 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public void validate() {
 
-        try {
-            // change session map to full synchronization or "slow" mode
-            m_sessions.setFast(false);
-            Iterator<Map.Entry<CmsUUID, CmsSessionInfo>> sessions = CmsCollectionsGenericWrapper.<CmsUUID, CmsSessionInfo> map(
-                m_sessions).entrySet().iterator();
-            while (sessions.hasNext()) {
-                Map.Entry<CmsUUID, CmsSessionInfo> entry = sessions.next();
-                CmsUUID sessionId = entry.getKey();
-                CmsSessionInfo sessionInfo = entry.getValue();
-                if ((sessionInfo != null) && (m_sessions.get(sessionId) != null)) {
-                    // may be the case in case of concurrent modification
-                    if (sessionInfo.isExpired()) {
-                        // session is invalid, try to remove it
-                        try {
-                            sessions.remove();
-                        } catch (ConcurrentModificationException ex) {
-                            // ignore, better luck next time...
-                        }
-                    }
+        if (m_expiryIndex == null) {
+            // may be the case during shutdown
+            return;
+        }
+        Long currentBucket = Long.valueOf(System.currentTimeMillis() / EXPIRY_BUCKET_MILLIS);
+        Iterator<Map.Entry<Long, Set<CmsUUID>>> buckets = m_expiryIndex.headMap(
+            currentBucket,
+            true).entrySet().iterator();
+        while (buckets.hasNext()) {
+            Map.Entry<Long, Set<CmsUUID>> bucket = buckets.next();
+            // remove the bucket first, sessions updated concurrently will be added to a new bucket
+            synchronized (bucket.getValue()) {
+                if (!m_expiryIndex.remove(bucket.getKey(), bucket.getValue())) {
+                    continue;
+                }
+            }
+            for (CmsUUID sessionId : bucket.getValue()) {
+                CmsSessionInfo sessionInfo = m_sessions.get(sessionId);
+                if (sessionInfo == null) {
+                    // already removed
+                    continue;
+                }
+                if (sessionInfo.isExpired()) {
+                    // session is invalid, remove it
+                    remove(sessionId);
+                } else {
+                    // session has been updated, check it again when it may have expired
+                    addToIndex(m_expiryIndex, getExpiryBucket(sessionInfo), sessionId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a session id to the set stored for the given key in the given index.<p>
+     *
+     * @param index the index
+     * @param key the key
+     * @param sessionId the session id to add
+     */
+    private <K> void addToIndex(ConcurrentMap<K, Set<CmsUUID>> index, K key, CmsUUID sessionId) {
+
+        while (true) {
+            Set<CmsUUID> sessionIds = index.get(key);
+            if (sessionIds == null) {
+                Set<CmsUUID> newSessionIds = Collections.newSetFromMap(new ConcurrentHashMap<CmsUUID, Boolean>());
+                sessionIds = index.putIfAbsent(key, newSessionIds);
+                if (sessionIds == null) {
+                    sessionIds = newSessionIds;
                 }
             }
-        } catch (ConcurrentModificationException ex) {
-            // CME can also be triggered from the Iterator#next() method.
-            // ignore, better luck next time...
-        } finally {
-            // it may be null during shutdown
-            if (m_sessions != null) {
-                // reset session map to "fast" mode
-                m_sessions.setFast(true);
+            synchronized (sessionIds) {
+                if (index.get(key) == sessionIds) {
+                    // the set has not been removed from the index concurrently
+                    sessionIds.add(sessionId);
+                    return;
+                }
             }
         }
     }
 
     /**
-     * Returns all sessions or all sessions matching the user id from the provided Map.<p>
+     * Returns the expiry index bucket of the given session info.<p>
      *
-     * @param allSessions the Map of existing sessions
-     * @param userId the id of the user, if null all sessions will be returned
+     * @param sessionInfo the session info
      *
-     * @return all sessions or all sessions matching the user id from the provided Map
+     * @return the expiry index bucket
      */
-    private List<CmsSessionInfo> getAllSelected(Map<CmsUUID, CmsSessionInfo> allSessions, CmsUUID userId) {
+    private Long getExpiryBucket(CmsSessionInfo sessionInfo) {
 
-        List<CmsSessionInfo> userSessions = new ArrayList<CmsSessionInfo>();
-        Iterator<Map.Entry<CmsUUID, CmsSessionInfo>> i = allSessions.entrySet().iterator();
-        while (i.hasNext()) {
-            Map.Entry<CmsUUID, CmsSessionInfo> entry = i.next();
-            CmsSessionInfo sessionInfo = entry.getValue();
-            if ((sessionInfo != null) && ((userId == null) || userId.equals(sessionInfo.getUserId()))) {
-                // sessionInfo == null may be the case in case of concurrent modification
-                userSessions.add(sessionInfo);
+        long expires = sessionInfo.getTimeUpdated() + (sessionInfo.getMaxInactiveInterval() * 1000L);
+        return Long.valueOf(expires / EXPIRY_BUCKET_MILLIS);
+    }
+
+    /**
+     * Removes a session id from the set stored for the given key in the given index.<p>
+     *
+     * @param index the index
+     * @param key the key
+     * @param sessionId the session id to remove
+     */
+    private <K> void removeFromIndex(ConcurrentMap<K, Set<CmsUUID>> index, K key, CmsUUID sessionId) {
+
+        Set<CmsUUID> sessionIds = index.get(key);
+        if (sessionIds != null) {
+            synchronized (sessionIds) {
+                sessionIds.remove(sessionId);
+                if (sessionIds.isEmpty()) {
+                    index.remove(key, sessionIds);
+                }
             }
         }
-        return userSessions;
     }
 }
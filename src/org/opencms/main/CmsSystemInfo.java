@@ -35,6 +35,7 @@ import org.opencms.util.CmsStringUtil;
 
 import java.io.File;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.TreeMap;
@@ -207,6 +208,9 @@ public class CmsSystemInfo {
     /** The servlet container specific settings. */
     private CmsServletContainerSettings m_servletContainerSettings;
 
+    /** The durations of the startup phases in milliseconds, in the order the phases finished. */
+    private Map<String, Long> m_startupPhaseTimes = Collections.synchronizedMap(new LinkedHashMap<String, Long>());
+
     /** The startup time of this OpenCms instance. */
     private long m_startupTime;
 
@@ -560,6 +564,21 @@ public class CmsSystemInfo {
         return m_servletContainerSettings.getServletPath();
     }
 
+    /**
+     * Returns the durations of the startup phases of this OpenCms instance.<p>
+     *
+     * Some phases run in parallel or finish in the background after the servlet is accepting requests,
+     * so the sum of the durations is not the total startup time.<p>
+     *
+     * @return a map from the startup phase names to their durations in milliseconds
+     */
+    public Map<String, Long> getStartupPhaseTimes() {
+
+        synchronized (m_startupPhaseTimes) {
+            return Collections.unmodifiableMap(new LinkedHashMap<String, Long>(m_startupPhaseTimes));
+        }
+    }
+
     /**
      * Returns the time this OpenCms instance was started in milliseconds.<p>
      *
@@ -733,6 +752,17 @@ public class CmsSystemInfo {
         }
     }
 
+    /**
+     * Records the duration of a finished startup phase.<p>
+     *
+     * @param phase the name of the startup phase
+     * @param time the duration of the startup phase in milliseconds
+     */
+    protected void addStartupPhaseTime(String phase, long time) {
+
+        m_startupPhaseTimes.put(phase, Long.valueOf(time));
+    }
+
     /**
      * Sets the OpenCms web application "WEB-INF" directory path (in the "real" file system).<p>
      *
@@ -336,6 +336,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_SHUTDOWN_TIME_1 = "INIT_SHUTDOWN_TIME_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_STARTUP_PHASE_2 = "INIT_STARTUP_PHASE_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_STARTUP_TIME_1 = "INIT_STARTUP_TIME_1";
 
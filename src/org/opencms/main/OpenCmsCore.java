@@ -121,6 +121,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 import javax.servlet.ServletConfig;
@@ -1380,54 +1383,83 @@ public final class OpenCmsCore {
         }
 
         m_repositoryManager.initializeCms(adminCms);
-        // now initialize the other managers
+        // now initialize the other managers, the time needed for each phase is recorded in the system info
+        long phaseStart = System.currentTimeMillis();
+        FutureTask<Void> searchInit = null;
         try {
             // initialize the scheduler
             m_scheduleManager.initialize(initCmsObject(adminCms));
+            phaseStart = finishStartupPhase("schedule", phaseStart);
 
             // initialize the locale manager
             m_localeManager = systemConfiguration.getLocaleManager();
             m_localeManager.initialize(initCmsObject(adminCms));
+            phaseStart = finishStartupPhase("locale", phaseStart);
 
             // initialize the site manager
             m_siteManager.initialize(initCmsObject(adminCms));
+            phaseStart = finishStartupPhase("site", phaseStart);
 
             // initialize the static export manager
             m_staticExportManager.initialize(initCmsObject(adminCms));
+            phaseStart = finishStartupPhase("staticexport", phaseStart);
 
             // initialize the XML content type manager
             m_xmlContentTypeManager.initialize(initCmsObject(adminCms));
+            phaseStart = finishStartupPhase("xmlcontenttypes", phaseStart);
 
             m_orgUnitManager.initialize(initCmsObject(adminCms));
+            phaseStart = finishStartupPhase("orgunits", phaseStart);
 
             // initialize the module manager
             m_moduleManager.initialize(initCmsObject(adminCms), m_configurationManager);
+            phaseStart = finishStartupPhase("modules", phaseStart);
 
             // initialize the resource manager
             m_resourceManager.initialize(initCmsObject(adminCms));
+            phaseStart = finishStartupPhase("resources", phaseStart);
+
+            // initialize the search manager, this only depends on the resource types
+            // and runs in parallel to the initialization of the remaining managers
+            final CmsObject searchCms = initCmsObject(adminCms);
+            final long searchStart = phaseStart;
+            searchInit = new FutureTask<Void>(new Callable<Void>() {
+
+                public Void call() throws Exception {
+
+                    m_searchManager.initialize(searchCms);
+                    finishStartupPhase("search", searchStart);
+                    return null;
+                }
+            });
+            Thread searchInitThread = new Thread(searchInit, "OpenCms-SearchInit");
+            searchInitThread.setDaemon(true);
+            searchInitThread.start();
 
             // initialize the publish manager
             m_publishManager.setPublishEngine(m_publishEngine);
             m_publishManager.setSecurityManager(m_securityManager);
             m_publishManager.setPublishListRemoveMode(systemConfiguration.getPublishListRemoveMode());
             m_publishManager.initialize(initCmsObject(adminCms));
-
-            // initialize the search manager
-            m_searchManager.initialize(initCmsObject(adminCms));
+            phaseStart = finishStartupPhase("publish", phaseStart);
 
             // initialize the VFS bundle manager
             m_vfsBundleManager = new CmsVfsBundleManager(adminCms);
+            phaseStart = finishStartupPhase("vfsbundles", phaseStart);
 
             // initialize the workplace manager
             m_workplaceManager.initialize(initCmsObject(adminCms));
+            phaseStart = finishStartupPhase("workplace", phaseStart);
 
             // initialize the session manager
             m_sessionManager.initialize(sessionStorageProvider);
             m_sessionManager.setUserSessionMode(systemConfiguration.getUserSessionMode(true));
+            phaseStart = finishStartupPhase("sessions", phaseStart);
 
             // initialize the subscription manager
             m_subscriptionManager.setSecurityManager(m_securityManager);
-            m_subscriptionManager.initialize(adminCms);
+            m_subscriptionManager.initialize(initCmsObject(adminCms));
+            phaseStart = finishStartupPhase("subscriptions", phaseStart);
 
             // initialize ade manager
             // initialize the formatter configuration
@@ -1439,14 +1471,33 @@ public final class OpenCmsCore {
             m_workplaceAppManager = new CmsWorkplaceAppManager(initCmsObject(adminCms));
             m_workplaceAppManager.loadApps();
             m_templateContextManager = new CmsTemplateContextManager(initCmsObject(adminCms));
+            phaseStart = finishStartupPhase("ade", phaseStart);
+
             m_workflowManager = systemConfiguration.getWorkflowManager();
             if (m_workflowManager == null) {
                 m_workflowManager = new CmsDefaultWorkflowManager();
                 m_workflowManager.setParameters(new HashMap<String, String>());
             }
             m_workflowManager.initialize(initCmsObject(adminCms));
+            phaseStart = finishStartupPhase("workflow", phaseStart);
+
+            m_memoryMonitor.initializeCacheWarmer(initCmsObject(adminCms));
+
+            // wait for the search manager before the system is made available
+            searchInit.get();
         } catch (CmsException e) {
             throw new CmsInitException(Messages.get().container(Messages.ERR_CRITICAL_INIT_MANAGERS_0), e);
+        } catch (ExecutionException e) {
+            throw new CmsInitException(
+                Messages.get().container(Messages.ERR_CRITICAL_INIT_MANAGERS_0),
+                e.getCause());
+        } catch (InterruptedException e) {
+            throw new CmsInitException(Messages.get().container(Messages.ERR_CRITICAL_INIT_MANAGERS_0), e);
+        } finally {
+            if ((searchInit != null) && !searchInit.isDone()) {
+                // initialization of the other managers failed
+                searchInit.cancel(true);
+            }
         }
 
         try {
@@ -1924,6 +1975,15 @@ public final class OpenCmsCore {
                     CmsLog.INIT.error(e.getLocalizedMessage(), e);
                 }
 
+                try {
+                    // has to be stopped before the security manager, since pending visits are written through it
+                    if (m_subscriptionManager != null) {
+                        m_subscriptionManager.shutDown();
+                    }
+                } catch (Throwable e) {
+                    CmsLog.INIT.error(e.getLocalizedMessage(), e);
+                }
+
                 try {
                     // has to be stopped before the security manager, since this thread uses it
                     if (m_threadStore != null) {
@@ -2157,6 +2217,21 @@ public final class OpenCmsCore {
 
         // everything is initialized, now start publishing
         m_publishManager.startPublishing();
+
+        if (getRunLevel() == OpenCms.RUNLEVEL_4_SERVLET_ACCESS) {
+            // fill the ADE configuration caches in the background, requests needing them wait until this is finished
+            Thread adeInitThread = new Thread(new Runnable() {
+
+                public void run() {
+
+                    long start = System.currentTimeMillis();
+                    m_adeManager.initialize();
+                    finishStartupPhase("adeconfiguration", start);
+                }
+            }, "OpenCms-ADEInit");
+            adeInitThread.setDaemon(true);
+            adeInitThread.start();
+        }
     }
 
     /**
@@ -2258,6 +2333,25 @@ public final class OpenCmsCore {
         }
     }
 
+    /**
+     * Records the duration of a finished startup phase in the system info.<p>
+     *
+     * @param phase the name of the startup phase
+     * @param start the time the startup phase was started
+     *
+     * @return the current time, to be used as start time of the next phase
+     */
+    private long finishStartupPhase(String phase, long start) {
+
+        long now = System.currentTimeMillis();
+        getSystemInfo().addStartupPhaseTime(phase, now - start);
+        if (CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(
+                Messages.get().getBundle().key(Messages.INIT_STARTUP_PHASE_2, phase, Long.valueOf(now - start)));
+        }
+        return now;
+    }
+
     /**
      *
      *
@@ -0,0 +1,242 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.monitor;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A lightweight, bounded access frequency counter for cache keys.<p>
+ *
+ * Recording an access is a single concurrent map lookup and a few atomic increments.
+ * The sketch is trimmed by calling {@link #maintain()} periodically, not while recording, so that a
+ * newly recorded key can collect further hits before it has to compete with the established keys.
+ * Once the number of tracked keys exceeds twice the capacity, only the most frequently used keys are kept.
+ * If more than <code>10 * capacity</code> accesses have been recorded since the last aging, all counters
+ * are halved, so that the counts follow a changing access pattern.<p>
+ *
+ * @since 10.5.0
+ */
+public class CmsAccessSketch {
+
+    /** Orders count snapshots by descending access count. */
+    private static final Comparator<Map.Entry<String, Integer>> BY_COUNT_DESC = new Comparator<Map.Entry<String, Integer>>() {
+
+        public int compare(Map.Entry<String, Integer> o1, Map.Entry<String, Integer> o2) {
+
+            return o2.getValue().compareTo(o1.getValue());
+        }
+    };
+
+    /** The number of keys kept when the sketch is trimmed. */
+    private int m_capacity;
+
+    /** The access counters by key. */
+    private ConcurrentHashMap<String, AtomicInteger> m_counters;
+
+    /** The number of accesses recorded since the counters were last halved. */
+    private AtomicInteger m_hits;
+
+    /** Flag indicating that the counters are currently maintained. */
+    private AtomicBoolean m_maintaining;
+
+    /** The number of tracked keys, maintained separately to avoid the costly map size calculation. */
+    private AtomicInteger m_size;
+
+    /**
+     * Creates a new access sketch.<p>
+     *
+     * @param capacity the number of keys to keep when the sketch is trimmed
+     */
+    public CmsAccessSketch(int capacity) {
+
+        m_capacity = Math.max(1, capacity);
+        m_counters = new ConcurrentHashMap<String, AtomicInteger>(m_capacity);
+        m_hits = new AtomicInteger(0);
+        m_maintaining = new AtomicBoolean(false);
+        m_size = new AtomicInteger(0);
+    }
+
+    /**
+     * Removes all tracked keys.<p>
+     */
+    public void clear() {
+
+        m_counters.clear();
+        m_size.set(0);
+        m_hits.set(0);
+    }
+
+    /**
+     * Returns the access count of the given key.<p>
+     *
+     * @param key the key
+     *
+     * @return the access count, or <code>0</code> if the key is not tracked
+     */
+    public int getCount(String key) {
+
+        AtomicInteger counter = m_counters.get(key);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * Returns the most frequently accessed keys, most frequent first.<p>
+     *
+     * @param max the maximum number of keys to return
+     *
+     * @return the most frequently accessed keys
+     */
+    public List<String> getTopKeys(int max) {
+
+        List<Map.Entry<String, Integer>> entries = sortedSnapshot();
+        int size = Math.min(max, entries.size());
+        List<String> result = new ArrayList<String>(Math.max(size, 0));
+        for (int i = 0; i < size; i++) {
+            result.add(entries.get(i).getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Halves all counters if enough accesses have been recorded since they were last halved,
+     * drops keys without remaining hits and trims the sketch down to its capacity if it has grown
+     * beyond twice its capacity.<p>
+     *
+     * Only one thread maintains the counters, concurrent callers return immediately.<p>
+     */
+    public void maintain() {
+
+        if (!m_maintaining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (m_hits.get() > (10 * m_capacity)) {
+                m_hits.set(0);
+                Iterator<Map.Entry<String, AtomicInteger>> it = m_counters.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<String, AtomicInteger> entry = it.next();
+                    AtomicInteger counter = entry.getValue();
+                    int count;
+                    int halved;
+                    do {
+                        count = counter.get();
+                        halved = count >> 1;
+                    } while (!counter.compareAndSet(count, halved));
+                    if ((halved == 0) && m_counters.remove(entry.getKey(), counter)) {
+                        m_size.decrementAndGet();
+                    }
+                }
+            }
+            if (m_size.get() > (2 * m_capacity)) {
+                List<Map.Entry<String, Integer>> entries = sortedSnapshot();
+                for (int i = m_capacity; i < entries.size(); i++) {
+                    if (m_counters.remove(entries.get(i).getKey()) != null) {
+                        m_size.decrementAndGet();
+                    }
+                }
+            }
+        } finally {
+            m_maintaining.set(false);
+        }
+    }
+
+    /**
+     * Records an access to the given key.<p>
+     *
+     * @param key the accessed key
+     */
+    public void record(String key) {
+
+        if (key == null) {
+            return;
+        }
+        AtomicInteger counter = m_counters.get(key);
+        if (counter == null) {
+            AtomicInteger newCounter = new AtomicInteger(0);
+            counter = m_counters.putIfAbsent(key, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+                m_size.incrementAndGet();
+            }
+        }
+        counter.incrementAndGet();
+        m_hits.incrementAndGet();
+    }
+
+    /**
+     * Stops tracking the given key.<p>
+     *
+     * @param key the key to remove
+     */
+    public void remove(String key) {
+
+        if (m_counters.remove(key) != null) {
+            m_size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of tracked keys.<p>
+     *
+     * @return the number of tracked keys
+     */
+    public int size() {
+
+        return m_size.get();
+    }
+
+    /**
+     * Returns a snapshot of the tracked keys and their counts, ordered by descending access count.<p>
+     *
+     * The counts are copied first since sorting on live counters could see them change during the sort.<p>
+     *
+     * @return the ordered snapshot
+     */
+    private List<Map.Entry<String, Integer>> sortedSnapshot() {
+
+        List<Map.Entry<String, Integer>> entries = new ArrayList<Map.Entry<String, Integer>>(m_size.get());
+        for (Map.Entry<String, AtomicInteger> entry : m_counters.entrySet()) {
+            entries.add(
+                new AbstractMap.SimpleImmutableEntry<String, Integer>(
+                    entry.getKey(),
+                    Integer.valueOf(entry.getValue().get())));
+        }
+        Collections.sort(entries, BY_COUNT_DESC);
+        return entries;
+    }
+}
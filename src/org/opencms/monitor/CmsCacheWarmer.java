@@ -0,0 +1,406 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.monitor;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.CmsVfsResourceNotFoundException;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Refills the online resource and property list caches after a publish operation.<p>
+ *
+ * Publishing clears the caches of the memory monitor, so the first visitors after a publish
+ * would have to read everything from the database again. This class keeps track of the online
+ * resources and property lists requested most often, and replays these reads on a single
+ * low priority thread as soon as a publish has finished. The number of replayed reads
+ * and the time spent are limited by the memory monitor configuration.<p>
+ *
+ * Request threads only sample the reads into a bounded queue. The same low priority thread
+ * periodically moves the queued reads into the access sketches and trims them.<p>
+ *
+ * @since 10.5.0
+ */
+public class CmsCacheWarmer implements I_CmsEventListener {
+
+    /** The interval in seconds in which the sampled reads are added to the access sketches. */
+    public static final int DRAIN_INTERVAL = 5;
+
+    /** The maximum number of sampled reads waiting to be added to the access sketches. */
+    public static final int MAX_QUEUED_READS = 10000;
+
+    /** Only one of this number of reads is sampled. */
+    public static final int SAMPLE_RATE = 8;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsCacheWarmer.class);
+
+    /** Key prefix for property lists read with parent folder search. */
+    private static final char PREFIX_SEARCH = '+';
+
+    /** Key prefix for property lists read without parent folder search. */
+    private static final char PREFIX_NO_SEARCH = '-';
+
+    /** The admin context used to replay the reads. */
+    private CmsObject m_cms;
+
+    /** The executor running the warm up and the maintenance of the access sketches. */
+    private ScheduledThreadPoolExecutor m_executor;
+
+    /** The number of reads replayed by the last warm up. */
+    private volatile int m_lastWarmupCount;
+
+    /** The duration of the last warm up in milliseconds. */
+    private volatile long m_lastWarmupTime;
+
+    /** The maximum number of reads to replay per warm up. */
+    private int m_maxEntries;
+
+    /** The maximum time to spend per warm up in milliseconds. */
+    private long m_maxTime;
+
+    /** Flag indicating that a warm up is already waiting for execution. */
+    private AtomicBoolean m_pending;
+
+    /** The sampled property list reads not yet added to the access sketch. */
+    private Queue<String> m_propertyListReads;
+
+    /** The access sketch for property lists. */
+    private CmsAccessSketch m_propertyListSketch;
+
+    /** The number of sampled reads not yet added to the access sketches. */
+    private AtomicInteger m_queuedReads;
+
+    /** The sampled resource reads not yet added to the access sketch. */
+    private Queue<String> m_resourceReads;
+
+    /** The access sketch for resources. */
+    private CmsAccessSketch m_resourceSketch;
+
+    /** The thread currently running the warm up, its reads are not recorded. */
+    private volatile Thread m_warmupThread;
+
+    /**
+     * Creates a new cache warmer.<p>
+     *
+     * @param maxEntries the maximum number of reads to replay per warm up
+     * @param maxTime the maximum time to spend per warm up in seconds
+     */
+    public CmsCacheWarmer(int maxEntries, int maxTime) {
+
+        m_maxEntries = maxEntries;
+        m_maxTime = maxTime * 1000L;
+        m_pending = new AtomicBoolean(false);
+        m_queuedReads = new AtomicInteger(0);
+        m_resourceReads = new ConcurrentLinkedQueue<String>();
+        m_propertyListReads = new ConcurrentLinkedQueue<String>();
+        m_resourceSketch = new CmsAccessSketch(maxEntries);
+        m_propertyListSketch = new CmsAccessSketch(maxEntries);
+        m_executor = new ScheduledThreadPoolExecutor(
+            1,
+            new ThreadFactoryBuilder().setNameFormat("OpenCms-CacheWarmup-%d").setDaemon(true).setPriority(
+                Thread.MIN_PRIORITY).build());
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    public void cmsEvent(CmsEvent event) {
+
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+                warmUp();
+                break;
+            default:
+                // noop
+        }
+    }
+
+    /**
+     * Returns the number of reads replayed by the last warm up.<p>
+     *
+     * @return the number of reads replayed by the last warm up
+     */
+    public int getLastWarmupCount() {
+
+        return m_lastWarmupCount;
+    }
+
+    /**
+     * Returns the duration of the last warm up in milliseconds.<p>
+     *
+     * @return the duration of the last warm up in milliseconds
+     */
+    public long getLastWarmupTime() {
+
+        return m_lastWarmupTime;
+    }
+
+    /**
+     * Initializes the cache warmer with an admin context and registers it as event listener.<p>
+     *
+     * @param cms an admin context
+     */
+    public void initialize(CmsObject cms) {
+
+        try {
+            m_cms = OpenCms.initCmsObject(cms);
+            m_cms.getRequestContext().setCurrentProject(m_cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+            m_cms.getRequestContext().setSiteRoot("");
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            m_cms = null;
+            return;
+        }
+        m_executor.scheduleWithFixedDelay(new Runnable() {
+
+            @SuppressWarnings("synthetic-access")
+            public void run() {
+
+                updateSketches();
+            }
+        }, DRAIN_INTERVAL, DRAIN_INTERVAL, TimeUnit.SECONDS);
+        OpenCms.addCmsEventListener(this, new int[] {I_CmsEventListener.EVENT_PUBLISH_PROJECT});
+    }
+
+    /**
+     * Records a read of the property list of an online resource.<p>
+     *
+     * Only a sample of the reads is queued, the access sketch is updated later by the warm up thread.<p>
+     *
+     * @param rootPath the root path of the resource
+     * @param search <code>true</code> if the properties were searched on the parent folders
+     */
+    public void recordPropertyListAccess(String rootPath, boolean search) {
+
+        if (sample()) {
+            m_propertyListReads.offer((search ? PREFIX_SEARCH : PREFIX_NO_SEARCH) + rootPath);
+        }
+    }
+
+    /**
+     * Records a read of an online resource.<p>
+     *
+     * Only a sample of the reads is queued, the access sketch is updated later by the warm up thread.<p>
+     *
+     * @param rootPath the root path of the resource
+     */
+    public void recordResourceAccess(String rootPath) {
+
+        if (sample()) {
+            m_resourceReads.offer(rootPath);
+        }
+    }
+
+    /**
+     * Stops the warm up thread.<p>
+     */
+    public void shutdown() {
+
+        m_executor.shutdownNow();
+    }
+
+    /**
+     * Schedules a warm up of the online caches.<p>
+     *
+     * If a warm up is already waiting for execution, no further warm up is scheduled.<p>
+     */
+    public void warmUp() {
+
+        if ((m_cms == null) || (m_maxEntries <= 0) || !m_pending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            m_executor.execute(new Runnable() {
+
+                @SuppressWarnings("synthetic-access")
+                public void run() {
+
+                    m_pending.set(false);
+                    updateSketches();
+                    m_warmupThread = Thread.currentThread();
+                    try {
+                        replay();
+                    } finally {
+                        m_warmupThread = null;
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the system is shutting down
+            m_pending.set(false);
+        }
+    }
+
+    /**
+     * Replays the most frequently requested reads, alternating between resources and
+     * property lists until the configured budget is used up.<p>
+     */
+    protected void replay() {
+
+        if (OpenCms.getMemoryMonitor().lowMemory()) {
+            return;
+        }
+        CmsObject cms;
+        try {
+            cms = OpenCms.initCmsObject(m_cms);
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long deadline = start + m_maxTime;
+        List<String> resources = m_resourceSketch.getTopKeys(m_maxEntries);
+        List<String> propertyLists = m_propertyListSketch.getTopKeys(m_maxEntries);
+        int count = 0;
+        int i = 0;
+        while ((count < m_maxEntries) && ((i < resources.size()) || (i < propertyLists.size()))) {
+            if (System.currentTimeMillis() > deadline) {
+                break;
+            }
+            if (i < resources.size()) {
+                replayResource(cms, resources.get(i));
+                count++;
+            }
+            if ((i < propertyLists.size()) && (count < m_maxEntries)) {
+                replayPropertyList(cms, propertyLists.get(i));
+                count++;
+            }
+            i++;
+        }
+        m_lastWarmupCount = count;
+        m_lastWarmupTime = System.currentTimeMillis() - start;
+        if (LOG.isInfoEnabled()) {
+            LOG.info(
+                Messages.get().getBundle().key(
+                    Messages.LOG_CACHE_WARMUP_FINISHED_2,
+                    String.valueOf(m_lastWarmupCount),
+                    String.valueOf(m_lastWarmupTime)));
+        }
+    }
+
+    /**
+     * Moves the sampled reads into the access sketches and trims the sketches.<p>
+     *
+     * This is only called on the warm up thread.<p>
+     */
+    protected void updateSketches() {
+
+        String key;
+        while ((key = m_resourceReads.poll()) != null) {
+            m_queuedReads.decrementAndGet();
+            m_resourceSketch.record(key);
+        }
+        while ((key = m_propertyListReads.poll()) != null) {
+            m_queuedReads.decrementAndGet();
+            m_propertyListSketch.record(key);
+        }
+        m_resourceSketch.maintain();
+        m_propertyListSketch.maintain();
+    }
+
+    /**
+     * Reads the property list stored under the given sketch key.<p>
+     *
+     * @param cms the admin context
+     * @param key the sketch key
+     */
+    private void replayPropertyList(CmsObject cms, String key) {
+
+        try {
+            cms.readPropertyObjects(key.substring(1), key.charAt(0) == PREFIX_SEARCH);
+        } catch (CmsVfsResourceNotFoundException e) {
+            // the resource has been deleted or moved
+            m_propertyListSketch.remove(key);
+        } catch (CmsException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_CACHE_WARMUP_FAILED_1, key), e);
+            }
+        }
+    }
+
+    /**
+     * Reads the resource with the given root path.<p>
+     *
+     * @param cms the admin context
+     * @param rootPath the root path of the resource
+     */
+    private void replayResource(CmsObject cms, String rootPath) {
+
+        try {
+            cms.readResource(rootPath, CmsResourceFilter.ALL);
+        } catch (CmsVfsResourceNotFoundException e) {
+            // the resource has been deleted or moved
+            m_resourceSketch.remove(rootPath);
+        } catch (CmsException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_CACHE_WARMUP_FAILED_1, rootPath), e);
+            }
+        }
+    }
+
+    /**
+     * Decides if the current read is sampled, and reserves a place in the read queue if so.<p>
+     *
+     * Reads of the warm up thread itself are never sampled.<p>
+     *
+     * @return <code>true</code> if the current read should be queued
+     */
+    private boolean sample() {
+
+        if ((ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0) || (Thread.currentThread() == m_warmupThread)) {
+            return false;
+        }
+        if (m_queuedReads.incrementAndGet() > MAX_QUEUED_READS) {
+            // the warm up thread is behind, drop the read
+            m_queuedReads.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+}
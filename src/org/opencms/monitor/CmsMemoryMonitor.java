@@ -171,6 +171,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** Cache for access control lists. */
     private Map<String, CmsAccessControlList> m_cacheAccessControlList;
 
+    /** The warmer refilling the online caches after publishing. */
+    private CmsCacheWarmer m_cacheWarmer;
+
     /** A temporary cache for XML content definitions. */
     private Map<String, CmsXmlContentDefinition> m_cacheContentDefinitions;
 
@@ -1406,6 +1409,16 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         return new ArrayList<CmsPublishJobInfoBean>(m_publishHistory);
     }
 
+    /**
+     * Returns the warmer refilling the online caches after publishing.<p>
+     *
+     * @return the cache warmer, or <code>null</code> if the cache warm up is disabled
+     */
+    public CmsCacheWarmer getCacheWarmer() {
+
+        return m_cacheWarmer;
+    }
+
     /**
      * Returns the ACL cached with the given cache key or <code>null</code> if not found.<p>
      *
@@ -1819,6 +1832,14 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     new Integer(m_intervalWarning / 1000)));
             CmsLog.INIT.info(
                 Messages.get().getBundle().key(Messages.LOG_MM_INTERVAL_MAX_USAGE_1, new Integer(m_maxUsagePercent)));
+            CmsLog.INIT.info(
+                Messages.get().getBundle().key(
+                    Messages.LOG_MM_WARMUP_ENTRIES_1,
+                    new Integer(m_configuration.getWarmupEntries())));
+            CmsLog.INIT.info(
+                Messages.get().getBundle().key(
+                    Messages.LOG_MM_WARMUP_TIME_1,
+                    new Integer(m_configuration.getWarmupTime())));
 
             if ((m_configuration.getEmailReceiver() == null) || (m_configuration.getEmailSender() == null)) {
                 CmsLog.INIT.info(Messages.get().getBundle().key(Messages.LOG_MM_EMAIL_DISABLED_0));
@@ -1940,12 +1961,31 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheMemObject = new ConcurrentHashMap<String, Object>();
         register(CmsMemoryObjectCache.class.getName(), m_cacheMemObject);
 
+        // the online cache warm up after publishing
+        if (m_configuration.getWarmupEntries() > 0) {
+            m_cacheWarmer = new CmsCacheWarmer(m_configuration.getWarmupEntries(), m_configuration.getWarmupTime());
+        }
+
         if (LOG.isDebugEnabled()) {
             // this will happen only once during system startup
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_MM_CREATED_1, new Date(System.currentTimeMillis())));
         }
     }
 
+    /**
+     * Initializes the warmer refilling the online caches after publishing.<p>
+     *
+     * This has to be called once an admin context is available.<p>
+     *
+     * @param cms an admin context
+     */
+    public void initializeCacheWarmer(CmsObject cms) {
+
+        if (m_cacheWarmer != null) {
+            m_cacheWarmer.initialize(cms);
+        }
+    }
+
     /**
      * Checks if the property cache is enabled.<p>
      *
@@ -2078,6 +2118,31 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         return ((m_maxUsagePercent > 0) && (m_memoryCurrent.getUsage() > m_maxUsagePercent));
     }
 
+    /**
+     * Records a read of the property list of an online resource for the cache warm up.<p>
+     *
+     * @param rootPath the root path of the resource
+     * @param search <code>true</code> if the properties were searched on the parent folders
+     */
+    public void recordPropertyListAccess(String rootPath, boolean search) {
+
+        if (m_cacheWarmer != null) {
+            m_cacheWarmer.recordPropertyListAccess(rootPath, search);
+        }
+    }
+
+    /**
+     * Records a read of an online resource for the cache warm up.<p>
+     *
+     * @param rootPath the root path of the resource
+     */
+    public void recordResourceAccess(String rootPath) {
+
+        if (m_cacheWarmer != null) {
+            m_cacheWarmer.recordResourceAccess(rootPath);
+        }
+    }
+
     /**
      * Adds a new object to the monitor.<p>
      *
@@ -2178,6 +2243,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public void shutdown() throws Exception {
 
+        if (m_cacheWarmer != null) {
+            m_cacheWarmer.shutdown();
+        }
         for (CacheType type : CacheType.values()) {
             flushCache(type);
         }
@@ -40,6 +40,12 @@ import java.util.List;
  */
 public class CmsMemoryMonitorConfiguration {
 
+    /** The default maximum number of reads replayed by the cache warm up. */
+    public static final int DEFAULT_WARMUP_ENTRIES = 500;
+
+    /** The default maximum time for the cache warm up in seconds. */
+    public static final int DEFAULT_WARMUP_TIME = 30;
+
     /** The memory monitor class name. */
     private String m_className;
 
@@ -58,6 +64,12 @@ public class CmsMemoryMonitorConfiguration {
     /** Memory limit that triggers a warning. */
     private int m_maxUsagePercent;
 
+    /** The maximum number of reads replayed by the cache warm up after publishing. */
+    private int m_warmupEntries = DEFAULT_WARMUP_ENTRIES;
+
+    /** The maximum time for the cache warm up after publishing in seconds. */
+    private int m_warmupTime = DEFAULT_WARMUP_TIME;
+
     /** The interval to use for warnings if status is disabled. */
     private int m_warningInterval;
 
@@ -140,6 +152,28 @@ public class CmsMemoryMonitorConfiguration {
         return m_maxUsagePercent;
     }
 
+    /**
+     * Returns the maximum number of reads replayed by the cache warm up after publishing.<p>
+     *
+     * A value of <code>0</code> disables the cache warm up.<p>
+     *
+     * @return the maximum number of reads replayed by the cache warm up
+     */
+    public int getWarmupEntries() {
+
+        return m_warmupEntries;
+    }
+
+    /**
+     * Returns the maximum time for the cache warm up after publishing in seconds.<p>
+     *
+     * @return the maximum time for the cache warm up in seconds
+     */
+    public int getWarmupTime() {
+
+        return m_warmupTime;
+    }
+
     /**
      * Returns the intervalWarning.<p>
      *
@@ -189,4 +223,24 @@ public class CmsMemoryMonitorConfiguration {
 
         m_emailSender = emailSender;
     }
+
+    /**
+     * Sets the maximum number of reads replayed by the cache warm up after publishing.<p>
+     *
+     * @param warmupEntries the maximum number of reads to set
+     */
+    public void setWarmupEntries(String warmupEntries) {
+
+        m_warmupEntries = Integer.parseInt(warmupEntries.trim());
+    }
+
+    /**
+     * Sets the maximum time for the cache warm up after publishing in seconds.<p>
+     *
+     * @param warmupTime the maximum time to set
+     */
+    public void setWarmupTime(String warmupTime) {
+
+        m_warmupTime = Integer.parseInt(warmupTime.trim());
+    }
 }
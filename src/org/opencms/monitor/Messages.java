@@ -37,6 +37,12 @@ import org.opencms.i18n.I_CmsMessageBundle;
  */
 public final class Messages extends A_CmsMessageBundle {
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_CACHE_WARMUP_FAILED_1 = "LOG_CACHE_WARMUP_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_CACHE_WARMUP_FINISHED_2 = "LOG_CACHE_WARMUP_FINISHED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CAUGHT_THROWABLE_1 = "LOG_CAUGHT_THROWABLE_1";
 
@@ -85,6 +91,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_STATUS_EMAIL_SENT_0 = "LOG_MM_STATUS_EMAIL_SENT_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_MM_WARMUP_ENTRIES_1 = "LOG_MM_WARMUP_ENTRIES_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_MM_WARMUP_TIME_1 = "LOG_MM_WARMUP_TIME_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_WARNING_EMAIL_SENT_0 = "LOG_MM_WARNING_EMAIL_SENT_0";
 
@@ -33,32 +33,159 @@ import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.types.CmsResourceTypePointer;
 import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.report.CmsLogReport;
 import org.opencms.report.I_CmsReport;
 import org.opencms.scheduler.I_CmsScheduledJob;
 import org.opencms.util.CmsUriSplitter;
 
+import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Class to validate pointer links.<p>
  *
+ * The external http links are checked concurrently, with a limited number of connections in total and per host.
+ * The results are cached for {@link #URL_CACHE_MINUTES} minutes, so links used in several pointers or checked
+ * again shortly after are not requested twice.<p>
+ *
  * @since 6.0.0
  */
 public class CmsExternalLinksValidator implements I_CmsScheduledJob {
 
+    /**
+     * Task checking a single http URL, limited by the permits of the URL's host.<p>
+     */
+    private static class CheckUrlTask implements Callable<Boolean> {
+
+        /** The permits of the URL's host. */
+        private Semaphore m_hostPermits;
+
+        /** The connect and read timeout in milliseconds. */
+        private int m_timeout;
+
+        /** The URL to check. */
+        private URL m_url;
+
+        /**
+         * Creates a new task.<p>
+         *
+         * @param url the URL to check
+         * @param hostPermits the permits of the URL's host
+         * @param timeout the connect and read timeout in milliseconds
+         */
+        CheckUrlTask(URL url, Semaphore hostPermits, int timeout) {
+
+            m_url = url;
+            m_hostPermits = hostPermits;
+            m_timeout = timeout;
+        }
+
+        /**
+         * @see java.util.concurrent.Callable#call()
+         */
+        public Boolean call() throws InterruptedException {
+
+            m_hostPermits.acquire();
+            try {
+                return Boolean.valueOf(checkHttpUrl(m_url, m_timeout));
+            } finally {
+                m_hostPermits.release();
+            }
+        }
+    }
+
+    /** The default number of links checked concurrently. */
+    public static final int DEFAULT_THREADS = 10;
+
+    /** The default number of links checked concurrently on the same host. */
+    public static final int DEFAULT_THREADS_PER_HOST = 2;
+
+    /** The default connect and read timeout in milliseconds. */
+    public static final int DEFAULT_TIMEOUT = 10000;
+
+    /** Scheduler parameter for the number of links checked concurrently. */
+    public static final String PARAM_THREADS = "threads";
+
+    /** Scheduler parameter for the number of links checked concurrently on the same host. */
+    public static final String PARAM_THREADS_PER_HOST = "threadsPerHost";
+
+    /** Scheduler parameter for the connect and read timeout in milliseconds. */
+    public static final String PARAM_TIMEOUT = "timeout";
+
+    /** The number of minutes a link check result is cached. */
+    public static final int URL_CACHE_MINUTES = 60;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsExternalLinksValidator.class);
+
+    /** The cached link check results by URL. */
+    private static final Cache<String, Boolean> URL_CACHE = CacheBuilder.newBuilder().expireAfterWrite(
+        URL_CACHE_MINUTES,
+        TimeUnit.MINUTES).maximumSize(100000).build();
+
     /** The report for the output. */
     private I_CmsReport m_report;
 
+    /** The number of links checked concurrently. */
+    private int m_threads = DEFAULT_THREADS;
+
+    /** The number of links checked concurrently on the same host. */
+    private int m_threadsPerHost = DEFAULT_THREADS_PER_HOST;
+
+    /** The connect and read timeout in milliseconds. */
+    private int m_timeout = DEFAULT_TIMEOUT;
+
+    /**
+     * Checks if the given http URL can be accessed.<p>
+     *
+     * A HEAD request is tried first. As some servers do not support HEAD requests correctly,
+     * a GET request is sent if the HEAD request fails.<p>
+     *
+     * @param url the http URL to check
+     * @param timeout the connect and read timeout in milliseconds
+     *
+     * @return false if the URL could not be accessed
+     */
+    public static boolean checkHttpUrl(URL url, int timeout) {
+
+        try {
+            if (isSuccess(getResponseCode(url, "HEAD", timeout))) {
+                return true;
+            }
+            return isSuccess(getResponseCode(url, "GET", timeout));
+        } catch (Exception e) {
+            LOG.debug(e.getLocalizedMessage(), e);
+            return false;
+        }
+    }
+
     /**
      * Checks if the given url is valid.<p>
      *
@@ -82,11 +209,7 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
             } else {
                 URL url = uri.toURL();
                 if ("http".equals(url.getProtocol())) {
-                    // ensure that file is encoded properly
-                    HttpURLConnection httpcon = (HttpURLConnection)url.openConnection();
-                    int responseCode = httpcon.getResponseCode();
-                    // accepting all status codes 2xx success and 3xx - redirect
-                    return ((responseCode >= 200) && (responseCode < 400));
+                    return checkHttpUrl(url, DEFAULT_TIMEOUT);
                 } else {
                     return true;
                 }
@@ -98,6 +221,86 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
         }
     }
 
+    /**
+     * Returns the http URL the given link points to, or <code>null</code> if the link is not an absolute http link.<p>
+     *
+     * @param check the link to check
+     *
+     * @return the http URL, or <code>null</code>
+     */
+    public static URL getHttpUrl(String check) {
+
+        try {
+            URI uri = new CmsUriSplitter(check, true).toURI();
+            if (uri.isAbsolute()) {
+                URL url = uri.toURL();
+                if ("http".equals(url.getProtocol())) {
+                    return url;
+                }
+            }
+        } catch (URISyntaxException e) {
+            // not a valid link
+        } catch (MalformedURLException e) {
+            // not a valid link
+        } catch (IllegalArgumentException e) {
+            // not a valid link
+        }
+        return null;
+    }
+
+    /**
+     * Checks the given http URLs concurrently.<p>
+     *
+     * @param urls the http URLs to check
+     *
+     * @return the check results by URL, in the order of the given URLs
+     */
+    public Map<String, Boolean> checkUrls(Collection<URL> urls) {
+
+        Map<String, Boolean> result = new LinkedHashMap<String, Boolean>();
+        Map<String, Future<Boolean>> pending = new LinkedHashMap<String, Future<Boolean>>();
+        Map<String, Semaphore> hostPermits = new HashMap<String, Semaphore>();
+        ExecutorService executor = Executors.newFixedThreadPool(
+            Math.max(1, m_threads),
+            new ThreadFactoryBuilder().setNameFormat("OpenCms-LinkValidator-%d").setDaemon(true).build());
+        try {
+            for (URL url : urls) {
+                String key = url.toExternalForm();
+                if (result.containsKey(key) || pending.containsKey(key)) {
+                    continue;
+                }
+                Boolean cached = URL_CACHE.getIfPresent(key);
+                if (cached != null) {
+                    result.put(key, cached);
+                    continue;
+                }
+                String host = url.getHost() + ":" + url.getPort();
+                Semaphore permits = hostPermits.get(host);
+                if (permits == null) {
+                    permits = new Semaphore(Math.max(1, m_threadsPerHost));
+                    hostPermits.put(host, permits);
+                }
+                pending.put(key, executor.submit(new CheckUrlTask(url, permits, m_timeout)));
+            }
+            for (Map.Entry<String, Future<Boolean>> entry : pending.entrySet()) {
+                Boolean valid;
+                try {
+                    valid = entry.getValue().get();
+                } catch (ExecutionException e) {
+                    LOG.debug(e.getLocalizedMessage(), e);
+                    valid = Boolean.FALSE;
+                }
+                URL_CACHE.put(entry.getKey(), valid);
+                result.put(entry.getKey(), valid);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
     /**
      * This method is called by the cron scheduler.<p>
      *
@@ -111,6 +314,9 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
         if (Boolean.valueOf(parameters.get("writeLog")).booleanValue()) {
             m_report = new CmsLogReport(cms.getRequestContext().getLocale(), CmsExternalLinksValidator.class);
         }
+        m_threads = getIntParameter(parameters, PARAM_THREADS, DEFAULT_THREADS);
+        m_threadsPerHost = getIntParameter(parameters, PARAM_THREADS_PER_HOST, DEFAULT_THREADS_PER_HOST);
+        m_timeout = getIntParameter(parameters, PARAM_TIMEOUT, DEFAULT_TIMEOUT);
         validateLinks(cms);
         return "CmsExternLinkValidator.launch(): Links checked.";
     }
@@ -125,6 +331,36 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
         m_report = report;
     }
 
+    /**
+     * Sets the number of links checked concurrently.<p>
+     *
+     * @param threads the number of links checked concurrently
+     */
+    public void setThreads(int threads) {
+
+        m_threads = threads;
+    }
+
+    /**
+     * Sets the number of links checked concurrently on the same host.<p>
+     *
+     * @param threadsPerHost the number of links checked concurrently on the same host
+     */
+    public void setThreadsPerHost(int threadsPerHost) {
+
+        m_threadsPerHost = threadsPerHost;
+    }
+
+    /**
+     * Sets the connect and read timeout in milliseconds.<p>
+     *
+     * @param timeout the connect and read timeout in milliseconds
+     */
+    public void setTimeout(int timeout) {
+
+        m_timeout = timeout;
+    }
+
     /**
      * Validate all links.<p>
      *
@@ -149,11 +385,23 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
             CmsResourceTypePointer.getStaticTypeName()).getTypeId();
         CmsResourceFilter filter = CmsResourceFilter.ONLY_VISIBLE_NO_DELETED.addRequireType(pointerId);
         List<CmsResource> links = cms.readResources("/", filter);
-        Iterator<CmsResource> iterator = links.iterator();
         Map<String, String> brokenLinks = new HashMap<String, String>();
 
-        for (int i = 1; iterator.hasNext(); i++) {
-            CmsFile link = cms.readFile(cms.getSitePath(iterator.next()), filter);
+        // read all link targets first and check the external ones concurrently
+        List<CmsFile> linkFiles = new ArrayList<CmsFile>(links.size());
+        Set<URL> httpUrls = new LinkedHashSet<URL>();
+        for (CmsResource resource : links) {
+            CmsFile link = cms.readFile(cms.getSitePath(resource), filter);
+            linkFiles.add(link);
+            URL httpUrl = getHttpUrl(new String(link.getContents()));
+            if (httpUrl != null) {
+                httpUrls.add(httpUrl);
+            }
+        }
+        Map<String, Boolean> httpResults = checkUrls(httpUrls);
+
+        for (int i = 1; i <= linkFiles.size(); i++) {
+            CmsFile link = linkFiles.get(i - 1);
             String linkUrl = new String(link.getContents());
 
             // print to the report
@@ -174,7 +422,11 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
             m_report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
 
             // check link and append it to the list of broken links, if test fails
-            if (!checkUrl(cms, linkUrl)) {
+            URL httpUrl = getHttpUrl(linkUrl);
+            boolean valid = httpUrl != null
+            ? Boolean.TRUE.equals(httpResults.get(httpUrl.toExternalForm()))
+            : checkUrl(cms, linkUrl);
+            if (!valid) {
                 brokenLinks.put(link.getRootPath(), linkUrl);
                 m_report.println(Messages.get().container(Messages.RPT_BROKEN_0), I_CmsReport.FORMAT_ERROR);
             } else {
@@ -196,4 +448,62 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
 
         OpenCms.getLinkManager().setPointerLinkValidationResult(new CmsExternalLinksValidationResult(brokenLinks));
     }
+
+    /**
+     * Reads an integer scheduler parameter.<p>
+     *
+     * @param parameters the scheduler parameters
+     * @param name the parameter name
+     * @param defaultValue the value to use if the parameter is not set or invalid
+     *
+     * @return the parameter value
+     */
+    private int getIntParameter(Map<String, String> parameters, String name, int defaultValue) {
+
+        String value = parameters.get(name);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Returns the response code of a request with the given method to the URL.<p>
+     *
+     * @param url the URL to request
+     * @param method the request method
+     * @param timeout the connect and read timeout in milliseconds
+     *
+     * @return the response code
+     *
+     * @throws IOException if the URL could not be accessed
+     */
+    private static int getResponseCode(URL url, String method, int timeout) throws IOException {
+
+        HttpURLConnection httpcon = (HttpURLConnection)url.openConnection();
+        try {
+            httpcon.setRequestMethod(method);
+            httpcon.setConnectTimeout(timeout);
+            httpcon.setReadTimeout(timeout);
+            return httpcon.getResponseCode();
+        } finally {
+            httpcon.disconnect();
+        }
+    }
+
+    /**
+     * Checks if the response code means the URL could be accessed.<p>
+     *
+     * @param responseCode the response code
+     *
+     * @return true for all 2xx success and 3xx redirect codes
+     */
+    private static boolean isSuccess(int responseCode) {
+
+        return (responseCode >= 200) && (responseCode < 400);
+    }
 }
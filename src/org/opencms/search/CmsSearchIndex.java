@@ -66,6 +66,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.lucene.analysis.Analyzer;
@@ -266,8 +267,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     private boolean m_ignoreExpiration;
 
-    /** The Lucene index searcher to use. */
-    private IndexSearcher m_indexSearcher;
+    /** The Lucene index searcher to use, its reader is reference counted by the running searches. */
+    private volatile IndexSearcher m_indexSearcher;
 
     /** The index writer to use. */
     private I_CmsIndexWriter m_indexWriter;
@@ -679,11 +680,15 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     public I_CmsSearchDocument getDocument(int docId) {
 
-        try {
-            IndexSearcher searcher = getSearcher();
-            return new CmsLuceneDocument(searcher.doc(docId));
-        } catch (IOException e) {
-            // ignore, return null and assume document was not found
+        IndexSearcher searcher = acquireSearcher();
+        if (searcher != null) {
+            try {
+                return new CmsLuceneDocument(searcher.doc(docId));
+            } catch (IOException e) {
+                // ignore, return null and assume document was not found
+            } finally {
+                releaseSearcher(searcher);
+            }
         }
         return null;
     }
@@ -716,10 +721,10 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      *
      * @return the first document where the given term matches the selected index field
      */
-    public synchronized I_CmsSearchDocument getDocument(String field, String term) {
+    public I_CmsSearchDocument getDocument(String field, String term) {
 
         Document result = null;
-        IndexSearcher searcher = getSearcher();
+        IndexSearcher searcher = acquireSearcher();
         if (searcher != null) {
             // search for an exact match on the selected field
             Term resultTerm = new Term(field, term);
@@ -730,6 +735,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                 }
             } catch (IOException e) {
                 // ignore, return null and assume document was not found
+            } finally {
+                releaseSearcher(searcher);
             }
         }
         if (result != null) {
@@ -952,6 +959,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
     /**
      * Returns the Lucene index searcher used for this search index.<p>
      *
+     * The reader of the returned searcher may be closed as soon as the index is updated.
+     * Use {@link #acquireSearcher()} and {@link #releaseSearcher(IndexSearcher)} to keep it open while searching.<p>
+     *
      * @return the Lucene index searcher used for this search index
      */
     public IndexSearcher getSearcher() {
@@ -1241,7 +1251,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      *
      * @throws CmsSearchException if something goes wrong
      */
-    public synchronized CmsSearchResultList search(CmsObject cms, CmsSearchParameters params)
+    public CmsSearchResultList search(CmsObject cms, CmsSearchParameters params)
     throws CmsSearchException {
 
         long timeTotal = -System.currentTimeMillis();
@@ -1260,6 +1270,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
         int previousPriority = Thread.currentThread().getPriority();
 
+        // the index searcher, its reader is kept open until the search is finished
+        IndexSearcher searcher = null;
+
         try {
             // copy the user OpenCms context
             CmsObject searchCms = OpenCms.initCmsObject(cms);
@@ -1296,9 +1309,14 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             // store separate fields query for excerpt highlighting
             Query fieldsQuery = null;
 
-            // get an index searcher that is certainly up to date
-            indexSearcherUpdate();
-            IndexSearcher searcher = getSearcher();
+            // the searcher is reopened after each index update, only make sure there is one
+            if (getSearcher() == null) {
+                indexSearcherUpdate();
+            }
+            searcher = acquireSearcher();
+            if (searcher == null) {
+                throw new CmsSearchException(Messages.get().container(Messages.ERR_SEARCH_PARAMS_1, params));
+            }
 
             if (!params.isIgnoreQuery()) {
                 // since OpenCms 8 the query can be empty in which case only filters are used for the result
@@ -1469,6 +1487,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             throw new CmsSearchException(Messages.get().container(Messages.ERR_SEARCH_PARAMS_1, params), e);
         } finally {
 
+            // release the searcher so that an outdated reader can be closed
+            releaseSearcher(searcher);
+
             // re-set thread to previous priority
             Thread.currentThread().setPriority(previousPriority);
         }
@@ -1700,6 +1721,32 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         return getName();
     }
 
+    /**
+     * Returns the current index searcher with its reader reference count incremented,
+     * so that the reader is not closed while it is in use.<p>
+     *
+     * Every searcher acquired must be released with {@link #releaseSearcher(IndexSearcher)}.<p>
+     *
+     * @return the current index searcher, or <code>null</code> if no searcher is open
+     */
+    protected IndexSearcher acquireSearcher() {
+
+        while (true) {
+            IndexSearcher searcher = m_indexSearcher;
+            if ((searcher == null) || (searcher.getIndexReader() == null)) {
+                return null;
+            }
+            if (searcher.getIndexReader().tryIncRef()) {
+                return searcher;
+            }
+            if (searcher == m_indexSearcher) {
+                // the reader has been closed without replacement
+                return null;
+            }
+            // the searcher has been replaced concurrently, try again with the new one
+        }
+    }
+
     /**
      * Appends the a category filter to the given filter clause that matches all given categories.<p>
      *
@@ -2134,7 +2181,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                 terms.add(new Term(field, termsList.get(i)));
             }
             result = new CachingWrapperFilter(new TermsFilter(terms));
-            m_displayFilters.put(field + termsStr, result);
+            m_displayFilters.put(
+                (new StringBuffer(64)).append(field).append('|').append(termsStr).toString(),
+                result);
         }
         return result;
     }
@@ -2226,12 +2275,16 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     protected synchronized void indexSearcherClose() {
 
-        indexSearcherClose(m_indexSearcher);
+        IndexSearcher searcher = m_indexSearcher;
+        m_indexSearcher = null;
+        indexSearcherClose(searcher);
     }
 
     /**
      * Closes the given Lucene index searcher.<p>
      *
+     * The reader is actually closed when the last search still using it has released it.<p>
+     *
      * @param searcher the searcher to close
      */
     protected synchronized void indexSearcherClose(IndexSearcher searcher) {
@@ -2239,7 +2292,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         // in case there is an index searcher available close it
         if ((searcher != null) && (searcher.getIndexReader() != null)) {
             try {
-                searcher.getIndexReader().close();
+                searcher.getIndexReader().decRef();
             } catch (Exception e) {
                 LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_CLOSE_1, getName()), e);
             }
@@ -2271,9 +2324,10 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                     // store old searcher instance to close it later
                     oldSearcher = m_indexSearcher;
                 }
-                m_indexSearcher = new IndexSearcher(reader);
-                m_indexSearcher.setSimilarity(m_sim);
-                m_displayFilters = new HashMap<String, Filter>();
+                IndexSearcher searcher = new IndexSearcher(reader);
+                searcher.setSimilarity(m_sim);
+                m_displayFilters = new ConcurrentHashMap<String, Filter>();
+                m_indexSearcher = searcher;
             }
         } catch (IOException e) {
             LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_1, getName()), e);
@@ -2306,8 +2360,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                     IndexReader newReader = DirectoryReader.openIfChanged(
                         (DirectoryReader)oldSearcher.getIndexReader());
                     if (newReader != null) {
-                        m_indexSearcher = new IndexSearcher(newReader);
-                        m_indexSearcher.setSimilarity(m_sim);
+                        IndexSearcher searcher = new IndexSearcher(newReader);
+                        searcher.setSimilarity(m_sim);
+                        m_indexSearcher = searcher;
                         indexSearcherClose(oldSearcher);
                     }
                 }
@@ -2428,6 +2483,22 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         return true;
     }
 
+    /**
+     * Releases a searcher acquired with {@link #acquireSearcher()}.<p>
+     *
+     * @param searcher the searcher to release, may be <code>null</code>
+     */
+    protected void releaseSearcher(IndexSearcher searcher) {
+
+        if ((searcher != null) && (searcher.getIndexReader() != null)) {
+            try {
+                searcher.getIndexReader().decRef();
+            } catch (IOException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_CLOSE_1, getName()), e);
+            }
+        }
+    }
+
     /**
      * Removes the given backup folder of this index.<p>
      *
@@ -2887,7 +2887,12 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 // close the index writer
                 if (writer != null) {
                     try {
-                        writer.commit();
+                        if (writer instanceof CmsSolrIndexWriter) {
+                            // the writer is kept open, so a hard commit is needed even with the soft commit policy
+                            ((CmsSolrIndexWriter)writer).hardCommit();
+                        } else {
+                            writer.commit();
+                        }
                     } catch (IOException e) {
                         LOG.error(
                             Messages.get().getBundle().key(
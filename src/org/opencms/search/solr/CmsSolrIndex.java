@@ -71,9 +71,12 @@ import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.servlet.ServletResponse;
 
@@ -107,6 +110,10 @@ import org.apache.solr.search.DocSlice;
 import org.apache.solr.search.QParser;
 import org.apache.solr.util.FastWriter;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
 /**
  * Implements the search within an Solr index.<p>
  *
@@ -120,15 +127,48 @@ public class CmsSolrIndex extends CmsSearchIndex {
     /** The name of the default Solr Online index. */
     public static final String DEFAULT_INDEX_NAME_ONLINE = "Solr Online";
 
+    /** The commit policy value to send hard commits when the index writer commits. */
+    public static final String COMMIT_POLICY_HARD = "hard";
+
+    /** The commit policy value to send soft commits within an index update, and a hard commit at its end. */
+    public static final String COMMIT_POLICY_SOFT = "soft";
+
     /** Constant for additional parameter to set the post processor class name. */
     public static final String POST_PROCESSOR = "search.solr.postProcessor";
 
+    /** Constant for additional parameter to set the maximum number of cached query results (default: 0, no caching). */
+    public static final String QUERY_CACHE_SIZE = "search.solr.queryCache.size";
+
+    /** Constant for additional parameter to set the time in milliseconds query results are cached. */
+    public static final String QUERY_CACHE_TTL = "search.solr.queryCache.ttl";
+
+    /** The default time in milliseconds query results are cached. */
+    public static final long QUERY_CACHE_TTL_DEFAULT = 60000L;
+
     /** The solr exclude property. */
     public static final String PROPERTY_SEARCH_EXCLUDE_VALUE_SOLR = "solr";
 
     /** Indicates the maximum number of documents from the complete result set to return. */
     public static final int ROWS_MAX = 50;
 
+    /** Constant for additional parameter to set the estimated maximum size in bytes of an index writer batch. */
+    public static final String WRITER_BATCH_BYTES = "search.solr.writer.batchBytes";
+
+    /** The default estimated maximum size in bytes of a document batch sent by the index writer. */
+    public static final long WRITER_BATCH_BYTES_DEFAULT = 4L * 1024L * 1024L;
+
+    /** Constant for additional parameter to set the maximum number of documents in a batch sent by the index writer. */
+    public static final String WRITER_BATCH_SIZE = "search.solr.writer.batchSize";
+
+    /** The default maximum number of documents in a batch sent by the index writer. */
+    public static final int WRITER_BATCH_SIZE_DEFAULT = 100;
+
+    /** Constant for additional parameter to set the time in milliseconds within which Solr commits written documents. */
+    public static final String WRITER_COMMIT_MS = "search.solr.writer.commitMs";
+
+    /** Constant for additional parameter to set the commit policy of the index writer, either "hard" or "soft". */
+    public static final String WRITER_COMMIT_POLICY = "search.solr.writer.commitPolicy";
+
     /** A constant for debug formatting output. */
     protected static final int DEBUG_PADDING_RIGHT = 50;
 
@@ -177,6 +217,30 @@ public class CmsSolrIndex extends CmsSearchIndex {
     /** The core name for the index. */
     private String m_coreName;
 
+    /** The cached query results, or <code>null</code> if query results are not cached. */
+    private Cache<String, CmsSolrResultList> m_queryCache;
+
+    /** The index generation, increased whenever the index has been updated. */
+    private AtomicLong m_queryCacheGeneration = new AtomicLong();
+
+    /** The maximum number of cached query results. */
+    private int m_queryCacheSize;
+
+    /** The time in milliseconds query results are cached. */
+    private long m_queryCacheTtl = QUERY_CACHE_TTL_DEFAULT;
+
+    /** The estimated maximum size in bytes of a document batch sent by the index writer. */
+    private long m_writerBatchBytes = WRITER_BATCH_BYTES_DEFAULT;
+
+    /** The maximum number of documents in a batch sent by the index writer. */
+    private int m_writerBatchSize = WRITER_BATCH_SIZE_DEFAULT;
+
+    /** The time in milliseconds within which Solr commits written documents, or -1 for the server configuration. */
+    private int m_writerCommitMs = -1;
+
+    /** The commit policy of the index writer. */
+    private String m_writerCommitPolicy = COMMIT_POLICY_HARD;
+
     /**
      * Default constructor.<p>
      */
@@ -236,6 +300,43 @@ public class CmsSolrIndex extends CmsSearchIndex {
                     LOG.error(ex.getMessage(), ex);
                 }
             }
+        } else if (QUERY_CACHE_SIZE.equals(key)) {
+            try {
+                m_queryCacheSize = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_SOLR_INVALID_PARAM_3, value, key, getName()));
+            }
+        } else if (QUERY_CACHE_TTL.equals(key)) {
+            try {
+                m_queryCacheTtl = Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_SOLR_INVALID_PARAM_3, value, key, getName()));
+            }
+        } else if (WRITER_BATCH_BYTES.equals(key)) {
+            try {
+                m_writerBatchBytes = Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_SOLR_INVALID_PARAM_3, value, key, getName()));
+            }
+        } else if (WRITER_BATCH_SIZE.equals(key)) {
+            try {
+                m_writerBatchSize = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_SOLR_INVALID_PARAM_3, value, key, getName()));
+            }
+        } else if (WRITER_COMMIT_MS.equals(key)) {
+            try {
+                m_writerCommitMs = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_SOLR_INVALID_PARAM_3, value, key, getName()));
+            }
+        } else if (WRITER_COMMIT_POLICY.equals(key)) {
+            String policy = value.trim().toLowerCase();
+            if (COMMIT_POLICY_HARD.equals(policy) || COMMIT_POLICY_SOFT.equals(policy)) {
+                m_writerCommitPolicy = policy;
+            } else {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_SOLR_INVALID_PARAM_3, value, key, getName()));
+            }
         }
         super.addConfigurationParameter(key, value);
     }
@@ -314,6 +415,24 @@ public class CmsSolrIndex extends CmsSearchIndex {
         if (getPostProcessor() != null) {
             result.put(POST_PROCESSOR, getPostProcessor().getClass().getName());
         }
+        if (m_queryCacheSize > 0) {
+            result.put(QUERY_CACHE_SIZE, String.valueOf(m_queryCacheSize));
+        }
+        if (m_queryCacheTtl != QUERY_CACHE_TTL_DEFAULT) {
+            result.put(QUERY_CACHE_TTL, String.valueOf(m_queryCacheTtl));
+        }
+        if (m_writerBatchBytes != WRITER_BATCH_BYTES_DEFAULT) {
+            result.put(WRITER_BATCH_BYTES, String.valueOf(m_writerBatchBytes));
+        }
+        if (m_writerBatchSize != WRITER_BATCH_SIZE_DEFAULT) {
+            result.put(WRITER_BATCH_SIZE, String.valueOf(m_writerBatchSize));
+        }
+        if (m_writerCommitMs >= 0) {
+            result.put(WRITER_COMMIT_MS, String.valueOf(m_writerCommitMs));
+        }
+        if (!COMMIT_POLICY_HARD.equals(m_writerCommitPolicy)) {
+            result.put(WRITER_COMMIT_POLICY, m_writerCommitPolicy);
+        }
         return result;
     }
 
@@ -416,6 +535,58 @@ public class CmsSolrIndex extends CmsSearchIndex {
         return m_postProcessor;
     }
 
+    /**
+     * Returns the statistics of the query result cache, e.g. the hit rate.<p>
+     *
+     * @return the statistics of the query result cache, or <code>null</code> if query results are not cached
+     */
+    public CacheStats getQueryCacheStats() {
+
+        return m_queryCache != null ? m_queryCache.stats() : null;
+    }
+
+    /**
+     * Returns the estimated maximum size in bytes of a document batch sent by the index writer.<p>
+     *
+     * @return the estimated maximum size in bytes of a document batch
+     */
+    public long getWriterBatchBytes() {
+
+        return m_writerBatchBytes;
+    }
+
+    /**
+     * Returns the maximum number of documents in a batch sent by the index writer.<p>
+     *
+     * @return the maximum number of documents in a batch
+     */
+    public int getWriterBatchSize() {
+
+        return m_writerBatchSize;
+    }
+
+    /**
+     * Returns the time in milliseconds within which Solr has to commit the documents written to this index.<p>
+     *
+     * @return the commit time in milliseconds, or -1 if the Solr server configuration is used
+     */
+    public int getWriterCommitMs() {
+
+        return m_writerCommitMs;
+    }
+
+    /**
+     * Returns the commit policy of the index writer.<p>
+     *
+     * The policy is either {@link #COMMIT_POLICY_HARD} or {@link #COMMIT_POLICY_SOFT}.<p>
+     *
+     * @return the commit policy of the index writer
+     */
+    public String getWriterCommitPolicy() {
+
+        return m_writerCommitPolicy;
+    }
+
     /**
      * @see org.opencms.search.CmsSearchIndex#initialize()
      */
@@ -424,6 +595,11 @@ public class CmsSolrIndex extends CmsSearchIndex {
 
         super.initialize();
         getFieldConfiguration().init();
+        if (m_queryCacheSize > 0) {
+            m_queryCache = CacheBuilder.newBuilder().maximumSize(m_queryCacheSize).expireAfterWrite(
+                m_queryCacheTtl,
+                TimeUnit.MILLISECONDS).recordStats().build();
+        }
         try {
             OpenCms.getSearchManager().registerSolrIndex(this);
         } catch (CmsConfigurationException ex) {
@@ -583,6 +759,16 @@ public class CmsSolrIndex extends CmsSearchIndex {
             query.addFilterQuery(CmsSearchField.FIELD_SEARCH_EXCLUDE + ":\"false\"");
         }
 
+        // results written to the response are not cached
+        String cacheKey = null;
+        if ((m_queryCache != null) && (response == null)) {
+            cacheKey = getQueryCacheKey(cms, query, ignoreMaxRows, filter);
+            CmsSolrResultList cachedResult = m_queryCache.getIfPresent(cacheKey);
+            if (cachedResult != null) {
+                return new CmsSolrResultList(cachedResult);
+            }
+        }
+
         int previousPriority = Thread.currentThread().getPriority();
         long startTime = System.currentTimeMillis();
 
@@ -845,6 +1031,10 @@ public class CmsSolrIndex extends CmsSearchIndex {
                 if (response != null) {
                     writeResp(response, solrQueryRequest, solrQueryResponse);
                 }
+                if (cacheKey != null) {
+                    // cache a copy, since the returned list may be modified
+                    m_queryCache.put(cacheKey, new CmsSolrResultList(result));
+                }
             } finally {
                 if (solrQueryRequest != null) {
                     solrQueryRequest.close();
@@ -1097,7 +1287,11 @@ public class CmsSolrIndex extends CmsSearchIndex {
     @Override
     protected void indexSearcherOpen(final String path) {
 
-        // nothing to do here
+        // the index has changed, so the cached query results are outdated
+        m_queryCacheGeneration.incrementAndGet();
+        if (m_queryCache != null) {
+            m_queryCache.invalidateAll();
+        }
     }
 
     /**
@@ -1107,7 +1301,11 @@ public class CmsSolrIndex extends CmsSearchIndex {
     @Override
     protected void indexSearcherUpdate() {
 
-        // nothing to do here
+        // the index has changed, so the cached query results are outdated
+        m_queryCacheGeneration.incrementAndGet();
+        if (m_queryCache != null) {
+            m_queryCache.invalidateAll();
+        }
     }
 
     /**
@@ -1173,6 +1371,50 @@ public class CmsSolrIndex extends CmsSearchIndex {
         return null;
     }
 
+    /**
+     * Returns the key of the query result cache for the given search.<p>
+     *
+     * The key contains the index generation, the user and project the permissions are checked for,
+     * the site root, and the query parameters sorted by name, so equivalent queries share the cached result.
+     * If a post processor is configured, the request URI and locale are added as well, since the post
+     * processor may create request dependent content like links.<p>
+     *
+     * @param cms the current OpenCms context
+     * @param query the query
+     * @param ignoreMaxRows if all requested rows are returned
+     * @param filter the resource filter used for the permission check, may be <code>null</code>
+     *
+     * @return the key of the query result cache
+     */
+    private String getQueryCacheKey(CmsObject cms, SolrQuery query, boolean ignoreMaxRows, CmsResourceFilter filter) {
+
+        StringBuffer result = new StringBuffer(256);
+        result.append(m_queryCacheGeneration.get()).append('|');
+        result.append(cms.getRequestContext().getCurrentUser().getId()).append('|');
+        result.append(cms.getRequestContext().getCurrentProject().getUuid()).append('|');
+        result.append(cms.getRequestContext().getSiteRoot()).append('|');
+        if (m_postProcessor != null) {
+            result.append(cms.getRequestContext().getUri()).append('|');
+            result.append(cms.getRequestContext().getLocale()).append('|');
+        }
+        result.append(ignoreMaxRows).append('|');
+        result.append(filter != null ? filter.getCacheId() : "").append('|');
+        List<String> names = new ArrayList<String>(query.getParameterNames());
+        Collections.sort(names);
+        for (String name : names) {
+            String[] values = query.getParams(name);
+            if (CommonParams.FQ.equals(name)) {
+                // the order of the filter queries does not change the result
+                values = values.clone();
+                Arrays.sort(values);
+            }
+            for (String value : values) {
+                result.append(name).append('=').append(value).append('&');
+            }
+        }
+        return result.toString();
+    }
+
     /**
      * Updates the core name to be in sync with the index name.
      */
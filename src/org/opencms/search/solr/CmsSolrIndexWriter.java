@@ -38,16 +38,38 @@ import org.opencms.search.I_CmsIndexWriter;
 import org.opencms.search.I_CmsSearchDocument;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.logging.Log;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Implements the index writer for the Solr server used by OpenCms.<p>
  *
+ * Updated documents are collected and sent to Solr in batches, limited by the batch size and the
+ * estimated batch size in bytes configured for the index. A full batch is sent in the background
+ * while the next one is collected; if the previous batch is still being sent, the writer waits for it
+ * before sending the next one.<p>
+ *
+ * If Solr rejects a batch, its documents are sent again one by one, so that only the failing documents
+ * are lost and logged with their own root path.<p>
+ *
+ * With the {@link CmsSolrIndex#COMMIT_POLICY_SOFT} commit policy, commits only make the documents
+ * visible to searches, and a hard commit is sent by {@link #hardCommit()} at the end of each index
+ * update, and when the writer is closed.<p>
+ *
  * @since 8.5.0
  */
 public class CmsSolrIndexWriter implements I_CmsIndexWriter {
@@ -55,16 +77,46 @@ public class CmsSolrIndexWriter implements I_CmsIndexWriter {
     /** The log object for this class. */
     protected static final Log LOG = CmsLog.getLog(CmsSolrIndexWriter.class);
 
+    /** The estimated size in bytes of a field value that is not a string. */
+    private static final int FIELD_VALUE_BYTES = 16;
+
+    /** The thread pool used to send the document batches to Solr. */
+    private static final ExecutorService FLUSH_POOL = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setNameFormat("OpenCms-SolrIndexWriter-%d").setDaemon(true).build());
+
+    /** The estimated maximum size in bytes of a document batch. */
+    private long m_batchBytes;
+
+    /** The maximum number of documents in a batch. */
+    private int m_batchSize;
+
     /** The time to wait before a commit is sent to the Solr index.  */
-    private int m_commitMs = new Long(
-        OpenCms.getSearchManager().getSolrServerConfiguration().getSolrCommitMs()).intValue();
+    private int m_commitMs;
+
+    /** The batch currently sent to Solr in the background. */
+    private Future<Void> m_flush;
 
     /** The Solr index. */
     private CmsSolrIndex m_index;
 
+    /** The estimated size in bytes of the documents not yet sent to Solr. */
+    private long m_pendingBytes;
+
+    /** The documents not yet sent to Solr. */
+    private List<SolrInputDocument> m_pendingDocuments;
+
+    /** The root paths of the documents not yet sent to Solr. */
+    private List<String> m_pendingPaths;
+
     /** The Solr client. */
     private SolrClient m_server;
 
+    /** Indicates if commits are sent as soft commits. */
+    private boolean m_softCommit;
+
+    /** Indicates if there are soft commits not yet followed by a hard commit. */
+    private boolean m_softCommitted;
+
     /**
      * Constructor to create a Solr index writer.<p>
      *
@@ -89,7 +141,19 @@ public class CmsSolrIndexWriter implements I_CmsIndexWriter {
 
         m_index = index;
         m_server = client;
+        m_pendingDocuments = new ArrayList<SolrInputDocument>();
+        m_pendingPaths = new ArrayList<String>();
+        m_commitMs = new Long(
+            OpenCms.getSearchManager().getSolrServerConfiguration().getSolrCommitMs()).intValue();
+        m_batchSize = CmsSolrIndex.WRITER_BATCH_SIZE_DEFAULT;
+        m_batchBytes = CmsSolrIndex.WRITER_BATCH_BYTES_DEFAULT;
         if (m_index != null) {
+            if (m_index.getWriterCommitMs() >= 0) {
+                m_commitMs = m_index.getWriterCommitMs();
+            }
+            m_batchSize = Math.max(1, m_index.getWriterBatchSize());
+            m_batchBytes = m_index.getWriterBatchBytes();
+            m_softCommit = CmsSolrIndex.COMMIT_POLICY_SOFT.equals(m_index.getWriterCommitPolicy());
             LOG.info(
                 Messages.get().getBundle().key(
                     Messages.LOG_SOLR_WRITER_CREATE_2,
@@ -99,26 +163,59 @@ public class CmsSolrIndexWriter implements I_CmsIndexWriter {
     }
 
     /**
+     * Returns the estimated size in bytes of the given document.<p>
+     *
+     * @param document the document
+     *
+     * @return the estimated size in bytes
+     */
+    static long estimateSize(SolrInputDocument document) {
+
+        long result = 0;
+        for (SolrInputField field : document) {
+            result += 2 * field.getName().length();
+            for (Object value : field) {
+                result += value instanceof String ? 2 * ((String)value).length() : FIELD_VALUE_BYTES;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sends the pending documents to Solr, and with the soft commit policy, also sends a hard commit.<p>
+     *
      * @see org.opencms.search.I_CmsIndexWriter#close()
      */
-    public void close() {
+    public synchronized void close() throws IOException {
 
-        // nothing to do here
+        if ((m_server != null) && (m_index != null)) {
+            flush();
+            if (m_softCommitted) {
+                hardCommit();
+            }
+        }
     }
 
     /**
      * @see org.opencms.search.I_CmsIndexWriter#commit()
      */
-    public void commit() throws IOException {
+    public synchronized void commit() throws IOException {
 
         if ((m_server != null) && (m_index != null)) {
+            flush();
             try {
                 LOG.info(
                     Messages.get().getBundle().key(
                         Messages.LOG_SOLR_WRITER_COMMIT_2,
                         m_index.getName(),
                         m_index.getPath()));
-                m_server.commit();
+                if (m_softCommit) {
+                    m_server.commit(true, true, true);
+                    m_softCommitted = true;
+                } else {
+                    m_server.commit();
+                    m_softCommitted = false;
+                }
             } catch (SolrServerException e) {
                 throw new IOException(e.getLocalizedMessage(), e);
             }
@@ -130,9 +227,14 @@ public class CmsSolrIndexWriter implements I_CmsIndexWriter {
      *
      * @throws IOException if something goes wrong
      */
-    public void deleteAllDocuments() throws IOException {
+    public synchronized void deleteAllDocuments() throws IOException {
 
         if ((m_server != null) && (m_index != null)) {
+            // the pending documents would be deleted anyway
+            m_pendingDocuments.clear();
+            m_pendingPaths.clear();
+            m_pendingBytes = 0;
+            waitForFlush();
             try {
                 LOG.info(
                     Messages.get().getBundle().key(
@@ -149,9 +251,11 @@ public class CmsSolrIndexWriter implements I_CmsIndexWriter {
     /**
      * @see org.opencms.search.I_CmsIndexWriter#deleteDocument(org.opencms.db.CmsPublishedResource)
      */
-    public void deleteDocument(CmsPublishedResource resource) throws IOException {
+    public synchronized void deleteDocument(CmsPublishedResource resource) throws IOException {
 
         if ((m_server != null) && (m_index != null)) {
+            // the pending documents must be sent first, since they may contain the deleted one
+            flush();
             try {
                 LOG.info(
                     Messages.get().getBundle().key(
@@ -168,6 +272,31 @@ public class CmsSolrIndexWriter implements I_CmsIndexWriter {
         }
     }
 
+    /**
+     * Sends the pending documents to Solr followed by a hard commit, regardless of the commit policy.<p>
+     *
+     * With the soft commit policy, this makes the changes written so far durable.<p>
+     *
+     * @throws IOException if something goes wrong
+     */
+    public synchronized void hardCommit() throws IOException {
+
+        if ((m_server != null) && (m_index != null)) {
+            flush();
+            try {
+                LOG.info(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_SOLR_WRITER_COMMIT_2,
+                        m_index.getName(),
+                        m_index.getPath()));
+                m_server.commit();
+                m_softCommitted = false;
+            } catch (SolrServerException e) {
+                throw new IOException(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
     /**
      * @see org.opencms.search.I_CmsIndexWriter#optimize()
      */
@@ -180,22 +309,136 @@ public class CmsSolrIndexWriter implements I_CmsIndexWriter {
     /**
      * @see org.opencms.search.I_CmsIndexWriter#updateDocument(java.lang.String, org.opencms.search.I_CmsSearchDocument)
      */
-    public void updateDocument(String rootPath, I_CmsSearchDocument document) throws IOException {
+    public synchronized void updateDocument(String rootPath, I_CmsSearchDocument document) throws IOException {
 
         if ((m_server != null) && (m_index != null)) {
             if (document.getDocument() != null) {
-                try {
-                    LOG.info(
+                LOG.info(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_SOLR_WRITER_DOC_UPDATE_3,
+                        rootPath,
+                        m_index.getName(),
+                        m_index.getPath()));
+                SolrInputDocument solrDocument = (SolrInputDocument)document.getDocument();
+                m_pendingDocuments.add(solrDocument);
+                m_pendingPaths.add(rootPath);
+                m_pendingBytes += estimateSize(solrDocument);
+                if ((m_pendingDocuments.size() >= m_batchSize) || (m_pendingBytes >= m_batchBytes)) {
+                    sendPendingDocuments();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the pending documents to Solr and waits until all batches have been sent.<p>
+     *
+     * @throws IOException if sending a batch failed
+     */
+    private void flush() throws IOException {
+
+        if (!m_pendingDocuments.isEmpty()) {
+            sendPendingDocuments();
+        }
+        waitForFlush();
+    }
+
+    /**
+     * Sends the given batch to Solr, and if Solr rejects it, sends the documents of the batch one by one.<p>
+     *
+     * Documents that can not be sent on their own are logged with their root path and skipped.<p>
+     *
+     * @param batch the documents to send
+     * @param paths the root paths of the documents
+     *
+     * @throws IOException if the connection to Solr fails
+     */
+    private void sendBatch(List<SolrInputDocument> batch, List<String> paths) throws IOException {
+
+        try {
+            m_server.add(batch, m_commitMs);
+            return;
+        } catch (SolrServerException e) {
+            LOG.warn(e.getLocalizedMessage(), e);
+        } catch (SolrException e) {
+            LOG.warn(e.getLocalizedMessage(), e);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                m_server.add(batch.get(i), m_commitMs);
+            } catch (SolrServerException e) {
+                LOG.error(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_SOLR_WRITER_DOC_FAILED_3,
+                        paths.get(i),
+                        m_index.getName(),
+                        m_index.getPath()),
+                    e);
+            } catch (SolrException e) {
+                LOG.error(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_SOLR_WRITER_DOC_FAILED_3,
+                        paths.get(i),
+                        m_index.getName(),
+                        m_index.getPath()),
+                    e);
+            }
+        }
+    }
+
+    /**
+     * Sends the pending documents to Solr in the background.<p>
+     *
+     * Waits for the previously sent batch first, so at most one batch per writer is sent at a time.<p>
+     *
+     * @throws IOException if sending the previous batch failed
+     */
+    private void sendPendingDocuments() throws IOException {
+
+        waitForFlush();
+        final List<SolrInputDocument> batch = m_pendingDocuments;
+        final List<String> paths = m_pendingPaths;
+        m_pendingDocuments = new ArrayList<SolrInputDocument>();
+        m_pendingPaths = new ArrayList<String>();
+        m_pendingBytes = 0;
+        m_flush = FLUSH_POOL.submit(new Callable<Void>() {
+
+            public Void call() throws Exception {
+
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(
                         Messages.get().getBundle().key(
-                            Messages.LOG_SOLR_WRITER_DOC_UPDATE_3,
-                            rootPath,
+                            Messages.LOG_SOLR_WRITER_FLUSH_3,
+                            Integer.valueOf(batch.size()),
                             m_index.getName(),
                             m_index.getPath()));
-                    m_server.add((SolrInputDocument)document.getDocument(), m_commitMs);
-                } catch (SolrServerException e) {
-                    throw new IOException(e.getLocalizedMessage(), e);
                 }
+                sendBatch(batch, paths);
+                return null;
             }
+        });
+    }
+
+    /**
+     * Waits until the batch currently sent in the background has been sent.<p>
+     *
+     * @throws IOException if sending the batch failed
+     */
+    private void waitForFlush() throws IOException {
+
+        if (m_flush == null) {
+            return;
+        }
+        try {
+            m_flush.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw new IOException(cause.getLocalizedMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e.getLocalizedMessage(), e);
+        } finally {
+            m_flush = null;
         }
     }
 }
@@ -109,6 +109,29 @@ public class CmsSolrResultList extends ArrayList<CmsSearchResource> {
         m_highlighting = transformHighlighting();
     }
 
+    /**
+     * Creates a copy of the given result list with its own copy of the Solr query, sharing the Solr response.<p>
+     *
+     * @param resultList the result list to copy
+     */
+    public CmsSolrResultList(CmsSolrResultList resultList) {
+
+        super(resultList);
+
+        m_query = resultList.m_query != null ? resultList.m_query.clone() : null;
+        m_startTime = resultList.m_startTime;
+        m_highlightEndTime = resultList.m_highlightEndTime;
+        m_rows = resultList.m_rows;
+        m_end = resultList.m_end;
+        m_page = resultList.m_page;
+        m_visibleHitCount = resultList.m_visibleHitCount;
+
+        m_resultDocuments = resultList.m_resultDocuments;
+        m_queryResponse = resultList.m_queryResponse;
+
+        m_highlighting = resultList.m_highlighting;
+    }
+
     /**
      * Returns the last index of documents to display.<p>
      *
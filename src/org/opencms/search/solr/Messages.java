@@ -67,6 +67,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_SOLR_FIELD_NOT_FOUND_1 = "LOG_SOLR_FIELD_NOT_FOUND_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_SOLR_INVALID_PARAM_3 = "LOG_SOLR_INVALID_PARAM_3";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_SOLR_SEARCH_EXECUTED_5 = "LOG_SOLR_SEARCH_EXECUTED_5";
 
@@ -82,9 +85,15 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_SOLR_WRITER_DOC_DELETE_3 = "LOG_SOLR_WRITER_DOC_DELETE_3";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_SOLR_WRITER_DOC_FAILED_3 = "LOG_SOLR_WRITER_DOC_FAILED_3";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_SOLR_WRITER_DOC_UPDATE_3 = "LOG_SOLR_WRITER_DOC_UPDATE_3";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_SOLR_WRITER_FLUSH_3 = "LOG_SOLR_WRITER_FLUSH_3";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.search.solr.messages";
 
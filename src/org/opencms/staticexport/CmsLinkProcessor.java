@@ -84,10 +84,10 @@ public class CmsLinkProcessor extends CmsHtmlParser {
     public static final String TAG_PARAM = "PARAM";
 
     /** List of attributes that may contain links for the embed tag. */
-    private static final String[] EMBED_TAG_LINKED_ATTRIBS = new String[] {ATTRIBUTE_SRC, "pluginurl", "pluginspage"};
+    protected static final String[] EMBED_TAG_LINKED_ATTRIBS = new String[] {ATTRIBUTE_SRC, "pluginurl", "pluginspage"};
 
     /** List of attributes that may contain links for the object tag ("codebase" has to be first). */
-    private static final String[] OBJECT_TAG_LINKED_ATTRIBS = new String[] {"codebase", "data", "datasrc"};
+    protected static final String[] OBJECT_TAG_LINKED_ATTRIBS = new String[] {"codebase", "data", "datasrc"};
 
     /** Processing mode "process links". */
     private static final int PROCESS_LINKS = 1;
@@ -113,6 +113,9 @@ public class CmsLinkProcessor extends CmsHtmlParser {
     /** Another OpenCms context based on the current users OpenCms context, but with the site root set to '/'. */
     private CmsObject m_rootCms;
 
+    /** The single pass processor used to replace macros with links, created on first use. */
+    private CmsStreamingLinkProcessor m_streamingProcessor;
+
     /**
      * Creates a new link processor.<p>
      *
@@ -208,6 +211,10 @@ public class CmsLinkProcessor extends CmsHtmlParser {
      *
      * Macros are replaced by links.<p>
      *
+     * As this runs every time the content is rendered, the content is not parsed into a node tree,
+     * but processed in a single pass by a {@link CmsStreamingLinkProcessor}. This relies on the content
+     * having been normalized by {@link #replaceLinks(String)} when it was saved.<p>
+     *
      * @param content the content to process
      * @return the processed content with replaced macros
      *
@@ -216,7 +223,10 @@ public class CmsLinkProcessor extends CmsHtmlParser {
     public String processLinks(String content) throws ParserException {
 
         m_mode = PROCESS_LINKS;
-        return process(content, m_encoding);
+        if (m_streamingProcessor == null) {
+            m_streamingProcessor = new CmsStreamingLinkProcessor(m_cms, m_linkTable);
+        }
+        return m_streamingProcessor.process(content);
     }
 
     /**
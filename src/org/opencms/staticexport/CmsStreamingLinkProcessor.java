@@ -0,0 +1,427 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import org.opencms.file.CmsObject;
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.relations.CmsLink;
+import org.opencms.util.CmsMacroResolver;
+import org.opencms.util.CmsRequestUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replaces the link macros in HTML content with the actual links in a single pass over the content.<p>
+ *
+ * This is the "process links" direction of the {@link CmsLinkProcessor}, which runs every time the HTML of an
+ * XML page or an XML content HTML value is rendered. The HTML has already been normalized by the HTML parser
+ * when the links were replaced with macros on save, so it is sufficient to tokenize the content and rewrite
+ * the link attributes of the tags the link processor handles, without building a node tree.
+ * All other content is copied unchanged.<p>
+ *
+ * Instances are not thread safe, the output buffer is reused for all calls of {@link #process(String)}.<p>
+ *
+ * @since 10.5.0
+ */
+public class CmsStreamingLinkProcessor {
+
+    /**
+     * The position of an attribute value in the processed content.<p>
+     */
+    private static class AttributeValue {
+
+        /** The lower case attribute name. */
+        protected String m_name;
+
+        /** The quote character, or 0 for an unquoted value. */
+        protected char m_quote;
+
+        /** The end position of the value (exclusive). */
+        protected int m_valueEnd;
+
+        /** The start position of the value. */
+        protected int m_valueStart;
+
+        /**
+         * Creates a new attribute value position.<p>
+         *
+         * @param name the lower case attribute name
+         * @param valueStart the start position of the value
+         * @param valueEnd the end position of the value (exclusive)
+         * @param quote the quote character, or 0 for an unquoted value
+         */
+        protected AttributeValue(String name, int valueStart, int valueEnd, char quote) {
+
+            m_name = name;
+            m_valueStart = valueStart;
+            m_valueEnd = valueEnd;
+            m_quote = quote;
+        }
+    }
+
+    /** Maximum capacity of the output buffer that is kept for reuse. */
+    private static final int MAX_REUSED_BUFFER_CAPACITY = 256 * 1024;
+
+    /** The current users OpenCms context. */
+    private CmsObject m_cms;
+
+    /** The link table used for link macro replacements. */
+    private CmsLinkTable m_linkTable;
+
+    /** The reusable output buffer. */
+    private StringBuilder m_result;
+
+    /**
+     * Creates a new streaming link processor.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param linkTable the link table to use
+     */
+    public CmsStreamingLinkProcessor(CmsObject cms, CmsLinkTable linkTable) {
+
+        m_cms = cms;
+        m_linkTable = linkTable;
+        m_result = new StringBuilder(1024);
+    }
+
+    /**
+     * Replaces all link macros in the link attributes of the given HTML content.<p>
+     *
+     * @param content the content to process
+     *
+     * @return the processed content with replaced macros
+     */
+    public String process(String content) {
+
+        if ((content == null) || (content.indexOf('<') < 0)) {
+            return content;
+        }
+        if (m_result.capacity() > MAX_REUSED_BUFFER_CAPACITY) {
+            m_result = new StringBuilder(content.length() + 256);
+        } else {
+            m_result.setLength(0);
+            m_result.ensureCapacity(content.length() + 256);
+        }
+        StringBuilder out = m_result;
+        int len = content.length();
+        int pos = 0;
+        boolean insideObject = false;
+        while (pos < len) {
+            int start = content.indexOf('<', pos);
+            if ((start < 0) || (start == (len - 1))) {
+                out.append(content, pos, len);
+                break;
+            }
+            out.append(content, pos, start);
+            char next = content.charAt(start + 1);
+            if (content.startsWith("<!--", start)) {
+                pos = copyUntil(content, start, "-->", out);
+            } else if ((next == '!') || (next == '?')) {
+                pos = copyUntil(content, start, ">", out);
+            } else if (next == '/') {
+                int nameEnd = scanName(content, start + 2);
+                if (content.substring(start + 2, nameEnd).equalsIgnoreCase("object")) {
+                    insideObject = false;
+                }
+                pos = copyUntil(content, start, ">", out);
+            } else if (Character.isLetter(next)) {
+                int nameEnd = scanName(content, start + 1);
+                String tagName = content.substring(start + 1, nameEnd).toUpperCase(Locale.ENGLISH);
+                pos = processTag(content, start, nameEnd, tagName, insideObject, out);
+                if ("OBJECT".equals(tagName)) {
+                    insideObject = true;
+                } else if ("SCRIPT".equals(tagName) || "STYLE".equals(tagName)) {
+                    // the content of script and style elements is not parsed
+                    int end = indexOfIgnoreCase(content, "</" + tagName, pos);
+                    if (end < 0) {
+                        end = len;
+                    }
+                    out.append(content, pos, end);
+                    pos = end;
+                }
+            } else {
+                // a single '<' in text
+                out.append('<');
+                pos = start + 1;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Resolves the link for the given macro attribute value.<p>
+     *
+     * @param tagName the upper case name of the tag the attribute belongs to
+     * @param value the attribute value
+     *
+     * @return the link to use as new attribute value, or <code>null</code> if the value should not be changed
+     */
+    protected String resolveLink(String tagName, String value) {
+
+        String macroName = CmsMacroResolver.stripMacro(value);
+        if (macroName == null) {
+            return null;
+        }
+        CmsLink link = m_linkTable.getLink(macroName);
+        if (link == null) {
+            return null;
+        }
+        String l = link.getLink(m_cms);
+        if (CmsLinkProcessor.TAG_PARAM.equals(tagName)) {
+            // HACK: to distinguish link parameters the link itself has to end with '&' or '?'
+            if (!l.endsWith(CmsRequestUtil.URL_DELIMITER) && !l.endsWith(CmsRequestUtil.PARAMETER_DELIMITER)) {
+                if (l.indexOf(CmsRequestUtil.URL_DELIMITER) > 0) {
+                    l += CmsRequestUtil.PARAMETER_DELIMITER;
+                } else {
+                    l += CmsRequestUtil.URL_DELIMITER;
+                }
+            }
+        }
+        return CmsEncoder.escapeXml(l);
+    }
+
+    /**
+     * Copies the content from the start position up to and including the given end marker.<p>
+     *
+     * @param content the content
+     * @param start the start position
+     * @param endMarker the end marker
+     * @param out the buffer to append to
+     *
+     * @return the position after the end marker, or the content length if the marker was not found
+     */
+    private int copyUntil(String content, int start, String endMarker, StringBuilder out) {
+
+        int end = content.indexOf(endMarker, start + 1);
+        end = (end < 0) ? content.length() : end + endMarker.length();
+        out.append(content, start, end);
+        return end;
+    }
+
+    /**
+     * Returns the index of the given lower or upper case string in the content.<p>
+     *
+     * @param content the content to search
+     * @param str the string to search for
+     * @param from the index to start from
+     *
+     * @return the index of the string, or -1 if not found
+     */
+    private int indexOfIgnoreCase(String content, String str, int from) {
+
+        int max = content.length() - str.length();
+        for (int i = from; i <= max; i++) {
+            if (content.regionMatches(true, i, str, 0, str.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the names of the attributes that may contain link macros for the given tag.<p>
+     *
+     * @param tagName the upper case tag name
+     * @param insideObject if the tag is nested in an object tag
+     *
+     * @return the link attribute names, or <code>null</code> if the tag contains no links
+     */
+    private String[] getLinkAttributes(String tagName, boolean insideObject) {
+
+        if ("A".equals(tagName) || CmsLinkProcessor.TAG_AREA.equals(tagName)) {
+            return new String[] {CmsLinkProcessor.ATTRIBUTE_HREF};
+        } else if ("IMG".equals(tagName)) {
+            return new String[] {CmsLinkProcessor.ATTRIBUTE_SRC};
+        } else if (CmsLinkProcessor.TAG_EMBED.equals(tagName)) {
+            return CmsLinkProcessor.EMBED_TAG_LINKED_ATTRIBS;
+        } else if ("OBJECT".equals(tagName)) {
+            return CmsLinkProcessor.OBJECT_TAG_LINKED_ATTRIBS;
+        } else if (insideObject && CmsLinkProcessor.TAG_PARAM.equals(tagName)) {
+            return new String[] {CmsLinkProcessor.ATTRIBUTE_VALUE};
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the character may be part of a tag or attribute name.<p>
+     *
+     * @param c the character to check
+     *
+     * @return <code>true</code> if the character may be part of a name
+     */
+    private boolean isNameChar(char c) {
+
+        return Character.isLetterOrDigit(c) || (c == '-') || (c == ':') || (c == '_') || (c == '.');
+    }
+
+    /**
+     * Processes a start tag, rewriting its link attributes.<p>
+     *
+     * @param content the content
+     * @param start the position of the opening '&lt;'
+     * @param nameEnd the position after the tag name
+     * @param tagName the upper case tag name
+     * @param insideObject if the tag is nested in an object tag
+     * @param out the buffer to append to
+     *
+     * @return the position after the tag
+     */
+    private int processTag(
+        String content,
+        int start,
+        int nameEnd,
+        String tagName,
+        boolean insideObject,
+        StringBuilder out) {
+
+        String[] linkAttributes = getLinkAttributes(tagName, insideObject);
+        int len = content.length();
+        // collect the positions of all attribute values, the tag is only written once its end is known
+        List<AttributeValue> attributes = new ArrayList<AttributeValue>(4);
+        int pos = nameEnd;
+        while (pos < len) {
+            char c = content.charAt(pos);
+            if (c == '>') {
+                pos++;
+                break;
+            } else if (isNameChar(c)) {
+                int attrStart = pos;
+                pos = scanName(content, pos);
+                String attrName = content.substring(attrStart, pos);
+                int p = skipWhitespace(content, pos);
+                if ((p < len) && (content.charAt(p) == '=')) {
+                    p = skipWhitespace(content, p + 1);
+                    if (p < len) {
+                        char quote = content.charAt(p);
+                        int valueStart;
+                        int valueEnd;
+                        if ((quote == '"') || (quote == '\'')) {
+                            valueStart = p + 1;
+                            valueEnd = content.indexOf(quote, valueStart);
+                            if (valueEnd < 0) {
+                                valueEnd = len;
+                            }
+                            pos = Math.min(valueEnd + 1, len);
+                        } else {
+                            quote = 0;
+                            valueStart = p;
+                            valueEnd = p;
+                            while ((valueEnd < len)
+                                && !Character.isWhitespace(content.charAt(valueEnd))
+                                && (content.charAt(valueEnd) != '>')) {
+                                valueEnd++;
+                            }
+                            pos = valueEnd;
+                        }
+                        if (linkAttributes != null) {
+                            attributes.add(
+                                new AttributeValue(attrName.toLowerCase(Locale.ENGLISH), valueStart, valueEnd, quote));
+                        }
+                    } else {
+                        pos = p;
+                    }
+                }
+            } else {
+                pos++;
+            }
+        }
+        if ((linkAttributes == null) || attributes.isEmpty()) {
+            out.append(content, start, pos);
+            return pos;
+        }
+        int copied = start;
+        boolean hasCodebase = false;
+        for (AttributeValue attribute : attributes) {
+            if (attribute.m_name.equals(CmsLinkProcessor.OBJECT_TAG_LINKED_ATTRIBS[0])) {
+                hasCodebase = true;
+            }
+        }
+        for (AttributeValue attribute : attributes) {
+            boolean isLinkAttribute = false;
+            for (int i = 0; i < linkAttributes.length; i++) {
+                if (linkAttributes[i].equals(attribute.m_name)) {
+                    // if code base is available, the other attributes of the object tag are relative to it
+                    isLinkAttribute = (i == 0) || !"OBJECT".equals(tagName) || !hasCodebase;
+                    break;
+                }
+            }
+            if (!isLinkAttribute) {
+                continue;
+            }
+            String link = resolveLink(tagName, content.substring(attribute.m_valueStart, attribute.m_valueEnd));
+            if (link != null) {
+                out.append(content, copied, attribute.m_valueStart);
+                if (attribute.m_quote == 0) {
+                    // unquoted values are quoted, the link may contain characters not allowed there
+                    out.append('"').append(link).append('"');
+                } else {
+                    out.append(link);
+                }
+                copied = attribute.m_valueEnd;
+            }
+        }
+        out.append(content, copied, pos);
+        return pos;
+    }
+
+    /**
+     * Returns the position after the tag or attribute name starting at the given position.<p>
+     *
+     * @param content the content
+     * @param pos the start position
+     *
+     * @return the position after the name
+     */
+    private int scanName(String content, int pos) {
+
+        int len = content.length();
+        while ((pos < len) && isNameChar(content.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Returns the position of the next non whitespace character.<p>
+     *
+     * @param content the content
+     * @param pos the start position
+     *
+     * @return the position of the next non whitespace character
+     */
+    private int skipWhitespace(String content, int pos) {
+
+        int len = content.length();
+        while ((pos < len) && Character.isWhitespace(content.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+}
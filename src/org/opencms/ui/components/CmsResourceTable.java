@@ -58,6 +58,7 @@ import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.i18n.CmsMessages;
 import org.opencms.main.CmsException;
@@ -91,6 +92,7 @@ import com.vaadin.server.ThemeResource;
 import com.vaadin.ui.CustomComponent;
 import com.vaadin.ui.Image;
 import com.vaadin.ui.Table;
+import com.vaadin.ui.Table.ColumnGenerator;
 import com.vaadin.ui.Table.RowHeaderMode;
 import com.vaadin.ui.Table.TableDragMode;
 
@@ -117,6 +119,10 @@ public class CmsResourceTable extends CustomComponent {
             for (ColumnEntry entry : m_columnEntries) {
                 CmsResourceTableProperty prop = entry.getColumn();
                 m_container.addContainerProperty(prop, prop.getColumnType(), prop.getDefaultValue());
+                if (LAZY_COLUMNS.contains(prop) && (m_fileTable.getColumnGenerator(prop) == null)) {
+                    // the components of these columns are only created for the rows actually rendered
+                    m_fileTable.addGeneratedColumn(prop, m_lazyColumnGenerator);
+                }
                 if (entry.isCollapsed()) {
                     collapsed.add(entry.getColumn());
                 }
@@ -274,12 +280,87 @@ public class CmsResourceTable extends CustomComponent {
         }
     }
 
+    /**
+     * Column generator creating the resource icon and project flag components only for the rows the table actually renders.<p>
+     *
+     * Building these components requires lock, project and detail page lookups, which is too expensive to do for every
+     * resource of large folders when filling the container.<p>
+     *
+     * The table renders the cells row by row, so the resource util of the last row is shared by its columns.<p>
+     */
+    protected class LazyComponentColumnGenerator implements ColumnGenerator {
+
+        /** The serial version id. */
+        private static final long serialVersionUID = 6425196581224566151L;
+
+        /** The structure id of the last rendered row. */
+        private CmsUUID m_lastItemId;
+
+        /** The resource util of the last rendered row. */
+        private CmsResourceUtil m_lastResourceUtil;
+
+        /**
+         * @see com.vaadin.ui.Table.ColumnGenerator#generateCell(com.vaadin.ui.Table, java.lang.Object, java.lang.Object)
+         */
+        public Object generateCell(Table source, Object itemId, Object columnId) {
+
+            CmsResourceUtil resUtil = getResourceUtil((CmsUUID)itemId);
+            if (resUtil == null) {
+                return null;
+            }
+            if (PROPERTY_TYPE_ICON.equals(columnId)) {
+                return new CmsResourceIcon(resUtil, resUtil.getBigIconPath(), resUtil.getResource().getState(), true);
+            }
+            return getProjectFlag(resUtil);
+        }
+
+        /**
+         * Forgets the resource util of the last rendered row.<p>
+         */
+        protected void reset() {
+
+            m_lastItemId = null;
+            m_lastResourceUtil = null;
+        }
+
+        /**
+         * Returns the resource util for the given row, using the resource and context the table was filled with.<p>
+         *
+         * @param itemId the structure id of the row
+         *
+         * @return the resource util, or <code>null</code> if the resource could not be read
+         */
+        private CmsResourceUtil getResourceUtil(CmsUUID itemId) {
+
+            if (!itemId.equals(m_lastItemId)) {
+                CmsObject cms = m_cms != null ? m_cms : A_CmsUI.getCmsObject();
+                CmsResource resource = m_resources.get(itemId);
+                if (resource == null) {
+                    try {
+                        resource = cms.readResource(itemId, CmsResourceFilter.ALL);
+                    } catch (CmsException e) {
+                        LOG.debug("Unable to read resource with id '" + itemId + "'.", e);
+                        return null;
+                    }
+                    m_resources.put(itemId, resource);
+                }
+                m_lastResourceUtil = new CmsResourceUtil(cms, resource);
+                m_lastItemId = itemId;
+            }
+            return m_lastResourceUtil;
+        }
+    }
+
     /** Flag to mark columns as initially collapsed.*/
     public static final int COLLAPSED = 1;
 
     /** Flag to mark columns as invisible. */
     public static final int INVISIBLE = 2;
 
+    /** The columns holding components, which are generated lazily for the rendered rows only. */
+    private static final Set<CmsResourceTableProperty> LAZY_COLUMNS = Collections.unmodifiableSet(
+        Sets.newHashSet(PROPERTY_TYPE_ICON, PROPERTY_PROJECT));
+
     /** The logger instance for this class. */
     private static final Log LOG = CmsLog.getLog(CmsResourceTable.class);
 
@@ -292,6 +373,15 @@ public class CmsResourceTable extends CustomComponent {
     /** The table used to display the resource data. */
     protected Table m_fileTable = new Table();
 
+    /** The CMS context the table items have been filled with. */
+    private CmsObject m_cms;
+
+    /** The generator for the columns holding components, shared by these columns. */
+    private LazyComponentColumnGenerator m_lazyColumnGenerator = new LazyComponentColumnGenerator();
+
+    /** The resources of the table items, by structure id. */
+    private Map<CmsUUID, CmsResource> m_resources = new HashMap<CmsUUID, CmsResource>();
+
     /**
      * Creates a new instance.<p>
      *
@@ -305,6 +395,10 @@ public class CmsResourceTable extends CustomComponent {
 
     /**
      * Static helper method to initialize the 'standard' properties of a data item from a given resource.<p>
+     *
+     * The resource icon and project flag components are not stored in the item, they are generated by the table
+     * for the visible rows only.<p>
+     *
      * @param resourceItem the resource item to fill
      * @param cms the CMS context
      * @param resource the resource
@@ -343,34 +437,6 @@ public class CmsResourceTable extends CustomComponent {
             LOG.debug("Unable to read properties for resource '" + resource.getRootPath() + "'.", e1);
         }
         I_CmsResourceType type = OpenCms.getResourceManager().getResourceType(resource);
-        if (resourceItem.getItemProperty(PROPERTY_TYPE_ICON) != null) {
-            resourceItem.getItemProperty(PROPERTY_TYPE_ICON).setValue(
-                new CmsResourceIcon(resUtil, resUtil.getBigIconPath(), resource.getState(), true));
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_PROJECT) != null) {
-            Image projectFlag = null;
-            switch (resUtil.getProjectState().getMode()) {
-                case 1:
-                    projectFlag = new Image(
-                        resUtil.getLockedInProjectName(),
-                        new ThemeResource(OpenCmsTheme.PROJECT_CURRENT_PATH));
-                    break;
-                case 2:
-                    projectFlag = new Image(
-                        resUtil.getLockedInProjectName(),
-                        new ThemeResource(OpenCmsTheme.PROJECT_OTHER_PATH));
-                    break;
-                case 5:
-                    projectFlag = new Image(
-                        resUtil.getLockedInProjectName(),
-                        new ThemeResource(OpenCmsTheme.PROJECT_PUBLISH_PATH));
-                    break;
-                default:
-            }
-            resourceItem.getItemProperty(PROPERTY_PROJECT).setValue(projectFlag);
-        }
-
         if (resourceItem.getItemProperty(PROPERTY_INSIDE_PROJECT) != null) {
             resourceItem.getItemProperty(PROPERTY_INSIDE_PROJECT).setValue(Boolean.valueOf(resUtil.isInsideProject()));
         }
@@ -498,6 +564,37 @@ public class CmsResourceTable extends CustomComponent {
         }
     }
 
+    /**
+     * Returns the project flag image for the resource, or <code>null</code> if the resource is not changed in any project.<p>
+     *
+     * @param resUtil the resource util for the resource
+     *
+     * @return the project flag image
+     */
+    public static Image getProjectFlag(CmsResourceUtil resUtil) {
+
+        Image projectFlag = null;
+        switch (resUtil.getProjectState().getMode()) {
+            case 1:
+                projectFlag = new Image(
+                    resUtil.getLockedInProjectName(),
+                    new ThemeResource(OpenCmsTheme.PROJECT_CURRENT_PATH));
+                break;
+            case 2:
+                projectFlag = new Image(
+                    resUtil.getLockedInProjectName(),
+                    new ThemeResource(OpenCmsTheme.PROJECT_OTHER_PATH));
+                break;
+            case 5:
+                projectFlag = new Image(
+                    resUtil.getLockedInProjectName(),
+                    new ThemeResource(OpenCmsTheme.PROJECT_PUBLISH_PATH));
+                break;
+            default:
+        }
+        return projectFlag;
+    }
+
     /**
      * Gets the CSS style name for the given resource state.<p>
      *
@@ -538,6 +635,7 @@ public class CmsResourceTable extends CustomComponent {
         Locale wpLocale = OpenCms.getWorkplaceManager().getWorkplaceLocale(cms);
         m_container.removeAllItems();
         m_container.removeAllContainerFilters();
+        m_resources.clear();
         for (CmsResource resource : resources) {
             fillItem(cms, resource, wpLocale);
         }
@@ -637,6 +735,10 @@ public class CmsResourceTable extends CustomComponent {
         if (resourceItem == null) {
             resourceItem = m_container.addItem(resource.getStructureId());
         }
+        // remember the resource and context for the lazily generated columns
+        m_cms = cms;
+        m_resources.put(resource.getStructureId(), resource);
+        m_lazyColumnGenerator.reset();
         fillItemDefault(resourceItem, cms, resource, CmsVaadinUtils.getWpMessagesForCurrentLocale(), locale);
     }
 
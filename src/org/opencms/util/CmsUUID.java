@@ -35,6 +35,8 @@ import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 
@@ -48,15 +50,19 @@ import org.safehaus.uuid.UUIDGenerator;
  * Spatial uniqueness is derived from
  * ethernet address (MAC, 802.1); temporal from system clock.<p>
  *
- * For more information about the algorithm used, please see
- * <a href="http://www.opengroup.org/dce/info/draft-leach-uuids-guids-01.txt">
- * draft-leach-uuids-guids-01.txt</a>.<p>
+ * New UUIDs use the time-ordered layout of version 6 UUIDs, i.e. the fields of a
+ * version 1 UUID (see <a href="http://www.opengroup.org/dce/info/draft-leach-uuids-guids-01.txt">
+ * draft-leach-uuids-guids-01.txt</a>) with the timestamp stored most significant bits first.
+ * The UUIDs generated by one server therefore sort in the order of their creation, which keeps
+ * the database indexes on the id columns compact. The timestamps are taken from a lock free
+ * counter that never goes backwards, so concurrent threads never have to wait for each other.<p>
  *
  * Because Java is unable to read the MAC address of the machine
  * (without using JNI), the MAC address has to be provided first
  * by using the static {@link #init(String)} method.<p>
  *
- * This class is just a facade wrapper for the "real" UUID implementation.<p>
+ * The UUID is stored as two long values, the "real" UUID implementation
+ * is only used for the name based UUIDs.<p>
  *
  * @since 6.0.0
  */
@@ -65,25 +71,43 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     /** A regular expression for matching UUIDs. */
     public static final String UUID_REGEX = "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}";
 
+    /** The hex digits used for formatting. */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsUUID.class);
 
+    /** The offset between the UUID epoch (1582-10-15) and the Java epoch in 100 nanosecond intervals. */
+    private static final long UUID_EPOCH_OFFSET = 0x01B21DD213814000L;
+
+    /** The random clock sequence including the variant bits, fixed for the life time of this JVM. */
+    private static final long CLOCK_SEQUENCE = 0x8000L | (new Random().nextInt() & 0x3FFFL);
+
+    /** The last timestamp used for generating a UUID. */
+    private static final AtomicLong LAST_TIMESTAMP = new AtomicLong();
+
     /** Ethernet address of the server machine. */
     private static EthernetAddress m_ethernetAddress;
 
+    /** The node part of the generated UUIDs, i.e. the ethernet address of the server machine. */
+    private static volatile long m_node;
+
     /** OpenCms UUID (name based uuid of "www.opencms.org" in the dns name space). */
     private static UUID m_opencmsUUID = UUIDGenerator.getInstance().generateNameBasedUUID(
         new UUID(UUID.NAMESPACE_DNS),
         "www.opencms.org");
 
     /** Constant for the null UUID. */
-    private static final CmsUUID NULL_UUID = new CmsUUID(UUID.getNullUUID());
+    private static final CmsUUID NULL_UUID = new CmsUUID(0L, 0L);
 
     /** Serial version UID required for safe serialization. */
     private static final long serialVersionUID = 1736324454709298676L;
 
-    /** Internal UUID implementation. */
-    private transient UUID m_uuid;
+    /** The least significant 64 bits of the UUID. */
+    private transient long m_leastSigBits;
+
+    /** The most significant 64 bits of the UUID. */
+    private transient long m_mostSigBits;
 
     /**
      * Creates a new UUID.<p>
@@ -99,7 +123,10 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
             // since the empty constructor is called when the de-serialization takes place
             init(CmsStringUtil.getEthernetAddress());
         }
-        m_uuid = UUIDGenerator.getInstance().generateTimeBasedUUID(m_ethernetAddress);
+        long timestamp = nextTimestamp();
+        m_mostSigBits = ((timestamp >>> 28) << 32) | (((timestamp >>> 12) & 0xFFFFL) << 16) | 0x6000L
+            | (timestamp & 0x0FFFL);
+        m_leastSigBits = (CLOCK_SEQUENCE << 48) | m_node;
     }
 
     /**
@@ -109,7 +136,16 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public CmsUUID(byte[] data) {
 
-        m_uuid = new UUID(data);
+        long mostSigBits = 0;
+        long leastSigBits = 0;
+        for (int i = 0; i < 8; i++) {
+            mostSigBits = (mostSigBits << 8) | (data[i] & 0xFF);
+        }
+        for (int i = 8; i < 16; i++) {
+            leastSigBits = (leastSigBits << 8) | (data[i] & 0xFF);
+        }
+        m_mostSigBits = mostSigBits;
+        m_leastSigBits = leastSigBits;
     }
 
     /**
@@ -121,17 +157,19 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     public CmsUUID(String uuid)
     throws NumberFormatException {
 
-        m_uuid = new UUID(uuid);
+        parse(uuid);
     }
 
     /**
-     * Create a new UUID based on another one (used internal for cloning).<p>
+     * Create a new UUID from its two long values.<p>
      *
-     * @param uuid the UUID to clone
+     * @param mostSigBits the most significant 64 bits
+     * @param leastSigBits the least significant 64 bits
      */
-    private CmsUUID(UUID uuid) {
+    private CmsUUID(long mostSigBits, long leastSigBits) {
 
-        m_uuid = uuid;
+        m_mostSigBits = mostSigBits;
+        m_leastSigBits = leastSigBits;
     }
 
     /**
@@ -161,7 +199,7 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public static CmsUUID getConstantUUID(String name) {
 
-        return new CmsUUID(UUIDGenerator.getInstance().generateNameBasedUUID(m_opencmsUUID, name));
+        return new CmsUUID(UUIDGenerator.getInstance().generateNameBasedUUID(m_opencmsUUID, name).asByteArray());
     }
 
     /**
@@ -193,7 +231,7 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public static CmsUUID getOpenCmsUUID() {
 
-        return new CmsUUID(m_opencmsUUID);
+        return new CmsUUID(m_opencmsUUID.asByteArray());
     }
 
     /**
@@ -208,7 +246,13 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     public static void init(String ethernetAddress) throws CmsInitException {
 
         try {
-            m_ethernetAddress = new EthernetAddress(ethernetAddress);
+            EthernetAddress address = new EthernetAddress(ethernetAddress);
+            long node = 0;
+            for (byte b : address.asByteArray()) {
+                node = (node << 8) | (b & 0xFF);
+            }
+            m_node = node & 0xFFFFFFFFFFFFL;
+            m_ethernetAddress = address;
         } catch (Exception e) {
             throw new CmsInitException(
                 Messages.get().container(Messages.ERR_INVALID_ETHERNET_ADDRESS_1, ethernetAddress));
@@ -224,12 +268,20 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public static boolean isValidUUID(String uuid) {
 
-        try {
-            return (null != uuid) && (null != UUID.valueOf(uuid));
-        } catch (NumberFormatException e) {
-            // return false
+        if ((uuid == null) || (uuid.length() != 36)) {
+            return false;
         }
-        return false;
+        for (int i = 0; i < 36; i++) {
+            char c = uuid.charAt(i);
+            if ((i == 8) || (i == 13) || (i == 18) || (i == 23)) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -243,7 +295,27 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public static CmsUUID valueOf(String uuid) throws NumberFormatException {
 
-        return new CmsUUID(UUID.valueOf(uuid));
+        return new CmsUUID(uuid);
+    }
+
+    /**
+     * Returns the next timestamp for a generated UUID in 100 nanosecond intervals since the UUID epoch.<p>
+     *
+     * The timestamp is the current time, or one more than the last timestamp if the clock has not advanced
+     * or has been set back, so no two UUIDs generated in this JVM get the same timestamp.<p>
+     *
+     * @return the next timestamp
+     */
+    private static long nextTimestamp() {
+
+        long now = (System.currentTimeMillis() * 10000L) + UUID_EPOCH_OFFSET;
+        while (true) {
+            long last = LAST_TIMESTAMP.get();
+            long next = now > last ? now : last + 1;
+            if (LAST_TIMESTAMP.compareAndSet(last, next)) {
+                return next;
+            }
+        }
     }
 
     /**
@@ -257,7 +329,7 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
         if (this == NULL_UUID) {
             return NULL_UUID;
         }
-        return new CmsUUID((UUID)m_uuid.clone());
+        return new CmsUUID(m_mostSigBits, m_leastSigBits);
     }
 
     /**
@@ -265,7 +337,12 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public int compareTo(CmsUUID obj) {
 
-        return m_uuid.compareTo(obj.m_uuid);
+        // compare unsigned, which is the same order as comparing the String representations
+        int result = compareUnsigned(m_mostSigBits, obj.m_mostSigBits);
+        if (result == 0) {
+            result = compareUnsigned(m_leastSigBits, obj.m_leastSigBits);
+        }
+        return result;
     }
 
     /**
@@ -278,7 +355,8 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
             return true;
         }
         if (obj instanceof CmsUUID) {
-            return ((CmsUUID)obj).m_uuid.equals(m_uuid);
+            CmsUUID other = (CmsUUID)obj;
+            return (m_mostSigBits == other.m_mostSigBits) && (m_leastSigBits == other.m_leastSigBits);
         }
         return false;
     }
@@ -303,7 +381,8 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     @Override
     public int hashCode() {
 
-        return m_uuid.hashCode();
+        long bits = m_mostSigBits ^ m_leastSigBits;
+        return (int)(bits >> 32) ^ (int)bits;
     }
 
     /**
@@ -316,7 +395,7 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
         if (this == NULL_UUID) {
             return true;
         }
-        return m_uuid.equals(UUID.getNullUUID());
+        return (m_mostSigBits == 0L) && (m_leastSigBits == 0L);
     }
 
     /**
@@ -341,16 +420,18 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
             }
         }
 
+        boolean read = false;
         if (o instanceof String) {
             // this UUID has been serialized using the new method
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_READ_UUID_1, o));
             }
-            m_uuid = new UUID((String)o);
+            parse((String)o);
+            read = true;
         }
 
         // log an error if the uuid could not be deserialized
-        if (m_uuid == null) {
+        if (!read) {
             // UUID cannot be deserialized
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_ERR_READ_UUID_0));
@@ -365,7 +446,12 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
      */
     public byte[] toByteArray() {
 
-        return m_uuid.toByteArray();
+        byte[] result = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            result[i] = (byte)(m_mostSigBits >>> (56 - (i * 8)));
+            result[i + 8] = (byte)(m_leastSigBits >>> (56 - (i * 8)));
+        }
+        return result;
     }
 
     /**
@@ -374,7 +460,17 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     @Override
     public String toString() {
 
-        return m_uuid.toString();
+        char[] result = new char[36];
+        formatHex(result, 0, m_mostSigBits >>> 32, 8);
+        result[8] = '-';
+        formatHex(result, 9, m_mostSigBits >>> 16, 4);
+        result[13] = '-';
+        formatHex(result, 14, m_mostSigBits, 4);
+        result[18] = '-';
+        formatHex(result, 19, m_leastSigBits >>> 48, 4);
+        result[23] = '-';
+        formatHex(result, 24, m_leastSigBits, 12);
+        return new String(result);
     }
 
     /**
@@ -388,4 +484,80 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
         }
         out.writeObject(toString());
     }
+
+    /**
+     * Compares two long values as unsigned numbers.<p>
+     *
+     * @param a the first value
+     * @param b the second value
+     *
+     * @return the comparison result
+     */
+    private int compareUnsigned(long a, long b) {
+
+        long x = a + Long.MIN_VALUE;
+        long y = b + Long.MIN_VALUE;
+        return x < y ? -1 : (x == y ? 0 : 1);
+    }
+
+    /**
+     * Writes the lowest digits of the given value as lower case hex digits.<p>
+     *
+     * @param buffer the buffer to write to
+     * @param offset the position of the first digit in the buffer
+     * @param value the value to write
+     * @param digits the number of digits to write
+     */
+    private void formatHex(char[] buffer, int offset, long value, int digits) {
+
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = HEX_DIGITS[(int)(value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * Parses the given UUID String into this UUID.<p>
+     *
+     * @param uuid a String representing a UUID
+     *
+     * @throws NumberFormatException in case uuid is not a valid UUID
+     */
+    private void parse(String uuid) throws NumberFormatException {
+
+        if ((uuid == null)
+            || (uuid.length() != 36)
+            || (uuid.charAt(8) != '-')
+            || (uuid.charAt(13) != '-')
+            || (uuid.charAt(18) != '-')
+            || (uuid.charAt(23) != '-')) {
+            throw new NumberFormatException("Invalid UUID: " + uuid);
+        }
+        m_mostSigBits = (parseHex(uuid, 0, 8) << 32) | (parseHex(uuid, 9, 13) << 16) | parseHex(uuid, 14, 18);
+        m_leastSigBits = (parseHex(uuid, 19, 23) << 48) | parseHex(uuid, 24, 36);
+    }
+
+    /**
+     * Parses the hex digits in the given range of the String.<p>
+     *
+     * @param uuid the UUID String
+     * @param start the start index
+     * @param end the end index (exclusive)
+     *
+     * @return the parsed value
+     *
+     * @throws NumberFormatException if the range contains a character that is not a hex digit
+     */
+    private long parseHex(String uuid, int start, int end) throws NumberFormatException {
+
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(uuid.charAt(i), 16);
+            if (digit < 0) {
+                throw new NumberFormatException("Invalid UUID: " + uuid);
+            }
+            result = (result << 4) | digit;
+        }
+        return result;
+    }
 }
\ No newline at end of file
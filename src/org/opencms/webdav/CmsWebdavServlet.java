@@ -110,8 +110,11 @@ import org.dom4j.Element;
 import org.dom4j.Namespace;
 import org.dom4j.Node;
 import org.dom4j.QName;
+import org.dom4j.io.OutputFormat;
 import org.dom4j.io.SAXReader;
+import org.dom4j.io.XMLWriter;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 
 /**
  * Servlet which adds support for WebDAV level 2.<p>
@@ -710,20 +713,8 @@ public class CmsWebdavServlet extends HttpServlet {
     protected void copy(I_CmsRepositoryItem item, ServletOutputStream ostream, CmsWebdavRange range)
     throws IOException {
 
-        IOException exception = null;
-
-        InputStream resourceInputStream = new ByteArrayInputStream(item.getContent());
-        InputStream istream = new BufferedInputStream(resourceInputStream, m_input);
-        exception = copyRange(istream, ostream, range.getStart(), range.getEnd());
-
-        // Clean up the input stream
-        try {
-            istream.close();
-        } catch (Exception e) {
-            if (LOG.isErrorEnabled()) {
-                LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_INPUT_STREAM_0), e);
-            }
-        }
+        // the content is held in memory by the item, so the range is written directly from it
+        IOException exception = copyRange(item.getContent(), ostream, range.getStart(), range.getEnd());
 
         // Rethrow any exception that has occurred
         if (exception != null) {
@@ -751,10 +742,10 @@ public class CmsWebdavServlet extends HttpServlet {
 
         IOException exception = null;
 
-        while ((exception == null) && (ranges.hasNext())) {
+        // read the content only once for all ranges
+        byte[] content = item.getContent();
 
-            InputStream resourceInputStream = new ByteArrayInputStream(item.getContent());
-            InputStream istream = new BufferedInputStream(resourceInputStream, m_input);
+        while ((exception == null) && (ranges.hasNext())) {
 
             CmsWebdavRange currentRange = ranges.next();
 
@@ -774,15 +765,7 @@ public class CmsWebdavServlet extends HttpServlet {
             ostream.println();
 
             // Printing content
-            exception = copyRange(istream, ostream, currentRange.getStart(), currentRange.getEnd());
-
-            try {
-                istream.close();
-            } catch (Exception e) {
-                if (LOG.isErrorEnabled()) {
-                    LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_INPUT_STREAM_0), e);
-                }
-            }
+            exception = copyRange(content, ostream, currentRange.getStart(), currentRange.getEnd());
 
         }
 
@@ -795,6 +778,36 @@ public class CmsWebdavServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Copy the given range of the specified content to the specified output stream.<p>
+     *
+     * @param content the content to read from
+     * @param ostream the output stream to write to
+     * @param start the start of the range which will be copied
+     * @param end the end of the range which will be copied
+     *
+     * @return the exception which occurred during processing
+     */
+    protected IOException copyRange(byte[] content, ServletOutputStream ostream, long start, long end) {
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_SERVE_BYTES_2, new Long(start), new Long(end)));
+        }
+
+        if ((content == null) || (start >= content.length)) {
+            return null;
+        }
+
+        int from = (int)start;
+        int to = (int)Math.min(end, content.length - 1L);
+        try {
+            ostream.write(content, from, (to - from) + 1);
+        } catch (IOException e) {
+            return e;
+        }
+        return null;
+    }
+
     /**
      * Copy the contents of the specified input stream to the specified
      * output stream, and ensure that both streams are closed before returning
@@ -1906,12 +1919,24 @@ public class CmsWebdavServlet extends HttpServlet {
         resp.setStatus(CmsWebdavStatus.SC_MULTI_STATUS);
         resp.setContentType("text/xml; charset=UTF-8");
 
-        // Create multistatus object
-        Document doc = DocumentHelper.createDocument();
-        Element multiStatusElem = doc.addElement(new QName(TAG_MULTISTATUS, Namespace.get("D", DEFAULT_NAMESPACE)));
+        // Create multistatus object, the response elements are streamed to the client one by one
+        // so that deep listings do not need to be held in memory as a whole
+        Element multiStatusElem = DocumentHelper.createElement(
+            new QName(TAG_MULTISTATUS, Namespace.get("D", DEFAULT_NAMESPACE)));
+        Writer writer = resp.getWriter();
+        XMLWriter xmlWriter = new XMLWriter(writer, new OutputFormat());
+        try {
+            xmlWriter.startDocument();
+        } catch (SAXException e) {
+            throw new IOException(e);
+        }
+        // XMLWriter.writeOpen does not write namespace declarations, so the root tag is written directly
+        writer.write(
+            "<" + multiStatusElem.getQualifiedName() + " xmlns:D=\"" + DEFAULT_NAMESPACE + "\">");
 
         if (depth == 0) {
             parseProperties(req, multiStatusElem, item, type, properties);
+            writeResponses(xmlWriter, multiStatusElem);
         } else {
             // The stack always contains the object of the current level
             Stack<I_CmsRepositoryItem> stack = new Stack<I_CmsRepositoryItem>();
@@ -1924,6 +1949,7 @@ public class CmsWebdavServlet extends HttpServlet {
 
                 I_CmsRepositoryItem currentItem = stack.pop();
                 parseProperties(req, multiStatusElem, currentItem, type, properties);
+                writeResponses(xmlWriter, multiStatusElem);
 
                 if ((currentItem.isCollection()) && (depth > 0)) {
 
@@ -1937,15 +1963,21 @@ public class CmsWebdavServlet extends HttpServlet {
 
                     } catch (CmsException e) {
 
-                        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-
                         if (LOG.isErrorEnabled()) {
                             LOG.error(
                                 Messages.get().getBundle().key(Messages.LOG_LIST_ITEMS_ERROR_1, currentItem.getName()),
                                 e);
                         }
 
-                        return;
+                        if (!resp.isCommitted()) {
+                            // nothing has been sent yet, so we can still report the error
+                            resp.resetBuffer();
+                            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                            return;
+                        }
+
+                        // the multistatus response is already on its way, close it properly
+                        break;
                     }
                 }
 
@@ -1957,8 +1989,12 @@ public class CmsWebdavServlet extends HttpServlet {
             }
         }
 
-        Writer writer = resp.getWriter();
-        doc.write(writer);
+        writer.write("</" + multiStatusElem.getQualifiedName() + ">");
+        try {
+            xmlWriter.endDocument();
+        } catch (SAXException e) {
+            throw new IOException(e);
+        }
         writer.close();
     }
 
@@ -3613,4 +3649,23 @@ public class CmsWebdavServlet extends HttpServlet {
         doc.write(writer);
         writer.close();
     }
+
+    /**
+     * Writes all response elements currently attached to the given multistatus element
+     * to the client and detaches them afterwards.<p>
+     *
+     * @param xmlWriter the XML writer the multistatus element has been opened with
+     * @param multiStatusElem the multistatus element
+     *
+     * @throws IOException if errors while writing to response occurs
+     */
+    private void writeResponses(XMLWriter xmlWriter, Element multiStatusElem) throws IOException {
+
+        @SuppressWarnings("unchecked")
+        List<Element> responses = new ArrayList<Element>(multiStatusElem.elements());
+        for (Element responseElem : responses) {
+            xmlWriter.write(responseElem);
+            multiStatusElem.remove(responseElem);
+        }
+    }
 }
\ No newline at end of file
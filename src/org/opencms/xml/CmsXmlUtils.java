@@ -55,6 +55,7 @@ import org.xml.sax.SAXException;
 import org.xml.sax.SAXNotRecognizedException;
 import org.xml.sax.SAXNotSupportedException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.ext.DefaultHandler2;
 import org.xml.sax.helpers.XMLReaderFactory;
 
 /**
@@ -64,9 +65,25 @@ import org.xml.sax.helpers.XMLReaderFactory;
  */
 public final class CmsXmlUtils {
 
+    /** The SAX feature to load external DTDs with a non validating parser. */
+    private static final String FEATURE_LOAD_EXTERNAL_DTD = "http://apache.org/xml/features/"
+        + "nonvalidating/load-external-dtd";
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsXmlUtils.class);
 
+    /** The SAX property for the lexical handler. */
+    private static final String PROPERTY_LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
+
+    /** The handler set on the XML readers kept for reuse. */
+    private static final DefaultHandler2 RELEASED_READER_HANDLER = new DefaultHandler2();
+
+    /** The XML readers used for unmarshalling, kept for reuse by each thread. */
+    private static final ThreadLocal<XMLReader> UNMARSHAL_READERS = new ThreadLocal<XMLReader>();
+
+    /** The validating XML readers, kept for reuse by each thread. */
+    private static final ThreadLocal<XMLReader> VALIDATION_READERS = new ThreadLocal<XMLReader>();
+
     /**
      * Prevents instances of this class from being generated.<p>
      */
@@ -678,8 +695,16 @@ public final class CmsXmlUtils {
     public static Document unmarshalHelper(InputSource source, EntityResolver resolver, boolean validate)
     throws CmsXmlException {
 
+        // the reader of this thread is taken out while in use, so nested calls create their own reader
+        XMLReader xmlReader = UNMARSHAL_READERS.get();
+        UNMARSHAL_READERS.remove();
         try {
             SAXReader reader = new SAXReader();
+            if (xmlReader != null) {
+                reader.setXMLReader(xmlReader);
+            } else {
+                xmlReader = reader.getXMLReader();
+            }
             if (resolver != null) {
                 reader.setEntityResolver(resolver);
             }
@@ -687,8 +712,9 @@ public final class CmsXmlUtils {
             reader.setStripWhitespaceText(true);
             if (!validate) {
                 reader.setValidation(false);
-                reader.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
             }
+            // always set, since the reader may have been used with the other setting before
+            reader.setFeature(FEATURE_LOAD_EXTERNAL_DTD, validate);
             return reader.read(source);
         } catch (DocumentException e) {
             throw new CmsXmlException(
@@ -702,6 +728,10 @@ public final class CmsXmlUtils {
                     Messages.ERR_UNMARSHALLING_XML_DOC_1,
                     "(systemId = " + source.getSystemId() + ")"),
                 e);
+        } finally {
+            if (xmlReader != null) {
+                releaseReader(xmlReader, UNMARSHAL_READERS);
+            }
         }
     }
 
@@ -767,6 +797,30 @@ public final class CmsXmlUtils {
      */
     public static void validateXmlStructure(InputStream xmlStream, EntityResolver resolver) throws CmsXmlException {
 
+        // the reader of this thread is taken out while in use, so nested calls create their own reader
+        XMLReader reader = VALIDATION_READERS.get();
+        VALIDATION_READERS.remove();
+        if (reader == null) {
+            reader = createValidationReader();
+            if (reader == null) {
+                // no validation of the content is possible
+                return;
+            }
+        }
+        try {
+            validateXmlStructure(reader, xmlStream, resolver);
+        } finally {
+            releaseReader(reader, VALIDATION_READERS);
+        }
+    }
+
+    /**
+     * Creates a XML reader validating the documents with their DTD or XML schema.<p>
+     *
+     * @return the XML reader, or <code>null</code> if no validating reader is available
+     */
+    private static XMLReader createValidationReader() {
+
         XMLReader reader;
         try {
             reader = XMLReaderFactory.createXMLReader("org.apache.xerces.parsers.SAXParser");
@@ -775,8 +829,7 @@ public final class CmsXmlUtils {
             if (LOG.isWarnEnabled()) {
                 LOG.warn(Messages.get().getBundle().key(Messages.LOG_VALIDATION_INIT_XERXES_SAX_READER_FAILED_0), e);
             }
-            // no validation of the content is possible
-            return;
+            return null;
         }
         // turn on validation
         try {
@@ -791,16 +844,50 @@ public final class CmsXmlUtils {
             if (LOG.isWarnEnabled()) {
                 LOG.warn(Messages.get().getBundle().key(Messages.LOG_SAX_READER_FEATURE_NOT_RECOGNIZED_0), e);
             }
-            // no validation of the content is possible
-            return;
+            return null;
         } catch (SAXNotSupportedException e) {
             // should not happen as Xerces 2 support this feature
             if (LOG.isWarnEnabled()) {
                 LOG.warn(Messages.get().getBundle().key(Messages.LOG_SAX_READER_FEATURE_NOT_SUPPORTED_0), e);
             }
-            // no validation of the content is possible
-            return;
+            return null;
         }
+        return reader;
+    }
+
+    /**
+     * Resets the handlers of the given XML reader and keeps it for reuse by the current thread.<p>
+     *
+     * The handlers are reset so the reader does not keep the last parsed document or entity resolver in memory.<p>
+     *
+     * @param reader the XML reader
+     * @param readers the XML readers of the threads
+     */
+    private static void releaseReader(XMLReader reader, ThreadLocal<XMLReader> readers) {
+
+        reader.setContentHandler(RELEASED_READER_HANDLER);
+        reader.setDTDHandler(RELEASED_READER_HANDLER);
+        reader.setEntityResolver(RELEASED_READER_HANDLER);
+        reader.setErrorHandler(RELEASED_READER_HANDLER);
+        try {
+            reader.setProperty(PROPERTY_LEXICAL_HANDLER, RELEASED_READER_HANDLER);
+        } catch (SAXException e) {
+            // the reader does not support lexical handlers, so there is nothing to reset
+        }
+        readers.set(reader);
+    }
+
+    /**
+     * Validates the structure of a XML document with the given validating XML reader.<p>
+     *
+     * @param reader the validating XML reader
+     * @param xmlStream a source providing a XML document that should be validated
+     * @param resolver the XML entity resolver to use
+     *
+     * @throws CmsXmlException if the validation fails
+     */
+    private static void validateXmlStructure(XMLReader reader, InputStream xmlStream, EntityResolver resolver)
+    throws CmsXmlException {
 
         // add an error handler which turns any errors into XML
         CmsXmlValidationErrorHandler errorHandler = new CmsXmlValidationErrorHandler();
@@ -846,4 +933,4 @@ public final class CmsXmlUtils {
             throw new CmsXmlException(Messages.get().container(Messages.ERR_XML_VALIDATION_1, out.toString()));
         }
     }
-}
\ No newline at end of file
+}
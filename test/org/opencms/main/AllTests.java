@@ -66,6 +66,7 @@ public final class AllTests {
         suite.addTest(TestOpenCmsSingleton.suite());
         suite.addTest(TestCmsEvents.suite());
         suite.addTest(TestCmsSystemInfo.suite());
+        suite.addTest(TestCmsSessionStorageProvider.suite());
         // $JUnit-END$
         return suite;
     }
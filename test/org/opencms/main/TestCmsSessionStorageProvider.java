@@ -0,0 +1,220 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsRequestContext;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Test case for {@link CmsDefaultSessionStorageProvider}.<p>
+ *
+ * @since 10.5.0
+ */
+public class TestCmsSessionStorageProvider extends OpenCmsTestCase {
+
+    /** The number of concurrently updating threads. */
+    private static final int THREADS = 8;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsSessionStorageProvider(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsSessionStorageProvider.class.getName());
+
+        suite.addTest(new TestCmsSessionStorageProvider("testConcurrentUpdates"));
+        suite.addTest(new TestCmsSessionStorageProvider("testValidate"));
+        suite.addTest(new TestCmsSessionStorageProvider("testValidateLoad"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms(null, "/sites/default/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that concurrent puts and removes of sessions of the same user keep the user index consistent.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testConcurrentUpdates() throws Exception {
+
+        echo("Testing concurrent updates of the session storage");
+        final CmsDefaultSessionStorageProvider provider = new CmsDefaultSessionStorageProvider();
+        provider.initialize();
+        final CmsRequestContext context = getCmsObject().getRequestContext();
+        final CmsUUID userId = context.getCurrentUser().getId();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        final Set<CmsUUID> remaining = Collections.synchronizedSet(new HashSet<CmsUUID>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        start.await();
+                        for (int j = 0; j < 20000; j++) {
+                            // the index set of the user is emptied and recreated all the time
+                            CmsUUID sessionId = new CmsUUID();
+                            provider.put(new CmsSessionInfo(context, sessionId, 3600));
+                            provider.remove(sessionId);
+                        }
+                        CmsUUID sessionId = new CmsUUID();
+                        provider.put(new CmsSessionInfo(context, sessionId, 3600));
+                        remaining.add(sessionId);
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue("Errors in update threads: " + errors, errors.isEmpty());
+        assertEquals(THREADS, provider.getSize());
+        Set<CmsUUID> userSessions = new HashSet<CmsUUID>();
+        for (CmsSessionInfo sessionInfo : provider.getAllOfUser(userId)) {
+            userSessions.add(sessionInfo.getSessionId());
+        }
+        assertEquals(remaining, userSessions);
+    }
+
+    /**
+     * Tests that validation removes exactly the expired sessions.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testValidate() throws Exception {
+
+        echo("Testing validation of the session storage");
+        CmsDefaultSessionStorageProvider provider = new CmsDefaultSessionStorageProvider();
+        provider.initialize();
+        CmsObject guest = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+        CmsRequestContext adminContext = getCmsObject().getRequestContext();
+        CmsRequestContext guestContext = guest.getRequestContext();
+        CmsUUID valid = new CmsUUID();
+        provider.put(new CmsSessionInfo(adminContext, valid, 3600));
+        provider.put(new CmsSessionInfo(adminContext, new CmsUUID(), -1));
+        provider.put(new CmsSessionInfo(guestContext, new CmsUUID(), -1));
+        provider.validate();
+        assertEquals(1, provider.getSize());
+        assertNotNull(provider.get(valid));
+        assertEquals(1, provider.getAllOfUser(adminContext.getCurrentUser().getId()).size());
+        assertTrue(provider.getAllOfUser(guestContext.getCurrentUser().getId()).isEmpty());
+    }
+
+    /**
+     * Tests that the validation cost depends on the expired sessions, not on the number of all sessions.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testValidateLoad() throws Exception {
+
+        echo("Testing validation of the session storage with many sessions");
+        long small = validateLoad(1000);
+        long large = validateLoad(50000);
+        echo("Validating 1000 sessions took " + small + " ms, validating 50000 sessions took " + large + " ms");
+    }
+
+    /**
+     * Fills a new storage with the given number of valid sessions and 100 expired sessions,
+     * validates it and checks the result.<p>
+     *
+     * @param count the number of valid sessions
+     *
+     * @return the time the validation took in milliseconds
+     *
+     * @throws Exception if something goes wrong
+     */
+    private long validateLoad(int count) throws Exception {
+
+        CmsDefaultSessionStorageProvider provider = new CmsDefaultSessionStorageProvider();
+        provider.initialize();
+        CmsRequestContext context = getCmsObject().getRequestContext();
+        for (int i = 0; i < count; i++) {
+            provider.put(new CmsSessionInfo(context, new CmsUUID(), 3600));
+        }
+        for (int i = 0; i < 100; i++) {
+            provider.put(new CmsSessionInfo(context, new CmsUUID(), -1));
+        }
+        long start = System.currentTimeMillis();
+        provider.validate();
+        long time = System.currentTimeMillis() - start;
+        assertEquals(count, provider.getSize());
+        assertEquals(count, provider.getAllOfUser(context.getCurrentUser().getId()).size());
+        return time;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.monitor;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the access frequency counting of the <code>{@link CmsAccessSketch}</code>.<p>
+ */
+public class TestCmsAccessSketch extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsAccessSketch(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that the counters are aged when the sketch is maintained.<p>
+     */
+    public void testAging() {
+
+        CmsAccessSketch sketch = new CmsAccessSketch(3);
+        for (int i = 0; i < 10; i++) {
+            sketch.record("/hot.html");
+        }
+        for (int i = 0; i < 4; i++) {
+            sketch.record("/warm.html");
+        }
+        for (int i = 0; i < 20; i++) {
+            sketch.record("/cold" + i + ".html");
+        }
+        // recording never drops keys
+        assertEquals(22, sketch.size());
+        sketch.maintain();
+        // the counters have been halved since more than 30 accesses were recorded, the cold keys are gone
+        assertEquals(2, sketch.size());
+        assertEquals("/hot.html", sketch.getTopKeys(1).get(0));
+        assertEquals(5, sketch.getCount("/hot.html"));
+        assertEquals(2, sketch.getCount("/warm.html"));
+    }
+
+    /**
+     * Tests removing keys and clearing the sketch.<p>
+     */
+    public void testRemoveAndClear() {
+
+        CmsAccessSketch sketch = new CmsAccessSketch(10);
+        sketch.record("/a.html");
+        sketch.record("/b.html");
+        sketch.remove("/a.html");
+        sketch.remove("/unknown.html");
+        assertEquals(1, sketch.size());
+        assertEquals(0, sketch.getCount("/a.html"));
+        sketch.clear();
+        assertEquals(0, sketch.size());
+        assertTrue(sketch.getTopKeys(10).isEmpty());
+    }
+
+    /**
+     * Tests that the keys are returned ordered by their access count.<p>
+     */
+    public void testTopKeys() {
+
+        CmsAccessSketch sketch = new CmsAccessSketch(10);
+        sketch.record("/a.html");
+        sketch.record("/b.html");
+        sketch.record("/b.html");
+        sketch.record("/c.html");
+        sketch.record("/c.html");
+        sketch.record("/c.html");
+        sketch.record(null);
+        assertEquals(3, sketch.size());
+        List<String> expected = Arrays.asList("/c.html", "/b.html", "/a.html");
+        assertEquals(expected, sketch.getTopKeys(10));
+        assertEquals(expected.subList(0, 2), sketch.getTopKeys(2));
+    }
+
+    /**
+     * Tests that the sketch is trimmed to the most frequently used keys when it is maintained.<p>
+     */
+    public void testTrim() {
+
+        CmsAccessSketch sketch = new CmsAccessSketch(3);
+        for (int i = 0; i < 7; i++) {
+            for (int j = 0; j <= i; j++) {
+                sketch.record("/page" + i + ".html");
+            }
+        }
+        assertEquals(7, sketch.size());
+        sketch.maintain();
+        // 28 accesses do not age the counters, but the sketch has grown beyond twice its capacity
+        assertEquals(3, sketch.size());
+        assertEquals(Arrays.asList("/page6.html", "/page5.html", "/page4.html"), sketch.getTopKeys(3));
+        assertEquals(7, sketch.getCount("/page6.html"));
+        // a sketch within twice its capacity is not trimmed
+        sketch.record("/new.html");
+        sketch.maintain();
+        assertEquals(4, sketch.size());
+        assertEquals(1, sketch.getCount("/new.html"));
+    }
+}
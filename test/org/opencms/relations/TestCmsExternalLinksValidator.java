@@ -0,0 +1,226 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.relations;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests for the concurrent link checks of the <code>{@link CmsExternalLinksValidator}</code>,
+ * using a local stub HTTP server.<p>
+ */
+public class TestCmsExternalLinksValidator extends OpenCmsTestCase {
+
+    /**
+     * Stub handler answering with a fixed status, optionally rejecting HEAD requests,
+     * and recording the number of requests and the maximum number of concurrent requests.<p>
+     */
+    private static class StubHandler implements HttpHandler {
+
+        /** The number of requests currently handled. */
+        AtomicInteger m_active = new AtomicInteger();
+
+        /** The maximum number of requests handled concurrently. */
+        AtomicInteger m_maxActive = new AtomicInteger();
+
+        /** The number of requests received. */
+        AtomicInteger m_requests = new AtomicInteger();
+
+        /** The delay before answering in milliseconds. */
+        private long m_delay;
+
+        /** True if HEAD requests should be answered with 405. */
+        private boolean m_rejectHead;
+
+        /** The status to answer with. */
+        private int m_status;
+
+        /**
+         * Creates a new stub handler.<p>
+         *
+         * @param status the status to answer with
+         * @param rejectHead true if HEAD requests should be answered with 405
+         * @param delay the delay before answering in milliseconds
+         */
+        StubHandler(int status, boolean rejectHead, long delay) {
+
+            m_status = status;
+            m_rejectHead = rejectHead;
+            m_delay = delay;
+        }
+
+        /**
+         * @see com.sun.net.httpserver.HttpHandler#handle(com.sun.net.httpserver.HttpExchange)
+         */
+        public void handle(HttpExchange exchange) throws IOException {
+
+            m_requests.incrementAndGet();
+            int active = m_active.incrementAndGet();
+            synchronized (m_maxActive) {
+                m_maxActive.set(Math.max(active, m_maxActive.get()));
+            }
+            try {
+                if (m_delay > 0) {
+                    Thread.sleep(m_delay);
+                }
+            } catch (InterruptedException e) {
+                // ignore
+            } finally {
+                m_active.decrementAndGet();
+            }
+            int status = (m_rejectHead && "HEAD".equals(exchange.getRequestMethod())) ? 405 : m_status;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        }
+    }
+
+    /** The stub server. */
+    private HttpServer m_server;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsExternalLinksValidator(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests the HEAD-then-GET checks and that each URL is only requested once.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCheckUrls() throws Exception {
+
+        StubHandler ok = new StubHandler(200, false, 0);
+        StubHandler noHead = new StubHandler(200, true, 0);
+        StubHandler missing = new StubHandler(404, false, 0);
+        m_server.createContext("/ok", ok);
+        m_server.createContext("/nohead", noHead);
+        m_server.createContext("/missing", missing);
+        m_server.start();
+
+        List<URL> urls = new ArrayList<URL>();
+        urls.add(getUrl("/ok"));
+        urls.add(getUrl("/nohead"));
+        urls.add(getUrl("/missing"));
+        urls.add(getUrl("/ok"));
+        CmsExternalLinksValidator validator = new CmsExternalLinksValidator();
+        Map<String, Boolean> result = validator.checkUrls(urls);
+        assertEquals(3, result.size());
+        assertEquals(Boolean.TRUE, result.get(getUrl("/ok").toExternalForm()));
+        assertEquals(Boolean.TRUE, result.get(getUrl("/nohead").toExternalForm()));
+        assertEquals(Boolean.FALSE, result.get(getUrl("/missing").toExternalForm()));
+        assertEquals(1, ok.m_requests.get());
+        assertEquals(2, noHead.m_requests.get());
+        assertEquals(2, missing.m_requests.get());
+
+        // the results are cached
+        result = validator.checkUrls(urls);
+        assertEquals(3, result.size());
+        assertEquals(1, ok.m_requests.get());
+    }
+
+    /**
+     * Tests that the links are checked concurrently, but with no more connections per host than configured.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testHostLimit() throws Exception {
+
+        StubHandler slow = new StubHandler(200, false, 100);
+        m_server.createContext("/slow", slow);
+        m_server.start();
+
+        List<URL> urls = new ArrayList<URL>();
+        for (int i = 0; i < 20; i++) {
+            urls.add(getUrl("/slow?i=" + i));
+        }
+        CmsExternalLinksValidator validator = new CmsExternalLinksValidator();
+        validator.setThreads(10);
+        validator.setThreadsPerHost(4);
+        long start = System.currentTimeMillis();
+        Map<String, Boolean> result = validator.checkUrls(urls);
+        long time = System.currentTimeMillis() - start;
+        echo("Checked " + urls.size() + " links in " + time + " ms");
+        assertEquals(20, result.size());
+        assertFalse(result.containsValue(Boolean.FALSE));
+        assertEquals(20, slow.m_requests.get());
+        assertTrue(slow.m_maxActive.get() <= 4);
+        assertTrue(slow.m_maxActive.get() > 1);
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+        m_server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        m_server.setExecutor(Executors.newCachedThreadPool());
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        m_server.stop(0);
+        super.tearDown();
+    }
+
+    /**
+     * Returns the URL of the given path on the stub server.<p>
+     *
+     * @param path the path
+     *
+     * @return the URL
+     *
+     * @throws Exception if something goes wrong
+     */
+    private URL getUrl(String path) throws Exception {
+
+        return new URL("http://127.0.0.1:" + m_server.getAddress().getPort() + path);
+    }
+}
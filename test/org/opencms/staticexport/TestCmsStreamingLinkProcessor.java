@@ -0,0 +1,103 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import org.opencms.test.OpenCmsTestCase;
+
+/**
+ * Tests for the single pass link macro replacement of the <code>{@link CmsStreamingLinkProcessor}</code>.<p>
+ */
+public class TestCmsStreamingLinkProcessor extends OpenCmsTestCase {
+
+    /**
+     * Creates a processor that resolves every macro "%(linkN)" to "/target/N".<p>
+     *
+     * @return the processor
+     */
+    private static CmsStreamingLinkProcessor createProcessor() {
+
+        return new CmsStreamingLinkProcessor(null, new CmsLinkTable()) {
+
+            @Override
+            protected String resolveLink(String tagName, String value) {
+
+                if (value.startsWith("%(link") && value.endsWith(")")) {
+                    String link = "/target/" + value.substring(6, value.length() - 1);
+                    return CmsLinkProcessor.TAG_PARAM.equals(tagName) ? link + "?" : link;
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Tests that content without link attributes is copied unchanged.<p>
+     */
+    public void testContentWithoutLinks() {
+
+        CmsStreamingLinkProcessor processor = createProcessor();
+        String content = "<p class=\"x\">Some <b>text</b> with a < sign and %(link0) outside of tags</p><!-- <a href=\"%(link1)\"> -->";
+        assertEquals(content, processor.process(content));
+        assertEquals("plain text", processor.process("plain text"));
+    }
+
+    /**
+     * Tests the replacement of macros in the link attributes of the handled tags.<p>
+     */
+    public void testReplaceMacros() {
+
+        CmsStreamingLinkProcessor processor = createProcessor();
+        assertEquals(
+            "<p><a href=\"/target/0\" title=\"%(link9)\">a</a><img alt='' src='/target/1'/></p>",
+            processor.process("<p><a href=\"%(link0)\" title=\"%(link9)\">a</a><img alt='' src='%(link1)'/></p>"));
+        assertEquals("<A HREF=\"/target/2\">x</A>", processor.process("<A HREF=%(link2)>x</A>"));
+        assertEquals(
+            "<area shape=\"rect\" href=\"/target/3\"><embed src=\"/target/4\" pluginspage=\"/target/5\">",
+            processor.process("<area shape=\"rect\" href=\"%(link3)\"><embed src=\"%(link4)\" pluginspage=\"%(link5)\">"));
+    }
+
+    /**
+     * Tests the handling of object and param tags, and of script content.<p>
+     */
+    public void testObjectAndScript() {
+
+        CmsStreamingLinkProcessor processor = createProcessor();
+        // if a code base is set, data is relative to it and is not processed
+        assertEquals(
+            "<object data=\"%(link1)\" codebase=\"/target/0\"><param name=\"movie\" value=\"/target/2?\"></object>",
+            processor.process(
+                "<object data=\"%(link1)\" codebase=\"%(link0)\"><param name=\"movie\" value=\"%(link2)\"></object>"));
+        // param tags outside of object tags are not processed
+        assertEquals("<param value=\"%(link2)\">", processor.process("<param value=\"%(link2)\">"));
+        // script content is not parsed
+        String script = "<script>var s = '<a href=\"%(link0)\">';</script><a href=\"%(link0)\">";
+        assertEquals(
+            "<script>var s = '<a href=\"%(link0)\">';</script><a href=\"/target/0\">",
+            processor.process(script));
+    }
+}
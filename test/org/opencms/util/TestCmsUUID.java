@@ -36,7 +36,11 @@ import java.io.FileOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 
@@ -62,6 +66,112 @@ public class TestCmsUUID extends OpenCmsTestCase {
         super(arg0);
     }
 
+    /**
+     * Tests that UUIDs generated concurrently by several threads are unique.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testConcurrentUUIDGeneration() throws Exception {
+
+        CmsUUID.init(CmsUUID.getDummyEthernetAddress());
+        final int threadCount = 4;
+        final int testSize = 50000;
+        final List<CmsUUID> ids = Collections.synchronizedList(new ArrayList<CmsUUID>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < threadCount; t++) {
+            threads.add(new Thread() {
+
+                @Override
+                public void run() {
+
+                    List<CmsUUID> generated = new ArrayList<CmsUUID>(testSize);
+                    for (int i = 0; i < testSize; i++) {
+                        generated.add(new CmsUUID());
+                    }
+                    ids.addAll(generated);
+                }
+            });
+        }
+        long start = System.currentTimeMillis();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long time = System.currentTimeMillis() - start;
+        System.out.println(
+            "Time for generating " + (threadCount * testSize) + " UUIDs in " + threadCount + " threads : " + time);
+        assertEquals(threadCount * testSize, ids.size());
+        assertEquals(threadCount * testSize, new HashSet<CmsUUID>(ids).size());
+    }
+
+    /**
+     * Tests that generated UUIDs are ordered by their creation time.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testTimeOrderedUUID() throws Exception {
+
+        CmsUUID.init(CmsUUID.getDummyEthernetAddress());
+        CmsUUID last = new CmsUUID();
+        for (int i = 0; i < 100000; i++) {
+            CmsUUID id = new CmsUUID();
+            assertTrue(id.compareTo(last) > 0);
+            assertTrue(id.toString().compareTo(last.toString()) > 0);
+            last = id;
+        }
+        assertEquals('6', last.toString().charAt(14));
+        assertTrue(last.toString().matches(CmsUUID.UUID_REGEX));
+    }
+
+    /**
+     * Tests parsing and formatting UUIDs.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testUUIDParseAndFormat() throws Exception {
+
+        String[] values = {
+            "c300ba5c-01e8-3727-b305-5dcc9ccae1ee",
+            "00000000-0000-0000-0000-000000000000",
+            "ffffffff-ffff-ffff-ffff-ffffffffffff",
+            "1e0b8d4a-4b2c-11e0-9f6b-000c2943dc7d"};
+        for (String value : values) {
+            CmsUUID id = CmsUUID.valueOf(value);
+            assertEquals(value, id.toString());
+            assertEquals(id, new CmsUUID(value.toUpperCase()));
+            assertEquals(id, new CmsUUID(id.toByteArray()));
+            assertEquals(value, new UUID(id.toByteArray()).toString());
+            assertTrue(CmsUUID.isValidUUID(value));
+        }
+        assertTrue(CmsUUID.valueOf(values[2]).compareTo(CmsUUID.valueOf(values[0])) > 0);
+        assertTrue(CmsUUID.valueOf(values[1]).compareTo(CmsUUID.valueOf(values[3])) < 0);
+
+        String[] invalid = {
+            "c300ba5c-01e8-3727-b305-5dcc9ccae1e",
+            "c300ba5c-01e8-3727-b305x5dcc9ccae1ee",
+            "kaputt",
+            ""};
+        for (String value : invalid) {
+            try {
+                CmsUUID.valueOf(value);
+                fail("Invalid UUID accepted: " + value);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+
+        CmsUUID id = new CmsUUID();
+        int testSize = 100000;
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < testSize; i++) {
+            assertEquals(id, CmsUUID.valueOf(id.toString()));
+        }
+        long time = System.currentTimeMillis() - start;
+        System.out.println("Time for formatting and parsing " + testSize + " UUIDs : " + time);
+    }
+
     /**
      * Tests UUID generation.<p>
      *
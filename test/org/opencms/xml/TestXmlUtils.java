@@ -29,6 +29,8 @@ package org.opencms.xml;
 
 import org.opencms.test.OpenCmsTestCase;
 
+import org.dom4j.Document;
+
 /**
  * @since 6.0.0
  */
@@ -93,4 +95,32 @@ public class TestXmlUtils extends OpenCmsTestCase {
         assertEquals("Title", CmsXmlUtils.simplifyXpath("Title/"));
         assertEquals("Title", CmsXmlUtils.simplifyXpath("/Title/"));
     }
+
+    /**
+     * Test case for unmarshalling several documents with the XML reader reused by the current thread.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testUnmarshalReusedReader() throws Exception {
+
+        Document first = CmsXmlUtils.unmarshalHelper("<first><a>1</a></first>", null);
+        Document second = CmsXmlUtils.unmarshalHelper("<second><b>2</b><b>3</b></second>".getBytes("UTF-8"), null, true);
+        Document third = CmsXmlUtils.unmarshalHelper("<third/>", null);
+
+        assertEquals("first", first.getRootElement().getName());
+        assertEquals("1", first.getRootElement().elementText("a"));
+        assertEquals("second", second.getRootElement().getName());
+        assertEquals(2, second.getRootElement().elements("b").size());
+        assertEquals("third", third.getRootElement().getName());
+        assertTrue(third.getRootElement().elements().isEmpty());
+
+        try {
+            CmsXmlUtils.unmarshalHelper("<broken>", null);
+            fail("Unmarshalling an invalid document must fail");
+        } catch (CmsXmlException e) {
+            // expected
+        }
+        // the reader must still be usable after a failed parse
+        assertEquals("fourth", CmsXmlUtils.unmarshalHelper("<fourth/>", null).getRootElement().getName());
+    }
 }